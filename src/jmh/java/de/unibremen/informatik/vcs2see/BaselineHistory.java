@@ -0,0 +1,104 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.Commit;
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Version history as the GraphModifier kept it before the history was indexed by path ids: the most recent
+ * changes in a linked list and the number of changes in a map by path. It is only the baseline of the
+ * {@link HistoryBenchmark}. The paths are filtered with a compiled pattern and the minimum and maximum number
+ * of changes are computed once per call, so that only the structures of the history differ.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+class BaselineHistory {
+
+    private final Pattern languagePattern;
+
+    private final Deque<String> mostRecent;
+
+    private final Map<String, Integer> mostFrequent;
+
+    private final Map<String, Map<String, Integer>> nodes;
+
+    BaselineHistory(RepositoryData repositoryData, Collection<String> paths) {
+        this.languagePattern = Pattern.compile(repositoryData.getLanguage().regex());
+        this.mostRecent = new LinkedList<>();
+        this.mostFrequent = new HashMap<>();
+        this.nodes = new HashMap<>();
+        for (String path : paths) {
+            nodes.put(path, new HashMap<>());
+        }
+    }
+
+    /**
+     * Records a change of each path like {@link #recordHistory(Commit)}, but the paths are removed from the most
+     * recent changes in a single pass over the list. This builds a large history in linear time.
+     * @param paths changed paths of a commit, each path at most once
+     */
+    public void prepare(List<String> paths) {
+        mostRecent.removeAll(new HashSet<>(paths));
+        for (String path : paths) {
+            mostRecent.addFirst(path);
+            mostFrequent.merge(path, 1, Integer::sum);
+        }
+    }
+
+    public void recordHistory(Commit commit) {
+        for (FileChange fileChange : commit.getFileChanges()) {
+            VCSFile file = fileChange.getNewFile().orElse(fileChange.getOldFile().orElse(null));
+            if(file == null) {
+                continue;
+            }
+
+            String path = file.getRelativePath().replace('\\', '/');
+            if(!languagePattern.matcher(path).matches()) {
+                continue;
+            }
+
+            // Calculate most recent changes
+            mostRecent.remove(path);
+            mostRecent.addFirst(path);
+
+            // Calculate most frequent changes
+            if(mostFrequent.computeIfPresent(path, (k, v) -> v + 1) == null) {
+                mostFrequent.put(path, 1);
+            }
+        }
+    }
+
+    public void populateNodes() {
+        float min = mostFrequent.values().stream().min(Integer::compareTo).orElse(0);
+        float max = mostFrequent.values().stream().max(Integer::compareTo).orElse(255);
+
+        List<String> list = (LinkedList<String>) mostRecent;
+        for(int i = 0; i < list.size(); i++) {
+            String path = list.get(i);
+            if(nodes.containsKey(path)) {
+                int frequent = Math.round((255 / (max - min)) * (mostFrequent.getOrDefault(path, 0) - min));
+
+                Map<String, Integer> values = nodes.get(path);
+                values.put("Metric.Vcs2See.Most_Recent_Edit", interpolateMostRecent(list.size(), i));
+                values.put("Metric.Vcs2See.Most_Frequent_Edit", frequent);
+            }
+        }
+    }
+
+    private int interpolateMostRecent(int size, int index) {
+        int step = 255 / (size - 1);
+        return 255 - (step  * index);
+    }
+
+}
@@ -0,0 +1,70 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Myers diff of large files. Every tenth line is edited, every 25th line deleted
+ * and every 40th line followed by an inserted line.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiffProviderBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int lines;
+
+    private FileChange fileChange;
+
+    private DiffProvider diffProvider;
+
+    @Setup
+    public void setup() {
+        StringBuilder oldContent = new StringBuilder();
+        StringBuilder newContent = new StringBuilder();
+        for (int i = 1; i <= lines; i++) {
+            String line = "    int value" + i + " = compute(" + i + ");\n";
+            oldContent.append(line);
+            if(i % 10 == 0) {
+                newContent.append("    long value").append(i).append(" = compute(").append(i).append(");\n");
+            } else if(i % 25 != 0) {
+                newContent.append(line);
+            }
+            if(i % 40 == 0) {
+                newContent.append("    // inserted ").append(i).append('\n');
+            }
+        }
+
+        fileChange = Fakes.fileChange("Generated.java", oldContent.toString().getBytes(StandardCharsets.UTF_8),
+                newContent.toString().getBytes(StandardCharsets.UTF_8));
+        diffProvider = new MyersDiffProvider();
+    }
+
+    @Benchmark
+    public LineChangeData myers() throws IOException {
+        return diffProvider.diff(fileChange);
+    }
+
+}
@@ -0,0 +1,113 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.Commit;
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.LineChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+
+import java.lang.reflect.Proxy;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Synthetic commits for the benchmarks. The LibVCS4j interfaces are implemented with proxies,
+ * so only the methods used by the GraphModifier have to be answered.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    /**
+     * Creates a commit which modifies the given files.
+     * @param id id of the commit
+     * @param paths relative paths of the modified files
+     * @param changedLines number of inserted and deleted lines per file
+     * @return synthetic commit
+     */
+    static Commit commit(String id, List<String> paths, int changedLines) {
+        List<FileChange> fileChanges = new ArrayList<>();
+        for (String path : paths) {
+            fileChanges.add(fileChange(path, changedLines));
+        }
+
+        Map<String, Object> values = Map.of(
+                "getId", id,
+                "getAuthor", "Benchmark",
+                "getMessage", "Synthetic commit " + id,
+                "getDateTime", ZonedDateTime.parse("2021-12-01T15:35:27+01:00"),
+                "getFileChanges", fileChanges,
+                "getParentIds", Collections.emptyList());
+        return proxy(Commit.class, values);
+    }
+
+    /**
+     * Creates a modification of a file with the given number of inserted and deleted lines.
+     * Every other deleted line has the line number of an inserted line, so all three kinds of changes occur.
+     * @param path relative path of the file
+     * @param changedLines number of inserted and deleted lines
+     * @return synthetic file change
+     */
+    static FileChange fileChange(String path, int changedLines) {
+        VCSFile file = proxy(VCSFile.class, Map.of("getRelativePath", path, "getPath", path));
+
+        List<LineChange> lineChanges = new ArrayList<>();
+        for (int i = 1; i <= changedLines; i++) {
+            lineChanges.add(new LineChange(LineChange.Type.INSERT, i, "inserted " + i, file));
+            lineChanges.add(new LineChange(LineChange.Type.DELETE, i % 2 == 0 ? i : changedLines + i, "deleted " + i, file));
+        }
+
+        Map<String, Object> values = Map.of(
+                "getOldFile", Optional.of(file),
+                "getNewFile", Optional.of(file),
+                "getType", FileChange.Type.MODIFY,
+                "computeDiff", lineChanges);
+        return proxy(FileChange.class, values);
+    }
+
+    /**
+     * Creates a modification of a file with the given content before and after the commit.
+     * Only the content is answered, so the line changes have to be computed by the diff provider.
+     * @param path relative path of the file
+     * @param oldContent content before the commit
+     * @param newContent content after the commit
+     * @return synthetic file change
+     */
+    static FileChange fileChange(String path, byte[] oldContent, byte[] newContent) {
+        VCSFile oldFile = proxy(VCSFile.class, Map.of("getRelativePath", path, "getPath", path, "readAllBytes", oldContent));
+        VCSFile newFile = proxy(VCSFile.class, Map.of("getRelativePath", path, "getPath", path, "readAllBytes", newContent));
+
+        Map<String, Object> values = Map.of(
+                "getOldFile", Optional.of(oldFile),
+                "getNewFile", Optional.of(newFile),
+                "getType", FileChange.Type.MODIFY);
+        return proxy(FileChange.class, values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + values;
+            }
+
+            if(!values.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return values.get(method.getName());
+        });
+    }
+
+}
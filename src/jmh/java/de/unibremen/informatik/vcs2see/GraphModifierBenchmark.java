@@ -0,0 +1,127 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.Commit;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per-commit GXL cycle of the {@link GraphModifier}:
+ * loading the file nodes, adding the commit data, populating the history metrics and saving the file.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphModifierBenchmark {
+
+    private static final int CHANGED_FILES = 10;
+
+    private static final int CHANGED_LINES = 50;
+
+    @Param({"example-3", "example-64", "example-127", "synthetic-1000", "synthetic-10000", "synthetic-100000"})
+    private String graph;
+
+    private PrintStream console;
+
+    private File directory;
+
+    private File file;
+
+    private GraphModifier graphModifier;
+
+    private Commit commit;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // The modifier reports every node on the console, which would dominate the measurement.
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        directory = Files.createTempDirectory("vcs2see-benchmark-").toFile();
+        file = new File(directory, graph + ".gxl");
+        Graphs.create(graph, file);
+
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName(graph);
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("");
+
+        // Every file of the graph was changed once before, some of them are changed by the measured commit.
+        GraphModel graphModel = new GraphModel();
+        graphModel.update(file, new GxlIO());
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < graphModel.fileNodeCount(); i++) {
+            paths.add(graphModel.linkage(graphModel.fileNode(i)));
+        }
+        graphModifier = new GraphModifier(repositoryData);
+        graphModifier.loadFile(file);
+        graphModifier.loadNodes();
+        graphModifier.queryCommitData(Fakes.commit("history", paths, 0));
+
+        List<String> changed = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i += Math.max(1, paths.size() / CHANGED_FILES)) {
+            changed.add(paths.get(i));
+        }
+        commit = Fakes.commit("benchmark", changed, CHANGED_LINES);
+
+        graphModifier.queryCommitData(commit);
+        graphModifier.populateNodes();
+        graphModifier.addCommitGraph(commit);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void loadFileAndNodes() throws IOException {
+        graphModifier.loadFile(file);
+        graphModifier.loadNodes();
+        graphModifier.addCommitGraph(commit);
+    }
+
+    @Benchmark
+    public void queryCommitData() throws IOException {
+        graphModifier.queryCommitData(commit);
+    }
+
+    @Benchmark
+    public void populateNodes() {
+        graphModifier.populateNodes();
+    }
+
+    @Benchmark
+    public void saveFile() throws IOException {
+        graphModifier.saveFile();
+    }
+
+}
@@ -0,0 +1,98 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Graphs for the benchmarks. Either a file from the example directory or a synthetic clone graph
+ * in the format exported by rfgexport.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+final class Graphs {
+
+    private static final int FILES_PER_DIRECTORY = 100;
+
+    private Graphs() {
+    }
+
+    /**
+     * Copies the graph with the given name into a file.
+     * @param name "example-&lt;n&gt;" for a file in example/ or "synthetic-&lt;n&gt;" for n synthetic file nodes
+     * @param target file to write
+     * @throws IOException exception
+     */
+    static void create(String name, File target) throws IOException {
+        if(name.startsWith("example-")) {
+            Files.copy(new File("example", name + ".gxl").toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else if(name.startsWith("synthetic-")) {
+            writeSynthetic(Integer.parseInt(name.substring("synthetic-".length())), target);
+        } else {
+            throw new IllegalArgumentException("Unknown graph " + name);
+        }
+    }
+
+    /**
+     * Returns the linkage names of the file nodes of a synthetic graph.
+     * @param files number of file nodes
+     * @return linkage names
+     */
+    static List<String> syntheticPaths(int files) {
+        List<String> paths = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            paths.add("de/example/p" + (i / FILES_PER_DIRECTORY) + "/File" + i + ".java");
+        }
+        return paths;
+    }
+
+    private static void writeSynthetic(int files, File target) throws IOException {
+        List<String> paths = syntheticPaths(files);
+        int directories = (files + FILES_PER_DIRECTORY - 1) / FILES_PER_DIRECTORY;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<!DOCTYPE gxl SYSTEM \"http://www.gupro.de/GXL/gxl-1.0.dtd\">\n");
+            writer.write("<gxl xmlns:xlink=\"http://www.w3.org/1999/xlink\">\n");
+            writer.write("\t<graph edgeids=\"true\" id=\"Clones\">");
+
+            for (int d = 0; d < directories; d++) {
+                writer.write("\n\t\t<node id=\"D" + d + "\">\n\t\t\t<type xlink:href=\"Directory\"/>");
+                attribute(writer, "Source.Name", "string", "p" + d);
+                attribute(writer, "Linkage.Name", "string", "p" + d + "/example/de");
+                writer.write("\n\t\t</node>");
+            }
+
+            for (int i = 0; i < files; i++) {
+                String path = paths.get(i);
+                writer.write("\n\t\t<node id=\"N" + i + "\">\n\t\t\t<type xlink:href=\"File\"/>");
+                attribute(writer, "Metric.Number_of_Tokens", "int", String.valueOf(100 + i % 400));
+                attribute(writer, "Metric.LOC", "int", String.valueOf(20 + i % 80));
+                attribute(writer, "Metric.Clone_Rate", "float", "0.000000");
+                attribute(writer, "Source.Name", "string", "File" + i + ".java");
+                attribute(writer, "Linkage.Name", "string", path);
+                attribute(writer, "Source.File", "string", "File" + i + ".java");
+                attribute(writer, "Source.Path", "string", path.substring(0, path.lastIndexOf('/') + 1));
+                writer.write("\n\t\t</node>");
+            }
+
+            for (int i = 0; i < files; i++) {
+                writer.write("\n\t\t<edge from=\"N" + i + "\" id=\"E" + i + "\" to=\"D" + (i / FILES_PER_DIRECTORY) + "\">");
+                writer.write("\n\t\t\t<type xlink:href=\"Enclosing\"/>\n\t\t</edge>");
+            }
+
+            writer.write("\n\t</graph>\n</gxl>");
+        }
+    }
+
+    private static void attribute(BufferedWriter writer, String name, String type, String value) throws IOException {
+        writer.write("\n\t\t\t<attr name=\"" + name + "\">\n\t\t\t\t<" + type + ">" + value + "</" + type + ">\n\t\t\t</attr>");
+    }
+
+}
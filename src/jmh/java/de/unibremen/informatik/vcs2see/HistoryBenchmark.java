@@ -0,0 +1,135 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.Commit;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the history metrics Most_Recent_Edit and Most_Frequent_Edit against the size of the history.
+ * The history is built from synthetic commits which change every file with a different frequency.
+ * The benchmarks with the prefix baseline run the same commits on the {@link BaselineHistory}, the structures
+ * used before the history was indexed by path ids.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int files;
+
+    private PrintStream console;
+
+    private File directory;
+
+    private GraphModifier graphModifier;
+
+    private BaselineHistory baselineHistory;
+
+    private Commit commit;
+
+    private Commit[] commits;
+
+    private int next;
+
+    private int baselineNext;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        directory = Files.createTempDirectory("vcs2see-benchmark-").toFile();
+        File file = new File(directory, "history.gxl");
+        Graphs.create("synthetic-" + files, file);
+
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("history");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("");
+
+        graphModifier = new GraphModifier(repositoryData);
+        graphModifier.loadFile(file);
+        graphModifier.loadNodes();
+
+        // The first file is changed once, the following ones up to eight times.
+        List<String> paths = Graphs.syntheticPaths(files);
+        baselineHistory = new BaselineHistory(repositoryData, paths);
+        for (int round = 0; round < 8; round++) {
+            graphModifier.queryCommitData(Fakes.commit("history-" + round, paths.subList(round * files / 8, files), 0));
+            baselineHistory.prepare(paths.subList(round * files / 8, files));
+        }
+        commit = Fakes.commit("benchmark", paths.subList(0, Math.min(10, files)), 0);
+
+        // Each of these commits changes ten paths spread over the whole history, so that a path is rarely
+        // among the most recent ones when it is changed again.
+        commits = new Commit[Math.max(1, files / 10)];
+        for (int i = 0; i < commits.length; i++) {
+            List<String> changed = new ArrayList<>();
+            for (int path = i; path < files; path += commits.length) {
+                changed.add(paths.get(path));
+            }
+            commits[i] = Fakes.commit("spread-" + i, changed, 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void queryCommitData() throws IOException {
+        graphModifier.queryCommitData(commit);
+    }
+
+    @Benchmark
+    public void recordHistory() {
+        graphModifier.recordHistory(commits[next++ % commits.length]);
+    }
+
+    @Benchmark
+    public void populateNodes() {
+        graphModifier.populateNodes();
+    }
+
+    @Benchmark
+    public void baselineRecordHistory() {
+        baselineHistory.recordHistory(commits[baselineNext++ % commits.length]);
+    }
+
+    @Benchmark
+    public void baselinePopulateNodes() {
+        baselineHistory.populateNodes();
+    }
+
+}
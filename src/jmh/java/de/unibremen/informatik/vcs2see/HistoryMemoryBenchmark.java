@@ -0,0 +1,106 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the heap retained by the version history of a synthetic history with many paths.
+ * Every commit creates new path strings, like the changed files of real commits do. The retained heap is
+ * reported as the secondary result retainedMegabytes, the primary result is the time to build the history
+ * including the garbage collections of the measurement.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-XX:+UseSerialGC"})
+public class HistoryMemoryBenchmark {
+
+    private static final int FILES_PER_COMMIT = 1000;
+
+    @Param({"500000"})
+    private int files;
+
+    private PrintStream console;
+
+    private RepositoryData repositoryData;
+
+    /**
+     * Heap retained by the history of the last measurement.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+
+        public double retainedMegabytes;
+
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        repositoryData = new RepositoryData();
+        repositoryData.setName("history");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public GraphModifier buildHistory(Memory memory) {
+        long before = usedHeap();
+        GraphModifier graphModifier = new GraphModifier(repositoryData);
+
+        // The first files are changed once, the last ones up to four times.
+        for (int round = 0; round < 4; round++) {
+            for (int start = round * files / 8; start < files; start += FILES_PER_COMMIT) {
+                List<String> paths = new ArrayList<>(FILES_PER_COMMIT);
+                for (int i = start; i < Math.min(files, start + FILES_PER_COMMIT); i++) {
+                    paths.add("de/example/p" + (i / 100) + "/File" + i + ".java");
+                }
+                graphModifier.recordHistory(Fakes.commit("history-" + round + "-" + start, paths, 0));
+            }
+        }
+
+        memory.retainedMegabytes = (usedHeap() - before) / (1024.0 * 1024.0);
+        return graphModifier;
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,53 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.LineChange;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the classification of large diffs into added, edited and deleted lines.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineChangeClassifierBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int lines;
+
+    private List<LineChange> lineChanges;
+
+    private LineChangeClassifier lineChangeClassifier;
+
+    @Setup
+    public void setup() throws IOException {
+        lineChanges = Fakes.fileChange("Generated.java", lines).computeDiff();
+        lineChangeClassifier = new LineChangeClassifier();
+    }
+
+    @Benchmark
+    public LineChangeData classify() {
+        return lineChangeClassifier.classify(lineChanges);
+    }
+
+}
@@ -0,0 +1,49 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Analysis which turns the working tree of a revision into a clone graph.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public interface Analyser {
+
+    /**
+     * Directory of the working tree which is analysed.
+     * @return directory
+     */
+    File getDirectory();
+
+    /**
+     * Start analysis in the working tree.
+     * @param revision index of the revision to be analyzed
+     * @return generated GXL file
+     * @throws IOException exception
+     */
+    File analyse(int revision) throws IOException;
+
+    /**
+     * Start analysis in the working tree. Analysers which keep results between revisions only have to look at
+     * the paths which changed since their last analysis.
+     * @param revision index of the revision to be analyzed
+     * @param changedPaths paths relative to the working tree which changed since the last analysis of this analyser,
+     *                     or null if they are unknown
+     * @return generated GXL file
+     * @throws IOException exception
+     */
+    default File analyse(int revision, Set<String> changedPaths) throws IOException {
+        return analyse(revision);
+    }
+
+    /**
+     * Available implementations of the analysis.
+     */
+    enum Backend {
+        BAUHAUS, JAVA
+    }
+
+}
@@ -0,0 +1,234 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Component which reads the settings of a headless run from a properties file.
+ * Besides the keys of the interactive setup, the file contains the command line options as keys and a list
+ * of repositories, e.g.
+ * <pre>
+ * path.bauhaus=C:\\Program Files (x86)\\Bauhaus\\bin
+ * workers=4
+ * parallel=3
+ * max-processes=8
+ * analyser=java
+ * repositories=alpha, beta
+ * repository.alpha.type=GIT
+ * repository.alpha.language=JAVA
+ * repository.alpha.path=/repositories/alpha
+ * repository.alpha.base=src/main/java
+ * repository.alpha.stride=10
+ * </pre>
+ * Every repository is written to a folder with its name, which is the key of the repository by default.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class BatchManager {
+
+    private static final String REPOSITORY_PREFIX = "repository.";
+
+    private final PropertiesManager propertiesManager;
+
+    /**
+     * Initialization for the BatchManager.
+     * @param file properties file of the headless run
+     * @throws IOException exception
+     */
+    public BatchManager(File file) throws IOException {
+        this(file, true);
+    }
+
+    /**
+     * Initialization for the BatchManager.
+     * @param file properties file of the headless run
+     * @param required whether a missing file is an error, otherwise it is read as an empty file
+     * @throws IOException exception
+     */
+    public BatchManager(File file, boolean required) throws IOException {
+        this.propertiesManager = new PropertiesManager();
+        if(file.isFile()) {
+            propertiesManager.loadProperties(file);
+        } else if(required) {
+            throw new IOException("Config file " + file.getPath() + " not found");
+        }
+    }
+
+    /**
+     * Reads the environment settings.
+     * @return environment data object
+     * @throws IOException if a value is invalid
+     */
+    public EnvironmentData loadEnvironment() throws IOException {
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setBauhausPath(propertiesManager.getProperty("path.bauhaus").orElse(null));
+        environmentData.setCpfcsv2rfgPath(propertiesManager.getProperty("path.cpfcsv2rfg").orElse(null));
+        environmentData.setBasePathFilter(propertiesManager.getProperty("path.base").orElse(null));
+
+        try {
+            Optional<String> value = property("workers");
+            if(value.isPresent()) {
+                environmentData.setWorkers(Integer.parseInt(value.get()));
+            }
+
+            value = property("parallel");
+            if(value.isPresent()) {
+                environmentData.setParallel(Integer.parseInt(value.get()));
+            }
+
+            value = property("pool");
+            if(value.isPresent()) {
+                environmentData.setPoolSize(Integer.parseInt(value.get()));
+            }
+
+            value = property("max-processes");
+            if(value.isPresent()) {
+                environmentData.setMaxProcesses(Integer.parseInt(value.get()));
+            }
+
+            value = property("checkpoint");
+            if(value.isPresent()) {
+                environmentData.setCheckpointInterval(Integer.parseInt(value.get()));
+            }
+
+            value = property("progress");
+            if(value.isPresent()) {
+                environmentData.setProgressInterval(Integer.parseInt(value.get()));
+            }
+
+            value = property("analyser");
+            if(value.isPresent()) {
+                environmentData.setAnalyser(Analyser.Backend.valueOf(value.get().toUpperCase(Locale.ROOT)));
+            }
+
+            value = property("converter");
+            if(value.isPresent()) {
+                environmentData.setConverter(CodeAnalyser.Converter.valueOf(value.get().toUpperCase(Locale.ROOT)));
+            }
+
+            value = property("diff");
+            if(value.isPresent()) {
+                environmentData.setDiff(DiffProvider.Backend.valueOf(value.get().toUpperCase(Locale.ROOT)));
+            }
+
+            value = property("output");
+            if(value.isPresent()) {
+                environmentData.setOutput(RepositoryCrawler.Output.valueOf(value.get().toUpperCase(Locale.ROOT)));
+            }
+
+            value = property("tool.output");
+            if(value.isPresent()) {
+                environmentData.setToolOutput(ProcessToolRunner.Output.valueOf(value.get().toUpperCase(Locale.ROOT)));
+            }
+
+            value = property("tool.timeout");
+            if(value.isPresent()) {
+                environmentData.setToolTimeout(Long.parseLong(value.get()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid environment setting: " + e.getMessage(), e);
+        }
+
+        environmentData.setStatistics(property("statistics").map(Boolean::parseBoolean).orElse(false));
+        environmentData.setResume(property("resume").map(Boolean::parseBoolean).orElse(false));
+        environmentData.setFilterWorkspaces(property("workspace.filter").map(Boolean::parseBoolean).orElse(false));
+        environmentData.setVerifyWorkspaces(property("workspace.verify").map(Boolean::parseBoolean).orElse(false));
+        return environmentData;
+    }
+
+    /**
+     * Reads the settings of all listed repositories.
+     * @return repository data objects in the order of the list
+     * @throws IOException if a required value is missing or a value is invalid
+     */
+    public List<RepositoryData> loadRepositories() throws IOException {
+        List<RepositoryData> repositories = new ArrayList<>();
+        for (String key : property("repositories").orElse("").split(",")) {
+            if(!key.isBlank()) {
+                repositories.add(loadRepository(key.trim()));
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * Reads the settings of a repository.
+     * @param key key of the repository in the list
+     * @return repository data object
+     * @throws IOException if a required value is missing or a value is invalid
+     */
+    private RepositoryData loadRepository(String key) throws IOException {
+        String prefix = REPOSITORY_PREFIX + key + ".";
+        RepositoryData repositoryData = new RepositoryData();
+
+        try {
+            repositoryData.setName(property(prefix + "name").orElse(key));
+            repositoryData.setType(RepositoryCrawler.Type.valueOf(required(prefix + "type").toUpperCase(Locale.ROOT)));
+            repositoryData.setLanguage(CodeAnalyser.Language.valueOf(required(prefix + "language").toUpperCase(Locale.ROOT)));
+            repositoryData.setPath(required(prefix + "path"));
+            repositoryData.setBasePath(property(prefix + "base").orElse("src/main/java"));
+            repositoryData.setFrom(property(prefix + "from").orElse(null));
+            repositoryData.setTo(property(prefix + "to").orElse(null));
+
+            Optional<String> value = property(prefix + "since");
+            if(value.isPresent()) {
+                repositoryData.setSince(parseDate(value.get(), LocalTime.MIN));
+            }
+
+            value = property(prefix + "until");
+            if(value.isPresent()) {
+                repositoryData.setUntil(parseDate(value.get(), LocalTime.MAX));
+            }
+
+            value = property(prefix + "stride");
+            if(value.isPresent()) {
+                repositoryData.setStride(Integer.parseInt(value.get()));
+            }
+
+            value = property(prefix + "max-count");
+            if(value.isPresent()) {
+                repositoryData.setMaxCount(Integer.parseInt(value.get()));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IOException("Invalid setting of repository " + key + ": " + e.getMessage(), e);
+        }
+
+        return repositoryData;
+    }
+
+    /**
+     * Parses a date with an optional time.
+     * @param value date, e.g. 2021-06-30, or date and time, e.g. 2021-06-30T12:00:00
+     * @param time time if only a date is given
+     * @return date and time
+     */
+    public static LocalDateTime parseDate(String value, LocalTime time) {
+        if(value.contains("T")) {
+            return LocalDateTime.parse(value);
+        }
+        return LocalDate.parse(value).atTime(time);
+    }
+
+    private Optional<String> property(String key) {
+        return propertiesManager.getProperty(key)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty());
+    }
+
+    private String required(String key) throws IOException {
+        return property(key).orElseThrow(() -> new IOException("Missing setting " + key));
+    }
+
+}
@@ -0,0 +1,133 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.CheckpointData;
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Component which handles reading and writing of the checkpoints of a crawl.
+ * A checkpoint contains the index and id of the last processed commit, the settings which decide about the
+ * processed commits and their graphs, and the version history up to it.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class CheckpointManager {
+
+    private static final int VERSION = 3;
+
+    private final File file;
+
+    private final Map<String, String> settings;
+
+    /**
+     * Initialization for the CheckpointManager.
+     * @param file checkpoint file
+     * @param repositoryData all the required information about the repository
+     * @param environmentData all the required information about the environment
+     */
+    public CheckpointManager(File file, RepositoryData repositoryData, EnvironmentData environmentData) {
+        this.file = file;
+        this.settings = new LinkedHashMap<>();
+        settings.put("from", String.valueOf(repositoryData.getFrom()));
+        settings.put("to", String.valueOf(repositoryData.getTo()));
+        settings.put("since", String.valueOf(repositoryData.getSince()));
+        settings.put("until", String.valueOf(repositoryData.getUntil()));
+        settings.put("stride", String.valueOf(repositoryData.getStride()));
+        settings.put("max-count", String.valueOf(repositoryData.getMaxCount()));
+        settings.put("language", String.valueOf(repositoryData.getLanguage()));
+        settings.put("base-path", String.valueOf(repositoryData.getBasePath()));
+        settings.put("base-path-filter", String.valueOf(environmentData.getBasePathFilter()));
+        settings.put("output", String.valueOf(environmentData.getOutput()));
+        settings.put("analyser", String.valueOf(environmentData.getAnalyser()));
+        settings.put("converter", String.valueOf(environmentData.getConverter()));
+        settings.put("diff", String.valueOf(environmentData.getDiff()));
+    }
+
+    /**
+     * Saves a checkpoint. The previous checkpoint is replaced atomically.
+     * @param index index of the last processed commit
+     * @param commitId id of the last processed commit
+     * @param graphModifier modifier holding the version history
+     * @throws IOException exception
+     */
+    public void save(int index, String commitId, GraphModifier graphModifier) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            output.writeInt(VERSION);
+            output.writeInt(index);
+            output.writeUTF(commitId);
+            output.writeInt(settings.size());
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                output.writeUTF(setting.getKey());
+                output.writeUTF(setting.getValue());
+            }
+            graphModifier.writeHistory(output);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the last checkpoint and restores the version history.
+     * @param graphModifier modifier to restore the version history into
+     * @return last processed commit or empty if there is no checkpoint
+     * @throws IOException if the checkpoint was written by another version or with other settings
+     */
+    public Optional<CheckpointData> load(GraphModifier graphModifier) throws IOException {
+        if(!file.exists()) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(input.readInt() != VERSION) {
+                throw new IOException("Unsupported checkpoint " + file.getName());
+            }
+
+            CheckpointData checkpointData = new CheckpointData(input.readInt(), input.readUTF());
+
+            // The indices of the commits and the history depend on the settings, so they have to be the same.
+            Map<String, String> saved = new LinkedHashMap<>();
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                saved.put(input.readUTF(), input.readUTF());
+            }
+            for (Map.Entry<String, String> setting : settings.entrySet()) {
+                String value = saved.remove(setting.getKey());
+                if(!Objects.equals(value, setting.getValue())) {
+                    throw new IOException("Checkpoint " + file.getName() + " was saved with " + setting.getKey() + " "
+                            + value + " instead of " + setting.getValue() + ", start without --resume");
+                }
+            }
+            if(!saved.isEmpty()) {
+                throw new IOException("Checkpoint " + file.getName() + " was saved with other settings " + saved.keySet());
+            }
+
+            graphModifier.readHistory(input);
+            return Optional.of(checkpointData);
+        }
+    }
+
+    /**
+     * Deletes the checkpoint.
+     * @throws IOException exception
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+}
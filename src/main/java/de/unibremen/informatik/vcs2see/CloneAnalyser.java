@@ -0,0 +1,176 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.CloneData;
+import de.unibremen.informatik.vcs2see.data.ClonePairData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import de.unibremen.informatik.vcs2see.data.TokenData;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Component to detect clones inside the JVM, without the Bauhaus tools.
+ * The generated graph has the same nodes, edges and attributes as the graph exported by rfgexport.
+ * Tokens and clones are kept between revisions. If the changed paths since the last analysis are known,
+ * only these files are read again, otherwise all files are read and only files with a new content hash
+ * are tokenized again.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class CloneAnalyser implements Analyser {
+
+    private static final int MIN_TOKENS = 100;
+
+    @Getter
+    private final File directory;
+
+    private final RepositoryData repositoryData;
+
+    private final StatisticsManager statisticsManager;
+
+    private final Tokenizer tokenizer;
+
+    private final CloneDetector cloneDetector;
+
+    private final SourceFiles sourceFiles;
+
+    private final CloneGraphWriter cloneGraphWriter;
+
+    private final Map<String, Long> hashes;
+
+    private boolean initialized;
+
+    /**
+     * Initialization for the CloneAnalyser.
+     * @param path path to the repository to be analyzed
+     * @param repositoryData all the required information about the repository
+     */
+    public CloneAnalyser(String path, RepositoryData repositoryData) {
+        this(path, repositoryData, StatisticsManager.disabled());
+    }
+
+    /**
+     * Initialization for the CloneAnalyser.
+     * @param path path to the repository to be analyzed
+     * @param repositoryData all the required information about the repository
+     * @param statisticsManager statistics for the duration of the analysis
+     */
+    public CloneAnalyser(String path, RepositoryData repositoryData, StatisticsManager statisticsManager) {
+        this.directory = new File(path);
+        this.repositoryData = repositoryData;
+        this.statisticsManager = statisticsManager;
+        this.tokenizer = new Tokenizer(repositoryData.getLanguage());
+        this.cloneDetector = new CloneDetector(MIN_TOKENS);
+        this.sourceFiles = new SourceFiles(repositoryData);
+        this.cloneGraphWriter = new CloneGraphWriter();
+        this.hashes = new HashMap<>();
+    }
+
+    @Override
+    public File analyse(int revision) throws IOException {
+        return analyse(revision, null);
+    }
+
+    @Override
+    public File analyse(int revision, Set<String> changedPaths) throws IOException {
+        File output = new File(directory, repositoryData.getName());
+        output.mkdirs();
+
+        long start = statisticsManager.start();
+        if(initialized && changedPaths != null) {
+            for (String changedPath : changedPaths) {
+                String relative = changedPath.replace('\\', '/');
+                String path = sourceFiles.linkageName(relative);
+                if(path != null) {
+                    update(path, directory.toPath().resolve(relative));
+                }
+            }
+        } else {
+            Map<String, Path> paths = sourceFiles.list(directory.toPath());
+            for (String path : new ArrayList<>(hashes.keySet())) {
+                if(!paths.containsKey(path)) {
+                    update(path, null);
+                }
+            }
+            for (Map.Entry<String, Path> entry : paths.entrySet()) {
+                update(entry.getKey(), entry.getValue());
+            }
+            initialized = true;
+        }
+        statisticsManager.stop(StatisticsManager.Stage.TOKENIZE, start);
+
+        start = statisticsManager.start();
+        List<CloneData> clones = cloneDetector.detect();
+        List<TokenData> files = cloneDetector.getFiles();
+        statisticsManager.stop(StatisticsManager.Stage.DETECT, start);
+
+        File file = new File(output, repositoryData.getName() + "-" + revision + ".gxl");
+        start = statisticsManager.start();
+        cloneGraphWriter.write(file, files, pairs(files, clones));
+        statisticsManager.stop(StatisticsManager.Stage.GXL_WRITE, start);
+        return file;
+    }
+
+    /**
+     * Tokenizes a file again if its content changed, or removes it if it does not exist anymore.
+     * @param path path relative to the base path
+     * @param file file in the working tree
+     * @throws IOException exception
+     */
+    private void update(String path, Path file) throws IOException {
+        if(file == null || !Files.isRegularFile(file)) {
+            if(hashes.remove(path) != null) {
+                cloneDetector.remove(path);
+            }
+            return;
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        long hash = SourceFiles.hash(content);
+        Long previous = hashes.put(path, hash);
+        if(previous == null || previous != hash) {
+            cloneDetector.add(tokenizer.tokenize(path, new String(content, StandardCharsets.UTF_8)));
+            statisticsManager.count(StatisticsManager.Counter.FILES_TOKENIZED, 1);
+        }
+    }
+
+    /**
+     * Turns the clones into clone pairs with the positions of their first and last tokens.
+     * @param files tokenized files
+     * @param clones found clones
+     * @return clone pairs
+     */
+    private List<ClonePairData> pairs(List<TokenData> files, List<CloneData> clones) {
+        Map<String, TokenData> paths = new HashMap<>();
+        for (TokenData tokens : files) {
+            paths.put(tokens.getPath(), tokens);
+        }
+
+        List<ClonePairData> pairs = new ArrayList<>(clones.size());
+        for (CloneData clone : clones) {
+            TokenData source = paths.get(clone.getSource());
+            TokenData target = paths.get(clone.getTarget());
+            int sourceEnd = clone.getSourceStart() + clone.getLength() - 1;
+            int targetEnd = clone.getTargetStart() + clone.getLength() - 1;
+            pairs.add(new ClonePairData(clone.getSource(),
+                    source.getStartLines()[clone.getSourceStart()], source.getStartColumns()[clone.getSourceStart()],
+                    source.getEndLines()[sourceEnd], source.getEndColumns()[sourceEnd],
+                    clone.getTarget(),
+                    target.getStartLines()[clone.getTargetStart()], target.getStartColumns()[clone.getTargetStart()],
+                    target.getEndLines()[targetEnd], target.getEndColumns()[targetEnd],
+                    clone.getType()));
+        }
+        return pairs;
+    }
+
+}
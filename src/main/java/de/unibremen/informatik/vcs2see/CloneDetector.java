@@ -0,0 +1,377 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.CloneData;
+import de.unibremen.informatik.vcs2see.data.TokenData;
+import lombok.Data;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Component which finds clone pairs in tokenized files with a rolling hash (Rabin-Karp) over token windows.
+ * The detector keeps the files and their clones between revisions, so only the clones of added or changed
+ * files have to be searched again. The windows of every file are indexed at a fixed stride. A clone of the
+ * minimum length always contains an indexed window, so comparing all windows of a changed file against the
+ * index finds all of its clones. Matches are extended to maximal clones token by token.
+ * Clones of the same code with renamed identifiers or literals are type 2 clones, clones of identical code
+ * type 1 clones.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class CloneDetector {
+
+    private static final int BASE = 1_000_003;
+
+    private static final int EMPTY = -1;
+
+    private final int minTokens;
+
+    private final int stride;
+
+    private final int window;
+
+    private final int power;
+
+    private final List<TokenData> slots;
+
+    private final Deque<Integer> free;
+
+    private final Map<String, Integer> files;
+
+    private final BitSet removed;
+
+    private final List<Integer> added;
+
+    private final List<Clone> clones;
+
+    private int[] tableHashes;
+
+    private int[] tableSlots;
+
+    private int[] tablePositions;
+
+    private int tableEntries;
+
+    private int deadEntries;
+
+    /**
+     * Initialization for the CloneDetector.
+     * @param minTokens minimum number of tokens of a clone
+     */
+    public CloneDetector(int minTokens) {
+        this.minTokens = minTokens;
+        this.stride = Math.max(1, minTokens / 8);
+        this.window = minTokens - stride + 1;
+        this.slots = new ArrayList<>();
+        this.free = new ArrayDeque<>();
+        this.files = new TreeMap<>();
+        this.removed = new BitSet();
+        this.added = new ArrayList<>();
+        this.clones = new ArrayList<>();
+
+        int power = 1;
+        for (int i = 1; i < window; i++) {
+            power *= BASE;
+        }
+        this.power = power;
+
+        this.tableHashes = new int[1024];
+        this.tableSlots = new int[1024];
+        this.tablePositions = new int[1024];
+        Arrays.fill(tableSlots, EMPTY);
+    }
+
+    /**
+     * Adds a file or replaces the file with the same path.
+     * @param tokens tokenized file
+     */
+    public void add(TokenData tokens) {
+        remove(tokens.getPath());
+
+        int slot;
+        if(free.isEmpty()) {
+            slot = slots.size();
+            slots.add(tokens);
+        } else {
+            slot = free.pop();
+            slots.set(slot, tokens);
+        }
+        files.put(tokens.getPath(), slot);
+        added.add(slot);
+
+        int[] symbols = tokens.getSymbols();
+        if(symbols.length < window) {
+            return;
+        }
+
+        int hash = 0;
+        for (int i = 0; i < window; i++) {
+            hash = hash * BASE + symbols[i];
+        }
+        for (int i = 0; ; i++) {
+            if(i % stride == 0) {
+                insert(hash, slot, i);
+            }
+            if(i + window >= symbols.length) {
+                break;
+            }
+            hash = (hash - symbols[i] * power) * BASE + symbols[i + window];
+        }
+    }
+
+    /**
+     * Removes a file and its clones.
+     * @param path path of the file
+     */
+    public void remove(String path) {
+        Integer slot = files.remove(path);
+        if(slot == null) {
+            return;
+        }
+
+        // The indexed windows of the file are skipped from now on and dropped with the next rebuild of the index.
+        // The slot can only be reused once no window points to it anymore.
+        int size = slots.get(slot).size();
+        deadEntries += size < window ? 0 : (size - window) / stride + 1;
+        slots.set(slot, null);
+        removed.set(slot);
+        if(size < window) {
+            free.push(slot);
+        }
+    }
+
+    /**
+     * Returns the current files.
+     * @return tokenized files, sorted by path
+     */
+    public List<TokenData> getFiles() {
+        List<TokenData> result = new ArrayList<>(files.size());
+        for (int slot : files.values()) {
+            result.add(slots.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Searches the clones of all files added since the last call and returns the clones of all current files.
+     * @return clone pairs, sorted by source and target
+     */
+    public List<CloneData> detect() {
+        if(!removed.isEmpty()) {
+            clones.removeIf(clone -> removed.get(clone.getSource()) || removed.get(clone.getTarget()));
+            removed.clear();
+        }
+
+        Set<Clone> found = new HashSet<>();
+        for (int slot : added) {
+            if(slots.get(slot) != null) {
+                search(slot, found);
+            }
+        }
+        added.clear();
+        clones.addAll(found);
+
+        List<CloneData> result = new ArrayList<>(clones.size());
+        for (Clone clone : clones) {
+            result.add(new CloneData(slots.get(clone.getSource()).getPath(), clone.getSourceStart(),
+                    slots.get(clone.getTarget()).getPath(), clone.getTargetStart(), clone.getLength(), clone.getType()));
+        }
+        result.sort(Comparator.comparing(CloneData::getSource)
+                .thenComparingInt(CloneData::getSourceStart)
+                .thenComparing(CloneData::getTarget)
+                .thenComparingInt(CloneData::getTargetStart));
+        return result;
+    }
+
+    /**
+     * Compares every window of a file with the indexed windows of all files.
+     * @param slot slot of the file
+     * @param found clones found in this round
+     */
+    private void search(int slot, Set<Clone> found) {
+        int[] symbols = slots.get(slot).getSymbols();
+        if(symbols.length < window) {
+            return;
+        }
+
+        // A clone is found from all of its indexed windows, the rest of the diagonal can be skipped.
+        Map<Long, Integer> covered = new HashMap<>();
+        int mask = tableSlots.length - 1;
+        int hash = 0;
+        for (int i = 0; i < window; i++) {
+            hash = hash * BASE + symbols[i];
+        }
+
+        for (int position = 0; ; position++) {
+            for (int i = mix(hash) & mask; tableSlots[i] != EMPTY; i = (i + 1) & mask) {
+                if(tableHashes[i] != hash || slots.get(tableSlots[i]) == null) {
+                    continue;
+                }
+
+                int other = tableSlots[i];
+                int otherPosition = tablePositions[i];
+                if(other == slot && otherPosition == position) {
+                    continue;
+                }
+
+                long diagonal = ((long) other << 32) | ((otherPosition - position) & 0xFFFFFFFFL);
+                Integer end = covered.get(diagonal);
+                if(end != null && position < end) {
+                    continue;
+                }
+
+                covered.put(diagonal, extend(slot, position, other, otherPosition, found));
+            }
+
+            if(position + window >= symbols.length) {
+                break;
+            }
+            hash = (hash - symbols[position] * power) * BASE + symbols[position + window];
+        }
+    }
+
+    /**
+     * Extends a matching window to the maximal clone and records it, if it is long enough.
+     * @param slot slot of the searched file
+     * @param position start of the window in the searched file
+     * @param other slot of the indexed file
+     * @param otherPosition start of the window in the indexed file
+     * @param found clones found in this round
+     * @return position in the searched file up to which the clone reaches
+     */
+    private int extend(int slot, int position, int other, int otherPosition, Set<Clone> found) {
+        int[] symbols = slots.get(slot).getSymbols();
+        int[] otherSymbols = slots.get(other).getSymbols();
+
+        int before = 0;
+        while (position - before > 0 && otherPosition - before > 0
+                && symbols[position - before - 1] == otherSymbols[otherPosition - before - 1]) {
+            before++;
+        }
+
+        int after = 0;
+        while (position + after < symbols.length && otherPosition + after < otherSymbols.length
+                && symbols[position + after] == otherSymbols[otherPosition + after]) {
+            after++;
+        }
+
+        // The source comes before the target, by path or within the same file by position.
+        int source = slot;
+        int target = other;
+        int sourceStart = position - before;
+        int targetStart = otherPosition - before;
+        int compare = slots.get(slot).getPath().compareTo(slots.get(other).getPath());
+        if(compare > 0 || (compare == 0 && sourceStart > targetStart)) {
+            source = other;
+            target = slot;
+            sourceStart = otherPosition - before;
+            targetStart = position - before;
+        }
+
+        // Clones within a file must not overlap.
+        int length = before + after;
+        if(source == target) {
+            length = Math.min(length, targetStart - sourceStart);
+        }
+
+        if(length >= minTokens) {
+            int[] sourceTexts = slots.get(source).getTexts();
+            int[] targetTexts = slots.get(target).getTexts();
+            int type = Arrays.equals(sourceTexts, sourceStart, sourceStart + length, targetTexts, targetStart, targetStart + length) ? 1 : 2;
+            found.add(new Clone(source, sourceStart, target, targetStart, length, type));
+        }
+        return position + after;
+    }
+
+    /**
+     * Adds a window to the index. The index is rebuilt without the windows of removed files before it gets too full.
+     * @param hash hash of the window
+     * @param slot slot of the file
+     * @param position start of the window
+     */
+    private void insert(int hash, int slot, int position) {
+        if((tableEntries + 1) * 2 > tableSlots.length) {
+            rebuild();
+        }
+
+        int mask = tableSlots.length - 1;
+        int i = mix(hash) & mask;
+        while (tableSlots[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+
+        tableHashes[i] = hash;
+        tableSlots[i] = slot;
+        tablePositions[i] = position;
+        tableEntries++;
+    }
+
+    private void rebuild() {
+        int[] hashes = tableHashes;
+        int[] slotIds = tableSlots;
+        int[] positions = tablePositions;
+
+        int capacity = 1024;
+        while (capacity < (tableEntries - deadEntries + 1) * 4) {
+            capacity *= 2;
+        }
+
+        tableHashes = new int[capacity];
+        tableSlots = new int[capacity];
+        tablePositions = new int[capacity];
+        Arrays.fill(tableSlots, EMPTY);
+        tableEntries = 0;
+        deadEntries = 0;
+
+        for (int i = 0; i < slotIds.length; i++) {
+            if(slotIds[i] != EMPTY && slots.get(slotIds[i]) != null) {
+                insert(hashes[i], slotIds[i], positions[i]);
+            }
+        }
+
+        // The windows of removed files are gone, so all of their slots are free.
+        free.clear();
+        for (int slot = 0; slot < slots.size(); slot++) {
+            if(slots.get(slot) == null) {
+                free.push(slot);
+            }
+        }
+    }
+
+    private int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    /**
+     * Clone pair between two slots.
+     */
+    @Data
+    private static class Clone {
+
+        private final int source;
+
+        private final int sourceStart;
+
+        private final int target;
+
+        private final int targetStart;
+
+        private final int length;
+
+        private final int type;
+
+    }
+
+}
@@ -0,0 +1,235 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.ClonePairData;
+import de.unibremen.informatik.vcs2see.data.TokenData;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Component which writes a clone graph with the same nodes, edges and attributes as the graph exported by rfgexport.
+ * The metrics of the files and the number of tokens of the clones are taken from the tokens of the files.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class CloneGraphWriter {
+
+    /**
+     * Writes the clone graph. Each file is followed by its directories which were not written yet,
+     * the enclosing edges are written before the clone edges.
+     * @param file output file
+     * @param files tokenized files
+     * @param clones found clone pairs, all files of the pairs must be tokenized
+     * @throws IOException exception
+     */
+    public void write(File file, List<TokenData> files, List<ClonePairData> clones) throws IOException {
+        Map<String, TokenData> paths = new HashMap<>();
+        Map<String, BitSet> cloned = new HashMap<>();
+        for (TokenData tokens : files) {
+            paths.put(tokens.getPath(), tokens);
+            cloned.put(tokens.getPath(), new BitSet(tokens.size()));
+        }
+        for (ClonePairData clone : clones) {
+            TokenData source = paths.get(clone.getSource());
+            TokenData target = paths.get(clone.getTarget());
+            mark(cloned.get(clone.getSource()), first(source, clone.getSourceStartLine(), clone.getSourceStartColumn()),
+                    last(source, clone.getSourceEndLine(), clone.getSourceEndColumn()));
+            mark(cloned.get(clone.getTarget()), first(target, clone.getTargetStartLine(), clone.getTargetStartColumn()),
+                    last(target, clone.getTargetEndLine(), clone.getTargetEndColumn()));
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            GxlPrinter printer = new GxlPrinter(writer);
+            printer.doctype(GxlPrinter.SYSTEM_ID);
+            printer.start("gxl", Map.of("xmlns:xlink", "http://www.w3.org/1999/xlink"));
+            printer.start("graph", sorted("edgeids", "true", "id", "Clones"));
+
+            Map<String, String> directories = new HashMap<>();
+            List<String[]> edges = new ArrayList<>();
+            Map<String, String> fileIds = new HashMap<>();
+            int nodes = 0;
+
+            for (TokenData tokens : files) {
+                String path = tokens.getPath();
+                int slash = path.lastIndexOf('/');
+                String name = path.substring(slash + 1);
+                String parent = slash < 0 ? "" : path.substring(0, slash);
+                float cloneRate = tokens.size() == 0 ? 0 : (float) cloned.get(path).cardinality() / tokens.size();
+
+                String fileId = "N" + (++nodes);
+                fileIds.put(path, fileId);
+                start(printer, "node", fileId, "File");
+                printer.attribute("Metric.Number_of_Tokens", "int", String.valueOf(tokens.size()));
+                printer.attribute("Metric.LOC", "int", String.valueOf(tokens.getLinesOfCode()));
+                printer.attribute("Metric.Clone_Rate", "float", String.format(Locale.ROOT, "%f", cloneRate));
+                printer.attribute("Source.Name", "string", name);
+                printer.attribute("Linkage.Name", "string", path);
+                printer.attribute("Source.File", "string", name);
+                printer.attribute("Source.Path", "string", parent.isEmpty() ? "" : parent + "/");
+                printer.end("node");
+
+                // Directories are written from the inside out, their edges from the outside in.
+                List<String[]> enclosing = new ArrayList<>();
+                String child = fileId;
+                String directory = parent;
+                while (!directory.isEmpty()) {
+                    String id = directories.get(directory);
+                    boolean known = id != null;
+                    if(!known) {
+                        id = "N" + (++nodes);
+                        directories.put(directory, id);
+
+                        int separator = directory.lastIndexOf('/');
+                        start(printer, "node", id, "Directory");
+                        printer.attribute("Source.Name", "string", directory.substring(separator + 1));
+                        printer.attribute("Linkage.Name", "string", reverse(directory));
+                        printer.end("node");
+                    }
+
+                    enclosing.add(0, new String[]{child, id, "Enclosing"});
+                    if(known) {
+                        break;
+                    }
+
+                    child = id;
+                    directory = directory.substring(0, Math.max(0, directory.lastIndexOf('/')));
+                }
+                edges.addAll(enclosing);
+            }
+
+            int edgeId = 0;
+            for (String[] edge : edges) {
+                printer.start("edge", sorted("from", edge[0], "id", "E" + (++edgeId), "to", edge[1]));
+                printer.start("type", Map.of("xlink:href", edge[2]));
+                printer.end("type");
+                printer.end("edge");
+            }
+
+            for (ClonePairData clone : clones) {
+                TokenData source = paths.get(clone.getSource());
+                int tokens = last(source, clone.getSourceEndLine(), clone.getSourceEndColumn())
+                        - first(source, clone.getSourceStartLine(), clone.getSourceStartColumn()) + 1;
+
+                printer.start("edge", sorted("from", fileIds.get(clone.getSource()), "id", "E" + (++edgeId), "to", fileIds.get(clone.getTarget())));
+                printer.start("type", Map.of("xlink:href", "Clone"));
+                printer.end("type");
+                printer.attribute("Clone.Source.Start.Line", "int", String.valueOf(clone.getSourceStartLine()));
+                printer.attribute("Clone.Source.Start.Column", "int", String.valueOf(clone.getSourceStartColumn()));
+                printer.attribute("Clone.Source.End.Line", "int", String.valueOf(clone.getSourceEndLine()));
+                printer.attribute("Clone.Source.End.Column", "int", String.valueOf(clone.getSourceEndColumn()));
+                printer.attribute("Clone.Target.Start.Line", "int", String.valueOf(clone.getTargetStartLine()));
+                printer.attribute("Clone.Target.Start.Column", "int", String.valueOf(clone.getTargetStartColumn()));
+                printer.attribute("Clone.Target.End.Line", "int", String.valueOf(clone.getTargetEndLine()));
+                printer.attribute("Clone.Target.End.Column", "int", String.valueOf(clone.getTargetEndColumn()));
+                printer.attribute("Clone.Type", "int", String.valueOf(clone.getType()));
+                // Like rfgexport, the length is the one of the shorter fragment.
+                int length = Math.min(clone.getSourceEndLine() - clone.getSourceStartLine(), clone.getTargetEndLine() - clone.getTargetStartLine()) + 1;
+                printer.attribute("Clone.Length", "int", String.valueOf(length));
+                printer.attribute("Clone.Number_Of_Tokens", "int", String.valueOf(Math.max(0, tokens)));
+                printer.attribute("Clone.Multiplicity", "int", "1");
+                printer.end("edge");
+            }
+
+            printer.end("graph");
+            printer.end("gxl");
+        }
+    }
+
+    /**
+     * Finds the first token which starts at or after a position.
+     * @param tokens tokens of a file
+     * @param line line of the position
+     * @param column column of the position
+     * @return index of the token, or the number of tokens if there is none
+     */
+    private int first(TokenData tokens, int line, int column) {
+        int low = 0;
+        int high = tokens.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if(compare(tokens, middle, line, column) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the last token which starts at or before a position.
+     * @param tokens tokens of a file
+     * @param line line of the position
+     * @param column column of the position
+     * @return index of the token, or -1 if there is none
+     */
+    private int last(TokenData tokens, int line, int column) {
+        int low = 0;
+        int high = tokens.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if(compare(tokens, middle, line, column) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    private void mark(BitSet cloned, int first, int last) {
+        if(first <= last) {
+            cloned.set(first, last + 1);
+        }
+    }
+
+    private int compare(TokenData tokens, int index, int line, int column) {
+        int compare = Integer.compare(tokens.getStartLines()[index], line);
+        return compare != 0 ? compare : Integer.compare(tokens.getStartColumns()[index], column);
+    }
+
+    private void start(GxlPrinter printer, String element, String id, String type) throws IOException {
+        printer.start(element, Map.of("id", id));
+        printer.start("type", Map.of("xlink:href", type));
+        printer.end("type");
+    }
+
+    private Map<String, String> sorted(String... entries) {
+        Map<String, String> map = new TreeMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put(entries[i], entries[i + 1]);
+        }
+        return map;
+    }
+
+    /**
+     * Reverses the path of a directory, as the linkage names of directories start with the innermost directory.
+     * @param directory path of the directory
+     * @return reversed path
+     */
+    private String reverse(String directory) {
+        String[] parts = directory.split("/");
+        StringBuilder builder = new StringBuilder();
+        for (int i = parts.length - 1; i >= 0; i--) {
+            builder.append(parts[i]);
+            if(i > 0) {
+                builder.append('/');
+            }
+        }
+        return builder.toString();
+    }
+
+}
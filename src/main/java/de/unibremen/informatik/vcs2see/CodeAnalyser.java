@@ -5,14 +5,13 @@ import de.unibremen.informatik.vcs2see.data.RepositoryData;
 import de.unibremen.informatik.vcs2see.predicates.CleanupPredicate;
 import lombok.Getter;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -21,14 +20,21 @@ import java.util.stream.Collectors;
  * @author Felix Gaebler
  * @version 1.0.0
  */
-public class CodeAnalyser {
+public class CodeAnalyser implements Analyser {
 
+    @Getter
     private final File directory;
 
     private final EnvironmentData environmentData;
 
     private final RepositoryData repositoryData;
 
+    private final StatisticsManager statisticsManager;
+
+    private final ToolRunner toolRunner;
+
+    private final CpfConverter cpfConverter;
+
     /**
      * Initialization for the CodeAnalyser.
      * @param path path to the repository to be analyzed
@@ -36,9 +42,25 @@ public class CodeAnalyser {
      * @param environmentData all the required information about the environment
      */
     public CodeAnalyser(String path, RepositoryData repositoryData, EnvironmentData environmentData) {
+        this(path, repositoryData, environmentData, StatisticsManager.disabled(),
+                new ProcessToolRunner(new File(repositoryData.getName(), "logs"), ProcessToolRunner.Output.CONSOLE, 0));
+    }
+
+    /**
+     * Initialization for the CodeAnalyser.
+     * @param path path to the repository to be analyzed
+     * @param repositoryData all the required information about the repository
+     * @param environmentData all the required information about the environment
+     * @param statisticsManager statistics for the duration of the Bauhaus commands
+     * @param toolRunner runner for the Bauhaus commands
+     */
+    public CodeAnalyser(String path, RepositoryData repositoryData, EnvironmentData environmentData, StatisticsManager statisticsManager, ToolRunner toolRunner) {
         this.directory = new File(path);
         this.repositoryData = repositoryData;
         this.environmentData = environmentData;
+        this.statisticsManager = statisticsManager;
+        this.toolRunner = toolRunner;
+        this.cpfConverter = new CpfConverter(repositoryData, statisticsManager);
     }
 
     /**
@@ -52,21 +74,17 @@ public class CodeAnalyser {
     }
 
     /**
-     * Helper method to run a ProcessBuilder and output the output to the console.
+     * Helper method to run a ProcessBuilder with the ToolRunner.
      * @param processBuilder ProcessBuilder which should be executed
-     * @throws IOException exception
+     * @param revision index of the analyzed revision
+     * @param stage measured stage of the command
+     * @throws IOException if the command failed
      */
-    private void run(ProcessBuilder processBuilder) throws IOException {
+    private void run(ProcessBuilder processBuilder, int revision, StatisticsManager.Stage stage) throws IOException {
         System.out.println(String.join(" ", processBuilder.command()));
-
-        processBuilder.redirectErrorStream(true);
-        Process process = processBuilder.start();
-        BufferedReader input = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-        String line;
-        while ((line = input.readLine()) != null) {
-            System.out.println(line);
-        }
+        long start = statisticsManager.start();
+        toolRunner.run(processBuilder, repositoryData.getName() + "-" + revision);
+        statisticsManager.stop(stage, start);
     }
 
     /**
@@ -76,9 +94,6 @@ public class CodeAnalyser {
      * @throws IOException exception
      */
     private void cpf(File directory, int revision) throws IOException {
-        PropertiesManager propertiesManager = new PropertiesManager();
-        propertiesManager.loadProperties();
-
         List<String> cmd = new ArrayList<>(Arrays.asList(environmentData.getBauhausPath() + "\\cpf", "-B", "\"" + repositoryData.getBasePath() + "\"", "-m", "100", "-c", path(revision, ".cpf"), "-s", path(revision, ".csv"), "-t", path(revision, "")));
         for (String extension : repositoryData.getLanguage().getExtensions()) {
             cmd.add("-i");
@@ -90,7 +105,7 @@ public class CodeAnalyser {
         processBuilder.command(cmd.toArray(String[]::new));
         processBuilder.directory(directory);
 
-        run(processBuilder);
+        run(processBuilder, revision, StatisticsManager.Stage.CPF);
     }
 
     /**
@@ -106,7 +121,7 @@ public class CodeAnalyser {
         processBuilder.command(environmentData.getBauhausPath() + "\\rfgscript", environmentData.getCpfcsv2rfgPath() + "\\cpfcsv2rfg.py", fileName + ".cpf", fileName + ".csv", fileName + ".rfg");
         processBuilder.directory(directory);
 
-        run(processBuilder);
+        run(processBuilder, revision, StatisticsManager.Stage.CPFCSV2RFG);
     }
 
     /**
@@ -123,8 +138,13 @@ public class CodeAnalyser {
         processBuilder.command(environmentData.getBauhausPath() + "\\rfgexport", "-o", "Clones", "-f", "GXL", fileName + ".rfg", fileName + ".gxl");
         processBuilder.directory(directory);
 
-        run(processBuilder);
-        return new File(directory, (fileName + ".gxl"));
+        run(processBuilder, revision, StatisticsManager.Stage.RFGEXPORT);
+
+        File file = new File(directory, (fileName + ".gxl"));
+        if(!file.exists()) {
+            throw new IOException("rfgexport did not create " + file.getName());
+        }
+        return file;
     }
 
     /**
@@ -142,20 +162,35 @@ public class CodeAnalyser {
      * @return generated GLX file
      * @throws IOException exception
      */
+    @Override
     public File analyse(int revision) throws IOException {
         // Create directory for output.
         File output = new File(directory, repositoryData.getName());
         output.mkdirs();
 
-        // Run bauhaus commands.
+        // Run bauhaus commands. The clone pairs are turned into a graph by the scripts, or without them with --converter java.
         cpf(directory, revision);
-        cpfcsv2rfg(output, revision);
-        File file = rfgexport(output, revision);
+        File file;
+        if(environmentData.getConverter() == Converter.RFGEXPORT) {
+            cpfcsv2rfg(output, revision);
+            file = rfgexport(output, revision);
+        } else {
+            String fileName = repositoryData.getName() + "-" + revision;
+            file = new File(output, fileName + ".gxl");
+            cpfConverter.convert(directory, new File(output, fileName + ".csv"), file);
+        }
         cleanup(output);
 
         return file;
     }
 
+    /**
+     * Enum of the ways to turn the output of cpf into a graph.
+     */
+    public enum Converter {
+        JAVA, RFGEXPORT
+    }
+
     /**
      * Enum of supported programming languages of Bauhaus including the file extensions of this programming language.
      */
@@ -174,9 +209,9 @@ public class CodeAnalyser {
         }
 
         public String regex() {
-            return ".*\\" + Arrays.stream(extensions)
-                    .map(extension -> "." + extension)
-                    .collect(Collectors.joining("|"));
+            return ".*\\.(" + Arrays.stream(extensions)
+                    .map(Pattern::quote)
+                    .collect(Collectors.joining("|")) + ")";
         }
     }
 
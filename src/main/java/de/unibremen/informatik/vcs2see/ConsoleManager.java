@@ -66,4 +66,57 @@ public class ConsoleManager {
         System.out.println("              \\___/|___|___|___|_____|___|___|");
     }
 
+    /**
+     * Outputs the command line options of the application in the console.
+     */
+    public void printUsage() {
+        System.out.println("Usage: vcs2see [options]");
+        System.out.println("Without --config or --name, the settings are queried in the console and the options are applied afterwards.");
+        System.out.println();
+        System.out.println("Headless run:");
+        System.out.println("  --config <file>            properties file with the settings and a list of repositories");
+        System.out.println("  --name <name>              name of a single repository and its output folder");
+        System.out.println("  --type <git|hg|svn>        version control system of the repository");
+        System.out.println("  --language <language>      c, cpp, cs, ada or java");
+        System.out.println("  --path <path>              path or URL of the repository");
+        System.out.println("  --base-path <path>         folder of the sources, default src/main/java");
+        System.out.println("  --parallel <n>             repositories crawled at the same time, default 1");
+        System.out.println("  --pool <n>                 threads for the analyses of all repositories, default number of processors");
+        System.out.println("  --max-processes <n>        external processes at the same time, default unlimited");
+        System.out.println();
+        System.out.println("Revisions:");
+        System.out.println("  --from <revision>          first revision to crawl");
+        System.out.println("  --to <revision>            last revision to crawl");
+        System.out.println("  --since <date>             first day or time to crawl, e.g. 2021-06-30 or 2021-06-30T12:00:00");
+        System.out.println("  --until <date>             last day or time to crawl");
+        System.out.println("  --stride <n>               analyse every n-th commit, default 1");
+        System.out.println("  --max-count <n>            maximum number of commits");
+        System.out.println();
+        System.out.println("Analysis:");
+        System.out.println("  --analyser <bauhaus|java>  clone detection, default bauhaus");
+        System.out.println("  --converter <rfgexport|java>");
+        System.out.println("                             conversion of the cpf clones to GXL, default rfgexport,");
+        System.out.println("                             java is experimental and computes the metrics itself");
+        System.out.println("  --diff <libvcs4j|myers>    diff for the line changes, default libvcs4j");
+        System.out.println("  --workers <n>              analyses at the same time, default 1");
+        System.out.println("  --filter-workspaces        keep only the sources below the base path in the working tree");
+        System.out.println("  --verify-workspaces        compare the working tree with the checked out revision");
+        System.out.println("  --tool-output <discard|log|console>");
+        System.out.println("                             output of the external tools, default log");
+        System.out.println("  --tool-timeout <seconds>   timeout of an external tool, default 3600");
+        System.out.println();
+        System.out.println("Output:");
+        System.out.println("  --output <gxl|gzip|delta>  GXL files, compressed GXL files or a history archive, default gxl");
+        System.out.println("  --export <all|n|from-to>   export GXL files from the history archive instead of crawling");
+        System.out.println("  --checkpoint <n>           save a checkpoint every n commits, default 100");
+        System.out.println("  --resume                   continue from the last checkpoint");
+        System.out.println("  --statistics               report the duration of each step");
+        System.out.println("  --progress <n>             report the progress every n commits");
+        System.out.println("  --help                     show this help");
+        System.out.println();
+        System.out.println("The changed files of each revision are written into a working tree which is analysed instead of the");
+        System.out.println("checkout of LibVCS4j. With --workers greater than 1, each worker analyses its own copy of this tree,");
+        System.out.println("updated with the files changed since the last analysis of the worker.");
+    }
+
 }
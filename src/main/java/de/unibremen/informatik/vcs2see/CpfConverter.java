@@ -0,0 +1,349 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.ClonePairData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import de.unibremen.informatik.vcs2see.data.TokenData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Component which turns the clone pairs found by cpf into a clone graph, instead of cpfcsv2rfg.py and rfgexport.
+ * The converter is experimental and is only used with --converter java.
+ * The CSV file of cpf is expected to start with a header and to contain one clone pair per line. The values are
+ * separated by semicolons, commas or tabs and may be quoted. The columns are found by their header, ignoring case
+ * and everything except letters and digits: File1, StartLine1, StartColumn1, EndLine1, EndColumn1, the same for
+ * the second file and the optional CloneType. The names of the clone attributes of the graph, e.g. Source.File or
+ * Target.Start.Line, are accepted as well. These names were not checked against a CSV file written by cpf.
+ * The metrics Number_of_Tokens, LOC and Clone_Rate of the files and the number of tokens of the clones are not
+ * taken from cpf, but computed from the tokens of the {@link Tokenizer}, which are kept between revisions by
+ * content hash. The Tokenizer does not split the sources like cpf, so these values differ from the ones of
+ * rfgexport and must not be compared with graphs of the scripts.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class CpfConverter {
+
+    private final SourceFiles sourceFiles;
+
+    private final Tokenizer tokenizer;
+
+    private final CloneGraphWriter cloneGraphWriter;
+
+    private final StatisticsManager statisticsManager;
+
+    private final Map<String, Long> hashes;
+
+    private final Map<String, TokenData> tokens;
+
+    /**
+     * Initialization for the CpfConverter.
+     * @param repositoryData all the required information about the repository
+     * @param statisticsManager statistics for the duration of the conversion
+     */
+    public CpfConverter(RepositoryData repositoryData, StatisticsManager statisticsManager) {
+        this.sourceFiles = new SourceFiles(repositoryData);
+        this.tokenizer = new Tokenizer(repositoryData.getLanguage());
+        this.cloneGraphWriter = new CloneGraphWriter();
+        this.statisticsManager = statisticsManager;
+        this.hashes = new HashMap<>();
+        this.tokens = new HashMap<>();
+    }
+
+    /**
+     * Writes the clone graph of a working tree.
+     * @param directory working tree which was analysed by cpf
+     * @param csv clone pairs written by cpf
+     * @param file graph file to write
+     * @throws IOException if a file could not be read or the CSV file is invalid
+     */
+    public void convert(File directory, File csv, File file) throws IOException {
+        long start = statisticsManager.start();
+        Map<String, Path> paths = sourceFiles.list(directory.toPath());
+        tokens.keySet().retainAll(paths.keySet());
+        hashes.keySet().retainAll(paths.keySet());
+        List<TokenData> files = new ArrayList<>(paths.size());
+        for (Map.Entry<String, Path> entry : paths.entrySet()) {
+            files.add(tokenize(entry.getKey(), entry.getValue()));
+        }
+        statisticsManager.stop(StatisticsManager.Stage.TOKENIZE, start);
+
+        start = statisticsManager.start();
+        List<ClonePairData> clones = read(csv);
+        cloneGraphWriter.write(file, files, clones);
+        statisticsManager.stop(StatisticsManager.Stage.CONVERT, start);
+    }
+
+    /**
+     * Tokenizes a file again if its content changed.
+     * @param path path relative to the base path
+     * @param file file in the working tree
+     * @return tokens of the file
+     * @throws IOException exception
+     */
+    private TokenData tokenize(String path, Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        long hash = SourceFiles.hash(content);
+        Long previous = hashes.put(path, hash);
+        if(previous == null || previous != hash) {
+            tokens.put(path, tokenizer.tokenize(path, new String(content, StandardCharsets.UTF_8)));
+            statisticsManager.count(StatisticsManager.Counter.FILES_TOKENIZED, 1);
+        }
+        return tokens.get(path);
+    }
+
+    /**
+     * Reads the clone pairs of a CSV file. Pairs of files which are not part of the graph are skipped.
+     * @param csv CSV file written by cpf
+     * @return clone pairs
+     * @throws IOException if the file could not be read or a column is missing
+     */
+    private List<ClonePairData> read(File csv) throws IOException {
+        List<ClonePairData> clones = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(csv.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(csv.getName() + " is too large");
+            }
+
+            CsvReader reader = new CsvReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            if(!reader.next()) {
+                return clones;
+            }
+
+            Map<String, Integer> header = new HashMap<>();
+            for (int i = 0; i < reader.size(); i++) {
+                header.putIfAbsent(reader.text(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", ""), i);
+            }
+            int[] columns = new int[] {
+                    column(header, csv, "file1", "sourcefile", "clonesourcefile"),
+                    column(header, csv, "startline1", "sourcestartline", "clonesourcestartline"),
+                    column(header, csv, "startcolumn1", "sourcestartcolumn", "clonesourcestartcolumn"),
+                    column(header, csv, "endline1", "sourceendline", "clonesourceendline"),
+                    column(header, csv, "endcolumn1", "sourceendcolumn", "clonesourceendcolumn"),
+                    column(header, csv, "file2", "targetfile", "clonetargetfile"),
+                    column(header, csv, "startline2", "targetstartline", "clonetargetstartline"),
+                    column(header, csv, "startcolumn2", "targetstartcolumn", "clonetargetstartcolumn"),
+                    column(header, csv, "endline2", "targetendline", "clonetargetendline"),
+                    column(header, csv, "endcolumn2", "targetendcolumn", "clonetargetendcolumn")
+            };
+            Integer type = header.getOrDefault("clonetype", header.get("type"));
+
+            // Paths repeat in almost every line and are mapped once per distinct value.
+            Map<String, String> names = new HashMap<>();
+            int line = 1;
+            while (reader.next()) {
+                line++;
+                if(reader.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    String source = names.computeIfAbsent(reader.text(columns[0]), this::linkageName);
+                    String target = names.computeIfAbsent(reader.text(columns[5]), this::linkageName);
+                    if(source.isEmpty() || target.isEmpty()) {
+                        System.err.println("Skipped clone of unknown file in line " + line + " of " + csv.getName());
+                        continue;
+                    }
+
+                    clones.add(new ClonePairData(source, reader.number(columns[1]), reader.number(columns[2]),
+                            reader.number(columns[3]), reader.number(columns[4]),
+                            target, reader.number(columns[6]), reader.number(columns[7]),
+                            reader.number(columns[8]), reader.number(columns[9]),
+                            type == null ? 1 : reader.number(type)));
+                } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                    throw new IOException("Invalid clone in line " + line + " of " + csv.getName(), e);
+                }
+            }
+        }
+        return clones;
+    }
+
+    /**
+     * Maps a path of the CSV file to a file of the graph. The paths are relative to the working tree or to the
+     * base path.
+     * @param value path of the CSV file
+     * @return path relative to the base path or an empty string if the file is not part of the graph
+     */
+    private String linkageName(String value) {
+        String path = value.trim().replace('\\', '/');
+        if(path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        if(tokens.containsKey(path)) {
+            return path;
+        }
+
+        String linkageName = sourceFiles.linkageName(path);
+        return linkageName != null && tokens.containsKey(linkageName) ? linkageName : "";
+    }
+
+    private int column(Map<String, Integer> header, File csv, String... names) throws IOException {
+        for (String name : names) {
+            Integer column = header.get(name);
+            if(column != null) {
+                return column;
+            }
+        }
+        throw new IOException("Missing column " + names[0] + " in " + csv.getName());
+    }
+
+    /**
+     * Reader which splits the mapped content of a CSV file into lines and values without copying it.
+     * The separator is taken from the first line.
+     */
+    private static class CsvReader {
+
+        private final MappedByteBuffer buffer;
+
+        private byte separator;
+
+        private int[] starts;
+
+        private int[] ends;
+
+        private int size;
+
+        public CsvReader(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.starts = new int[16];
+            this.ends = new int[16];
+        }
+
+        /**
+         * Reads the next line.
+         * @return false if the end of the file is reached
+         */
+        public boolean next() {
+            int position = buffer.position();
+            int limit = buffer.limit();
+            if(position >= limit) {
+                return false;
+            }
+            if(separator == 0) {
+                separator = separator(position, limit);
+            }
+
+            size = 0;
+            int start = position;
+            boolean quoted = false;
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if(b == '"') {
+                    quoted = !quoted;
+                } else if(!quoted && (b == separator || b == '\n')) {
+                    add(start, position);
+                    start = position + 1;
+                    if(b == '\n') {
+                        break;
+                    }
+                }
+                position++;
+            }
+            if(position == limit) {
+                add(start, position);
+            }
+
+            buffer.position(Math.min(limit, position + 1));
+            return true;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isBlank() {
+            return size == 1 && starts[0] == ends[0];
+        }
+
+        /**
+         * Returns a value as text, without the quotes.
+         * @param column index of the value
+         * @return value
+         */
+        public String text(int column) {
+            if(column >= size) {
+                throw new IndexOutOfBoundsException("Missing value " + (column + 1));
+            }
+
+            int start = starts[column];
+            int end = ends[column];
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+
+            String value = new String(bytes, StandardCharsets.UTF_8).trim();
+            if(value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1).replace("\"\"", "\"");
+            }
+            return value;
+        }
+
+        /**
+         * Returns a value as number, which is parsed without decoding it as text first.
+         * @param column index of the value
+         * @return value
+         */
+        public int number(int column) {
+            if(column >= size) {
+                throw new IndexOutOfBoundsException("Missing value " + (column + 1));
+            }
+
+            int value = 0;
+            int digits = 0;
+            for (int i = starts[column]; i < ends[column]; i++) {
+                byte b = buffer.get(i);
+                if(b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    digits++;
+                } else if(b != ' ' && b != '"' && b != '\t') {
+                    throw new NumberFormatException("Invalid number in value " + (column + 1));
+                }
+            }
+            if(digits == 0) {
+                throw new NumberFormatException("Empty value " + (column + 1));
+            }
+            return value;
+        }
+
+        private void add(int start, int end) {
+            if(size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+
+            // Line breaks of Windows are not part of the last value.
+            if(end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        private byte separator(int position, int limit) {
+            for (int i = position; i < limit && buffer.get(i) != '\n'; i++) {
+                byte b = buffer.get(i);
+                if(b == ';' || b == ',' || b == '\t') {
+                    return b;
+                }
+            }
+            return ';';
+        }
+
+    }
+
+}
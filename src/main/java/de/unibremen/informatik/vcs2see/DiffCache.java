@@ -0,0 +1,187 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Component which stores the line change counts of already diffed files in an append-only file,
+ * so that reruns of the same repository do not have to compute the diffs again.
+ * The least recently used entries are evicted when the cache exceeds its size.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class DiffCache implements Closeable {
+
+    private static final int VERSION = 1;
+
+    private final File file;
+
+    private final String fingerprint;
+
+    private final int maxEntries;
+
+    private final Map<String, LineChangeData> entries;
+
+    private DataOutputStream output;
+
+    private int records;
+
+    /**
+     * Opens the cache file. Entries written with another language, base path, base path filter or diff
+     * are discarded.
+     * @param file cache file
+     * @param repositoryData repository settings the cached entries depend on
+     * @param environmentData environment settings the cached entries depend on
+     * @param maxEntries maximum number of entries
+     * @throws IOException exception
+     */
+    public DiffCache(File file, RepositoryData repositoryData, EnvironmentData environmentData, int maxEntries) throws IOException {
+        this.file = file;
+        this.fingerprint = repositoryData.getLanguage() + ":" + repositoryData.getBasePath() + ":"
+                + Objects.requireNonNullElse(environmentData.getBasePathFilter(), "") + ":" + environmentData.getDiff();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LineChangeData> eldest) {
+                return size() > DiffCache.this.maxEntries;
+            }
+        };
+
+        if(read()) {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        } else {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the cached line changes of a file in a commit.
+     * @param commitId id of the commit
+     * @param path relative path of the file
+     * @return cached line changes or null
+     */
+    public LineChangeData get(String commitId, String path) {
+        return entries.get(key(commitId, path));
+    }
+
+    /**
+     * Adds the line changes of a file in a commit to the cache.
+     * @param commitId id of the commit
+     * @param path relative path of the file
+     * @param data line changes
+     * @throws IOException exception
+     */
+    public void put(String commitId, String path, LineChangeData data) throws IOException {
+        entries.put(key(commitId, path), data);
+        write(output, commitId, path, data);
+        records++;
+
+        // The file only grows, so it is rewritten with the remaining entries from time to time.
+        if(records > 2 * maxEntries) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes all pending entries to the file, so they survive if the process is killed afterwards.
+     * @throws IOException exception
+     */
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Writes all pending entries and closes the file.
+     * @throws IOException exception
+     */
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    /**
+     * Reads the entries of the cache file.
+     * @return false if the file has to be rewritten, because it does not exist, belongs to other settings or is damaged
+     * @throws IOException exception
+     */
+    private boolean read() throws IOException {
+        if(!file.exists()) {
+            return false;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(input.readInt() != VERSION || !input.readUTF().equals(fingerprint)) {
+                return false;
+            }
+
+            while (input.available() > 0) {
+                String commitId = input.readUTF();
+                String path = input.readUTF();
+                entries.put(key(commitId, path), new LineChangeData(input.readInt(), input.readInt(), input.readInt(), input.readInt()));
+                records++;
+            }
+        } catch (EOFException e) {
+            // The last run was aborted while writing an entry, the complete entries are kept.
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Replaces the cache file with one that only contains the current entries.
+     * @throws IOException exception
+     */
+    private void compact() throws IOException {
+        if(output != null) {
+            output.close();
+        }
+
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            compacted.writeInt(VERSION);
+            compacted.writeUTF(fingerprint);
+            for (Map.Entry<String, LineChangeData> entry : entries.entrySet()) {
+                String[] key = entry.getKey().split("\0", 2);
+                write(compacted, key[0], key[1], entry.getValue());
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        records = entries.size();
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    private void write(DataOutputStream output, String commitId, String path, LineChangeData data) throws IOException {
+        output.writeUTF(commitId);
+        output.writeUTF(path);
+        output.writeInt(data.getLineChanges());
+        output.writeInt(data.getAdded());
+        output.writeInt(data.getEdited());
+        output.writeInt(data.getDeleted());
+    }
+
+    private String key(String commitId, String path) {
+        return commitId + "\0" + path;
+    }
+
+}
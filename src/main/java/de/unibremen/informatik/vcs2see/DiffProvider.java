@@ -0,0 +1,31 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+
+import java.io.IOException;
+
+/**
+ * Computation of the added, edited and deleted lines of a changed file.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public interface DiffProvider {
+
+    /**
+     * Counts the line changes of a changed file.
+     * @param fileChange changed file
+     * @return counted line changes
+     * @throws IOException if a version of the file could not be read
+     */
+    LineChangeData diff(FileChange fileChange) throws IOException;
+
+    /**
+     * Available implementations of the diff.
+     */
+    enum Backend {
+        LIBVCS4J, MYERS
+    }
+
+}
@@ -0,0 +1,79 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Component which assigns the keys that identify the nodes and edges of a graph across revisions, whose ids
+ * may be numbered differently. Nodes are identified by type and linkage name, or by their id if they have no
+ * linkage name, and edges by type and the keys of their ends. Further elements with the same key in a revision
+ * get the number of their occurrence appended. A new instance is used for every revision.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class ElementKeys {
+
+    private static final String LINKAGE = "Linkage.Name";
+
+    private final Map<String, Integer> occurrences;
+
+    public ElementKeys() {
+        this.occurrences = new HashMap<>();
+    }
+
+    /**
+     * Returns the key of the next node of the revision.
+     * @param element node
+     * @return key of the node
+     */
+    public String node(ElementData element) {
+        String linkage = linkage(element.getAttributes());
+        return unique(node(element.getType(), linkage == null ? "#" + element.getId() : linkage));
+    }
+
+    /**
+     * Returns the key of the next edge of the revision.
+     * @param element edge
+     * @param from key of the source node
+     * @param to key of the target node
+     * @return key of the edge
+     */
+    public String edge(ElementData element, String from, String to) {
+        return unique("E|" + element.getType() + "|" + from + "|" + to);
+    }
+
+    /**
+     * Returns the key of the first node with a type and linkage name in a revision.
+     * @param type type of the node
+     * @param linkage linkage name of the node
+     * @return key of the node
+     */
+    public static String node(String type, String linkage) {
+        return "N|" + type + "|" + linkage;
+    }
+
+    /**
+     * Finds the linkage name of an element.
+     * @param attributes attributes of the element
+     * @return value of the first linkage name attribute, or null if there is none
+     */
+    public static String linkage(List<AttributeData> attributes) {
+        for (AttributeData attribute : attributes) {
+            if(attribute.getName().equals(LINKAGE)) {
+                return attribute.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String unique(String key) {
+        int occurrence = occurrences.merge(key, 1, Integer::sum);
+        return occurrence == 1 ? key : key + "#" + occurrence;
+    }
+
+}
@@ -0,0 +1,786 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Component which keeps the graph of the current revision in memory for the whole run.
+ * Nodes and edges are identified by the same {@link ElementKeys} as in the {@link HistoryArchive}. The id of a key never changes, so an element keeps its
+ * id across revisions. All values are stored once in a string table and the elements and attributes are kept
+ * in columns of ids indexed by the element id. A new revision is read element by element and each element is
+ * diffed against the model as soon as it is read, so only the changed elements are stored again and the
+ * elements of the file are never held in memory at the same time.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class GraphModel {
+
+    private static final int NONE = -1;
+
+    private static final String FILE_TYPE = "File";
+
+    private static final String LINKAGE = "Linkage.Name";
+
+    /**
+     * String table of all types, names and values.
+     */
+    private final StringTable strings;
+
+    /**
+     * Stable keys of all elements which were part of a revision, the id of a key is the id of the element.
+     */
+    private final StringTable keys;
+
+    private String systemId;
+
+    private Map<String, String> gxlAttributes;
+
+    private Map<String, String> graphAttributes;
+
+    private List<AttributeData> attributes;
+
+    /**
+     * Ids of the elements of the current revision in document order.
+     */
+    private int[] order;
+
+    private int size;
+
+    private int[] elementIds;
+
+    private int[] types;
+
+    private int[] from;
+
+    private int[] to;
+
+    private int[] linkages;
+
+    private int[] attributeStart;
+
+    private int[] attributeCount;
+
+    /**
+     * Revision in which an element was last seen, elements of older revisions are not part of the model.
+     */
+    private int[] revisions;
+
+    private int revision;
+
+    /**
+     * Ids of the file nodes of the current revision in document order.
+     */
+    private int[] fileNodes;
+
+    private int fileNodeCount;
+
+    /**
+     * Ids of the elements which were added, changed, renumbered or removed since the last {@link #mark()}.
+     */
+    private final BitSet touched;
+
+    private int version;
+
+    private boolean loaded;
+
+    private int[] attributeNames;
+
+    private int[] attributeTypes;
+
+    private int[] attributeValues;
+
+    private int attributeSize;
+
+    private int liveAttributes;
+
+    private final int fileType;
+
+    private final int linkageName;
+
+    private final int intType;
+
+    public GraphModel() {
+        this.strings = new StringTable();
+        this.keys = new StringTable();
+        this.order = new int[1024];
+        this.elementIds = new int[1024];
+        this.types = new int[1024];
+        this.from = new int[1024];
+        this.to = new int[1024];
+        this.linkages = new int[1024];
+        this.attributeStart = new int[1024];
+        this.attributeCount = new int[1024];
+        this.revisions = new int[1024];
+        this.fileNodes = new int[1024];
+        this.touched = new BitSet();
+        this.attributeNames = new int[4096];
+        this.attributeTypes = new int[4096];
+        this.attributeValues = new int[4096];
+        this.fileType = strings.id(FILE_TYPE);
+        this.linkageName = strings.id(LINKAGE);
+        this.intType = strings.id("int");
+    }
+
+    /**
+     * Checks whether a graph was loaded.
+     * @return true if the model contains a revision
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replaces the model with the graph of a new revision, which is read element by element from a GXL file.
+     * Elements with the same key keep their id, and only elements which were added or changed are stored again.
+     * @param file GXL file of the new revision
+     * @param gxlIO reader of the file
+     * @return number of added, removed and changed elements
+     * @throws IOException if the file could not be read or an edge refers to an unknown node
+     */
+    public int update(File file, GxlIO gxlIO) throws IOException {
+        Update update = new Update();
+        try {
+            GraphData graph = gxlIO.readGraph(file, update::add);
+            return update.finish(graph);
+        } catch (IOException e) {
+            clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the model with the graph of a new revision. Elements with the same key keep their id, and only
+     * elements which were added or changed are stored again.
+     * @param graph graph of the new revision
+     * @return number of added, removed and changed elements
+     * @throws IOException if an edge refers to an unknown node
+     */
+    public int update(GraphData graph) throws IOException {
+        Update update = new Update();
+        try {
+            for (ElementData element : graph.getElements()) {
+                update.add(element);
+            }
+            return update.finish(graph);
+        } catch (IOException e) {
+            clear();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of file nodes of the current revision.
+     * @return number of file nodes
+     */
+    public int fileNodeCount() {
+        return fileNodeCount;
+    }
+
+    /**
+     * Returns the id of a file node of the current revision.
+     * @param index index of the file node in document order
+     * @return id of the node
+     */
+    public int fileNode(int index) {
+        return fileNodes[index];
+    }
+
+    /**
+     * Checks whether an element is part of the current revision.
+     * @param id id of the element
+     * @return true if the element is part of the current revision
+     */
+    public boolean contains(int id) {
+        return loaded && id >= 0 && id < keys.size() && revisions[id] == revision;
+    }
+
+    /**
+     * Returns the linkage name of an element.
+     * @param id id of an element of the current revision
+     * @return linkage name or null if the element has none
+     */
+    public String linkage(int id) {
+        return linkages[id] == NONE ? null : strings.string(linkages[id]);
+    }
+
+    /**
+     * Checks whether an element has an attribute whose name starts with a prefix.
+     * @param id id of an element of the current revision
+     * @param prefix prefix of the name
+     * @return true if the element has such an attribute
+     */
+    public boolean hasAttribute(int id, String prefix) {
+        for (int a = attributeStart[id]; a < attributeStart[id] + attributeCount[id]; a++) {
+            if(strings.string(attributeNames[a]).startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the names of the attributes of an element whose names start with a prefix to a collection.
+     * @param id id of an element of the current revision
+     * @param prefix prefix of the names
+     * @param names collection to add the names to
+     */
+    public void attributeNames(int id, String prefix, Collection<String> names) {
+        for (int a = attributeStart[id]; a < attributeStart[id] + attributeCount[id]; a++) {
+            String name = strings.string(attributeNames[a]);
+            if(name.startsWith(prefix)) {
+                names.add(name);
+            }
+        }
+    }
+
+    /**
+     * Checks whether an element has an int attribute with a value, without storing the value in the string table.
+     * @param id id of an element of the current revision
+     * @param name name of the attribute
+     * @param value value of the attribute
+     * @return true if the element has the attribute with this value
+     */
+    public boolean hasValue(int id, String name, int value) {
+        int nameId = strings.find(name);
+        for (int a = attributeStart[id]; a < attributeStart[id] + attributeCount[id]; a++) {
+            if(attributeNames[a] == nameId) {
+                if(attributeTypes[a] != intType) {
+                    return false;
+                }
+                try {
+                    return Integer.parseInt(strings.string(attributeValues[a])) == value;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Changes the attributes of the graph and its file nodes. Existing attributes are replaced in place,
+     * new attributes are appended after the existing ones, and removed attributes are dropped.
+     * Only the given nodes are visited, changes of nodes which are not file nodes of the current revision are ignored.
+     * @param nodeChanges changes of the file nodes
+     * @param graphAttributes string attributes of the graph
+     * @return number of changed file nodes
+     */
+    public int apply(List<NodeChanges> nodeChanges, Map<String, String> graphAttributes) {
+        Map<String, String> pendingGraph = new LinkedHashMap<>(graphAttributes);
+        for (int i = 0; i < attributes.size(); i++) {
+            AttributeData attribute = attributes.get(i);
+            if(pendingGraph.containsKey(attribute.getName())) {
+                attributes.set(i, new AttributeData(attribute.getName(), "string", pendingGraph.remove(attribute.getName())));
+            }
+        }
+        for (Map.Entry<String, String> entry : pendingGraph.entrySet()) {
+            attributes.add(new AttributeData(entry.getKey(), "string", entry.getValue()));
+        }
+
+        int changed = 0;
+        for (NodeChanges changes : nodeChanges) {
+            int id = changes.getId();
+            if(!contains(id) || !isFileNode(id) || (changes.getValues().isEmpty() && changes.getRemoved().isEmpty())) {
+                continue;
+            }
+
+            // The attributes are appended as a new range, the old range is left to the compaction.
+            Map<String, Integer> pending = new LinkedHashMap<>(changes.getValues());
+            int start = attributeStart[id];
+            int end = start + attributeCount[id];
+            int first = attributeSize;
+            for (int a = start; a < end; a++) {
+                String name = strings.string(attributeNames[a]);
+                if(changes.getRemoved().contains(name)) {
+                    continue;
+                }
+                if(pending.containsKey(name)) {
+                    addAttribute(attributeNames[a], intType, strings.id(String.valueOf(pending.remove(name))));
+                } else {
+                    addAttribute(attributeNames[a], attributeTypes[a], attributeValues[a]);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+                addAttribute(strings.id(entry.getKey()), intType, strings.id(String.valueOf(entry.getValue())));
+            }
+
+            liveAttributes += attributeSize - first - attributeCount[id];
+            attributeStart[id] = first;
+            attributeCount[id] = attributeSize - first;
+            linkages[id] = findLinkage(id);
+            touched.set(id);
+            changed++;
+        }
+        compact();
+        return changed;
+    }
+
+    /**
+     * Writes the current revision as GXL file, like {@link GxlIO#writeGraph(GraphData, File)}.
+     * @param file file to write
+     * @param compressed true if the file is compressed with gzip while writing
+     * @throws IOException exception
+     */
+    public void write(File file, boolean compressed) throws IOException {
+        try (Writer out = GxlIO.create(file, compressed)) {
+            GxlPrinter printer = new GxlPrinter(out);
+            printer.doctype(systemId);
+            printer.start("gxl", gxlAttributes);
+            printer.start("graph", graphAttributes);
+            for (AttributeData attribute : attributes) {
+                printer.attribute(attribute.getName(), attribute.getType(), attribute.getValue());
+            }
+
+            Map<String, String> element = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                int id = order[i];
+                boolean edge = from[id] != NONE;
+                element.clear();
+                element.put("id", strings.string(elementIds[id]));
+                if(edge) {
+                    element.put("from", strings.string(elementIds[from[id]]));
+                    element.put("to", strings.string(elementIds[to[id]]));
+                }
+
+                String name = edge ? "edge" : "node";
+                printer.start(name, element);
+                if(types[id] != NONE) {
+                    printer.start("type", Map.of("xlink:href", strings.string(types[id])));
+                    printer.end("type");
+                }
+                for (int a = attributeStart[id]; a < attributeStart[id] + attributeCount[id]; a++) {
+                    printer.attribute(strings.string(attributeNames[a]), strings.string(attributeTypes[a]), strings.string(attributeValues[a]));
+                }
+                printer.end(name);
+            }
+
+            printer.end("graph");
+            printer.end("gxl");
+        }
+    }
+
+    /**
+     * Returns the current revision as graph.
+     * @return graph
+     */
+    public GraphData graph() {
+        GraphData graph = header();
+        for (int i = 0; i < size; i++) {
+            int id = order[i];
+            boolean edge = isEdge(id);
+            graph.getElements().add(new ElementData(edge, elementId(id), type(id),
+                    edge ? elementId(from[id]) : null, edge ? elementId(to[id]) : null, attributes(id)));
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the current revision as graph without its nodes and edges.
+     * @return graph with the header and the attributes of the graph
+     */
+    public GraphData header() {
+        GraphData graph = new GraphData();
+        graph.setSystemId(systemId);
+        graph.setGxlAttributes(new TreeMap<>(gxlAttributes));
+        graph.setGraphAttributes(new TreeMap<>(graphAttributes));
+        graph.setAttributes(new ArrayList<>(attributes));
+        return graph;
+    }
+
+    /**
+     * Returns the id of the element at a position of the current revision.
+     * @param position position in document order
+     * @return id of the element
+     */
+    public int element(int position) {
+        return order[position];
+    }
+
+    /**
+     * Returns the {@link ElementKeys key} of an element, which is the same in every revision.
+     * @param id id of the element
+     * @return key
+     */
+    public String key(int id) {
+        return keys.string(id);
+    }
+
+    public boolean isEdge(int id) {
+        return from[id] != NONE;
+    }
+
+    /**
+     * Returns the id of an element in the GXL file of the current revision.
+     * @param id id of the element in the model
+     * @return id in the file
+     */
+    public String elementId(int id) {
+        return strings.string(elementIds[id]);
+    }
+
+    public String type(int id) {
+        return types[id] == NONE ? null : strings.string(types[id]);
+    }
+
+    public int from(int id) {
+        return from[id];
+    }
+
+    public int to(int id) {
+        return to[id];
+    }
+
+    /**
+     * Returns the attributes of an element.
+     * @param id id of an element of the current revision
+     * @return new list of the attributes
+     */
+    public List<AttributeData> attributes(int id) {
+        List<AttributeData> values = new ArrayList<>(attributeCount[id]);
+        for (int a = attributeStart[id]; a < attributeStart[id] + attributeCount[id]; a++) {
+            values.add(new AttributeData(strings.string(attributeNames[a]), strings.string(attributeTypes[a]), strings.string(attributeValues[a])));
+        }
+        return values;
+    }
+
+    /**
+     * Checks whether an element was added, changed, renumbered or removed since the last {@link #mark()}.
+     * @param id id of the element
+     * @return true if the element was touched
+     */
+    public boolean isTouched(int id) {
+        return touched.get(id);
+    }
+
+    /**
+     * Returns the next element which was touched since the last {@link #mark()}, including removed elements.
+     * @param id id to start the search at
+     * @return id of the element, or -1 if there is none
+     */
+    public int nextTouched(int id) {
+        return touched.nextSetBit(id);
+    }
+
+    /**
+     * Forgets the touched elements, e.g. after they were stored in the {@link HistoryArchive}.
+     * @return version of the model, which changes with every mark and with every failed update
+     */
+    public int mark() {
+        touched.clear();
+        return ++version;
+    }
+
+    /**
+     * Returns the version of the model. As long as it is the one returned by the last {@link #mark()},
+     * all changes since the mark are found in the touched elements.
+     * @return version
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Returns the stable id of a node.
+     * @param type type of the node
+     * @param linkage linkage name of the node
+     * @return id of the node, or -1 if the node was never part of a revision
+     */
+    public int nodeId(String type, String linkage) {
+        return keys.find(ElementKeys.node(type, linkage));
+    }
+
+    /**
+     * Returns the number of elements of the current revision.
+     * @return number of nodes and edges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the model after a failed update, which may have changed some of the elements already.
+     * The revision is skipped, so that no element counts as known and the next revision is stored completely.
+     */
+    private void clear() {
+        revision++;
+        version++;
+        loaded = false;
+        size = 0;
+        fileNodeCount = 0;
+        attributeSize = 0;
+        liveAttributes = 0;
+    }
+
+    private boolean isFileNode(int id) {
+        return types[id] == fileType && from[id] == NONE && linkages[id] != NONE;
+    }
+
+    private boolean sameAttributes(int id, List<AttributeData> values) {
+        if(attributeCount[id] != values.size()) {
+            return false;
+        }
+
+        int a = attributeStart[id];
+        for (AttributeData value : values) {
+            if(attributeNames[a] != strings.find(value.getName()) || attributeTypes[a] != strings.find(value.getType())
+                    || attributeValues[a] != strings.find(value.getValue())) {
+                return false;
+            }
+            a++;
+        }
+        return true;
+    }
+
+    private void storeAttributes(int id, List<AttributeData> values) {
+        attributeStart[id] = attributeSize;
+        attributeCount[id] = values.size();
+        for (AttributeData value : values) {
+            addAttribute(strings.id(value.getName()), strings.id(value.getType()), strings.id(value.getValue()));
+        }
+        linkages[id] = findLinkage(id);
+        liveAttributes += values.size();
+    }
+
+    /**
+     * Finds the linkage name of an element in its stored attributes.
+     * @param id id of the element
+     * @return id of the linkage name in the string table, or -1 if the element has none
+     */
+    private int findLinkage(int id) {
+        for (int a = attributeStart[id]; a < attributeStart[id] + attributeCount[id]; a++) {
+            if(attributeNames[a] == linkageName && !strings.string(attributeValues[a]).isBlank()) {
+                return attributeValues[a];
+            }
+        }
+        return NONE;
+    }
+
+    private void addAttribute(int name, int type, int value) {
+        if(attributeSize == attributeNames.length) {
+            int capacity = attributeSize * 2;
+            attributeNames = Arrays.copyOf(attributeNames, capacity);
+            attributeTypes = Arrays.copyOf(attributeTypes, capacity);
+            attributeValues = Arrays.copyOf(attributeValues, capacity);
+        }
+        attributeNames[attributeSize] = name;
+        attributeTypes[attributeSize] = type;
+        attributeValues[attributeSize] = value;
+        attributeSize++;
+    }
+
+    /**
+     * Moves the attributes of the current revision to the front of the columns, once more than half of the
+     * stored attributes belong to replaced or removed elements.
+     */
+    private void compact() {
+        if(attributeSize <= 2 * liveAttributes) {
+            return;
+        }
+
+        int[] names = new int[Math.max(4096, attributeNames.length)];
+        int[] valueTypes = new int[names.length];
+        int[] values = new int[names.length];
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            int id = order[i];
+            System.arraycopy(attributeNames, attributeStart[id], names, next, attributeCount[id]);
+            System.arraycopy(attributeTypes, attributeStart[id], valueTypes, next, attributeCount[id]);
+            System.arraycopy(attributeValues, attributeStart[id], values, next, attributeCount[id]);
+            attributeStart[id] = next;
+            next += attributeCount[id];
+        }
+        attributeNames = names;
+        attributeTypes = valueTypes;
+        attributeValues = values;
+        attributeSize = next;
+        liveAttributes = next;
+    }
+
+    private void ensureCapacity(int elements) {
+        if(elements <= elementIds.length) {
+            return;
+        }
+
+        int capacity = Math.max(elements, elementIds.length * 2);
+        elementIds = Arrays.copyOf(elementIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        linkages = Arrays.copyOf(linkages, capacity);
+        attributeStart = Arrays.copyOf(attributeStart, capacity);
+        attributeCount = Arrays.copyOf(attributeCount, capacity);
+        revisions = Arrays.copyOf(revisions, capacity);
+    }
+
+    /**
+     * Changes of the attributes of a single file node.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class NodeChanges {
+
+        private final int id;
+
+        private final Set<String> removed = new HashSet<>();
+
+        private final Map<String, Integer> values = new LinkedHashMap<>();
+
+    }
+
+    /**
+     * Update of the model to a new revision, whose elements are added one at a time in document order.
+     * The new order is collected besides the order of the previous revision, which is needed to find the
+     * removed elements. Edges which are read before one of their nodes are stored once the revision is complete.
+     */
+    private class Update {
+
+        private final Map<String, Integer> nodeIds;
+
+        private final ElementKeys elementKeys;
+
+        private final List<ElementData> deferred;
+
+        private final List<Integer> deferredPositions;
+
+        private final int previous;
+
+        private int[] nextOrder;
+
+        private int nextSize;
+
+        private int changed;
+
+        private Update() {
+            this.nodeIds = new HashMap<>();
+            this.elementKeys = new ElementKeys();
+            this.deferred = new ArrayList<>();
+            this.deferredPositions = new ArrayList<>();
+            this.previous = revision++;
+            this.nextOrder = new int[Math.max(1024, size)];
+        }
+
+        /**
+         * Adds the next element of the revision.
+         * @param element node or edge
+         */
+        private void add(ElementData element) {
+            if(nextSize == nextOrder.length) {
+                nextOrder = Arrays.copyOf(nextOrder, nextSize * 2);
+            }
+
+            int position = nextSize++;
+            if(element.isEdge() && (!nodeIds.containsKey(element.getFrom()) || !nodeIds.containsKey(element.getTo()))) {
+                deferred.add(element);
+                deferredPositions.add(position);
+                return;
+            }
+            store(position, element);
+        }
+
+        /**
+         * Completes the revision and replaces the previous one.
+         * @param graph graph of the revision with its header and graph attributes
+         * @return number of added, removed and changed elements
+         * @throws IOException if an edge refers to an unknown node
+         */
+        private int finish(GraphData graph) throws IOException {
+            for (int i = 0; i < deferred.size(); i++) {
+                ElementData element = deferred.get(i);
+                if(!nodeIds.containsKey(element.getFrom()) || !nodeIds.containsKey(element.getTo())) {
+                    throw new IOException("Edge " + element.getId() + " refers to an unknown node");
+                }
+                store(deferredPositions.get(i), element);
+            }
+
+            for (int i = 0; i < size; i++) {
+                if(revisions[order[i]] != revision) {
+                    liveAttributes -= attributeCount[order[i]];
+                    touched.set(order[i]);
+                    changed++;
+                }
+            }
+
+            order = nextOrder;
+            size = nextSize;
+            fileNodeCount = 0;
+            for (int i = 0; i < size; i++) {
+                if(isFileNode(order[i])) {
+                    if(fileNodeCount == fileNodes.length) {
+                        fileNodes = Arrays.copyOf(fileNodes, fileNodeCount * 2);
+                    }
+                    fileNodes[fileNodeCount++] = order[i];
+                }
+            }
+            systemId = graph.getSystemId();
+            gxlAttributes = new TreeMap<>(graph.getGxlAttributes());
+            graphAttributes = new TreeMap<>(graph.getGraphAttributes());
+            attributes = new ArrayList<>(graph.getAttributes());
+            loaded = true;
+            compact();
+            return changed;
+        }
+
+        /**
+         * Stores an element of the revision if it was added or changed since the previous revision.
+         * @param position position of the element in document order
+         * @param element node or edge whose nodes are known
+         */
+        private void store(int position, ElementData element) {
+            int id;
+            int source = NONE;
+            int target = NONE;
+            if(element.isEdge()) {
+                source = nodeIds.get(element.getFrom());
+                target = nodeIds.get(element.getTo());
+                id = keys.id(elementKeys.edge(element, keys.string(source), keys.string(target)));
+            } else {
+                id = keys.id(elementKeys.node(element));
+                nodeIds.put(element.getId(), id);
+            }
+            ensureCapacity(keys.size());
+            nextOrder[position] = id;
+
+            // A renumbered element is not a change, its new id is taken over nevertheless.
+            boolean known = loaded && revisions[id] == previous;
+            int elementId = strings.id(element.getId());
+            if(!known || elementIds[id] != elementId) {
+                touched.set(id);
+            }
+            elementIds[id] = elementId;
+            int type = element.getType() == null ? NONE : strings.id(element.getType());
+            if(!known || types[id] != type || from[id] != source || to[id] != target || !sameAttributes(id, element.getAttributes())) {
+                types[id] = type;
+                from[id] = source;
+                to[id] = target;
+                if(known) {
+                    liveAttributes -= attributeCount[id];
+                }
+                storeAttributes(id, element.getAttributes());
+                touched.set(id);
+                changed++;
+            }
+            revisions[id] = revision;
+        }
+
+    }
+
+}
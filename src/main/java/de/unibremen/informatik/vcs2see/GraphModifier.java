@@ -2,17 +2,21 @@ package de.unibremen.informatik.vcs2see;
 
 import de.unibremen.informatik.st.libvcs4j.Commit;
 import de.unibremen.informatik.st.libvcs4j.FileChange;
-import de.unibremen.informatik.st.libvcs4j.LineChange;
 import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.ConfigurationData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
 import de.unibremen.informatik.vcs2see.data.RepositoryData;
-import net.sourceforge.gxl.*;
-import org.xml.sax.SAXException;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 /**
  * Component which can modify the graph of the GXL file.
@@ -24,60 +28,169 @@ public class GraphModifier {
 
     private final RepositoryData repositoryData;
 
+    private final ConfigurationData configurationData;
+
+    private final GxlIO gxlIO;
+
+    /**
+     * Graph of the last loaded or saved file, which is kept in memory across commits.
+     */
+    private final GraphModel graphModel;
+
     private File file;
 
-    private GXLDocument document;
+    private Map<String, String> graph;
 
-    private Map<String, GXLNode> nodes;
+    /**
+     * Ids of all paths of the history and of the file nodes. The history is kept in arrays indexed by these ids.
+     */
+    private final StringTable paths;
+
+    /**
+     * Changes of the file nodes of the current commit by node id, null for nodes which are not changed.
+     */
+    private GraphModel.NodeChanges[] changesByNode;
+
+    private final List<GraphModel.NodeChanges> changes;
+
+    /**
+     * Ids of the file nodes of the graph model by path id, -1 for paths which never had a node.
+     */
+    private int[] nodesByPath;
+
+    /**
+     * Changed paths as a linked list of ids, ordered from the least to the most recently changed one.
+     */
+    private int[] previousRecent;
 
-    private final Deque<String> mostRecent;
+    private int[] nextRecent;
 
-    private final Map<String, Integer> mostFrequent;
+    private int leastRecent;
+
+    private int mostRecent;
+
+    private int changedPaths;
+
+    /**
+     * Number of changes by id, 0 for paths which were not changed yet.
+     */
+    private int[] mostFrequent;
+
+    /**
+     * Number of paths by their number of changes, used to keep the minimum and maximum up to date.
+     */
+    private int[] frequencies;
+
+    private int minFrequent;
+
+    private int maxFrequent;
+
+    private final DiffCache diffCache;
+
+    private final DiffProvider diffProvider;
+
+    private final StatisticsManager statisticsManager;
 
     public GraphModifier(RepositoryData repositoryData) {
+        this(repositoryData, new ConfigurationData(null, Pattern.compile(repositoryData.getLanguage().regex())), null, new LibVcs4jDiffProvider(), StatisticsManager.disabled());
+    }
+
+    /**
+     * Initialization for the GraphModifier.
+     * @param repositoryData all the required information about the repository
+     * @param configurationData settings of the run with the compiled path patterns
+     * @param diffCache cache for the line changes of already diffed files, may be null
+     * @param diffProvider diff which counts the line changes of changed files
+     * @param statisticsManager statistics for the duration of the modification steps
+     */
+    public GraphModifier(RepositoryData repositoryData, ConfigurationData configurationData, DiffCache diffCache, DiffProvider diffProvider, StatisticsManager statisticsManager) {
         this.repositoryData = repositoryData;
-        this.mostFrequent = new HashMap<>();
-        this.mostRecent = new LinkedList<>();
+        this.configurationData = configurationData;
+        this.diffCache = diffCache;
+        this.statisticsManager = statisticsManager;
+        this.diffProvider = diffProvider;
+        this.gxlIO = new GxlIO();
+        this.graphModel = new GraphModel();
+        this.paths = new StringTable();
+        this.changesByNode = new GraphModel.NodeChanges[1024];
+        this.changes = new ArrayList<>();
+        this.nodesByPath = new int[1024];
+        Arrays.fill(nodesByPath, -1);
+        this.previousRecent = new int[1024];
+        this.nextRecent = new int[1024];
+        this.mostFrequent = new int[1024];
+        this.frequencies = new int[16];
+        this.leastRecent = -1;
+        this.mostRecent = -1;
     }
 
     /**
-     * Loads the specified GLX file .
+     * Loads the specified GLX file. The graph of the last saved file is still in memory and is not read again.
      * @param file file to load
      * @throws IOException exception
-     * @throws SAXException exception
      */
-    public void loadFile(File file) throws IOException, SAXException {
-        if(!file.exists()) {
+    public void loadFile(File file) throws IOException {
+        // The graph of the last saved file is in memory, even if it was never written.
+        boolean loaded = graphModel.isLoaded() && file.equals(this.file);
+        if(!loaded && !file.exists()) {
             System.err.println("File " + file.getName() + " not found");
             return;
         }
 
-        // Load GLX file.
+        // Changes are collected and applied to the graph model when saving.
+        if(!loaded) {
+            long start = statisticsManager.start();
+            int changed = graphModel.update(file, gxlIO);
+            statisticsManager.stop(StatisticsManager.Stage.GXL_LOAD, start);
+            statisticsManager.count(StatisticsManager.Counter.ELEMENTS_CHANGED, changed);
+        }
         this.file = file;
-        this.document = new GXLDocument(file);
+        this.graph = new LinkedHashMap<>();
     }
 
-    public void loadNodes() {
-        this.nodes = new HashMap<>();
+    public void loadNodes() throws IOException {
+        for (GraphModel.NodeChanges nodeChanges : changes) {
+            changesByNode[nodeChanges.getId()] = null;
+        }
+        changes.clear();
 
         System.out.println("Nodes:");
+        long start = statisticsManager.start();
 
         // Load nodes.
-        GXLGraph clonesGraph = document.getDocumentElement().getGraphAt(0);
-        for(int i = 0; i < clonesGraph.getGraphElementCount(); i++) {
-            GXLElement element = clonesGraph.getGraphElementAt(i);
-
-            if(element instanceof GXLNode) {
-                GXLNode node = (GXLNode) element;
-                if(!node.getType().getURI().toString().equals("File")) {
-                    continue;
-                }
+        for(int i = 0; i < graphModel.fileNodeCount(); i++) {
+            int node = graphModel.fileNode(i);
+            String linkage = graphModel.linkage(node);
 
-                GXLString linkage = (GXLString) node.getAttr("Linkage.Name").getValue();
-                System.out.println(" - " + linkage.getValue());
-                nodes.put(linkage.getValue(), node);
+            // Remove metrics of the commit a reused graph was created for.
+            if(graphModel.hasAttribute(node, "Metric.Vcs2See.Commit.")) {
+                graphModel.attributeNames(node, "Metric.Vcs2See.Commit.", changes(node).getRemoved());
             }
+
+            System.out.print(" - ");
+            System.out.println(linkage);
+
+            int id = paths.id(linkage);
+            ensureCapacity(id);
+            nodesByPath[id] = node;
+        }
+        statisticsManager.stop(StatisticsManager.Stage.GXL_LOAD, start);
+    }
+
+    /**
+     * Returns the changes of a file node of the current commit.
+     * @param node id of the node in the graph model
+     * @return changes, which are created on first use
+     */
+    private GraphModel.NodeChanges changes(int node) {
+        if(node >= changesByNode.length) {
+            changesByNode = Arrays.copyOf(changesByNode, Math.max(node + 1, changesByNode.length * 2));
+        }
+        if(changesByNode[node] == null) {
+            changesByNode[node] = new GraphModel.NodeChanges(node);
+            changes.add(changesByNode[node]);
         }
+        return changesByNode[node];
     }
 
     /**
@@ -85,10 +198,6 @@ public class GraphModifier {
      * @param commit commit from which the information should be extracted
      */
     public void queryCommitData(Commit commit) throws IOException {
-        PropertiesManager propertiesManager = new PropertiesManager();
-        propertiesManager.loadProperties();
-        String basePath = propertiesManager.getProperty("path.base").orElse("");
-
         System.out.println("Changes:");
         for (FileChange fileChange : commit.getFileChanges()) {
             VCSFile file = fileChange.getNewFile().orElse(fileChange.getOldFile().orElse(null));
@@ -97,90 +206,312 @@ public class GraphModifier {
                 continue;
             }
 
-            String path = file.getRelativePath()
-                    .replace('\\', '/')
-                    .replaceAll(basePath, "");
-            if(!path.matches(repositoryData.getLanguage().regex())) {
+            String path = path(file);
+            if(path == null) {
                 continue;
             }
+            int id = paths.id(path);
+            ensureCapacity(id);
 
             // Calculate and add line changes.
-            if(nodes.containsKey(path)) {
-                List<LineChange> lineChanges = fileChange.computeDiff();
-
-                List<Integer> insertedLines = lineChanges.stream()
-                        .filter(lineChange -> lineChange.getType() == LineChange.Type.INSERT)
-                        .map(LineChange::getLine)
-                        .collect(Collectors.toList());
-                List<Integer> deletedLines = lineChanges.stream()
-                        .filter(lineChange -> lineChange.getType() == LineChange.Type.DELETE)
-                        .map(LineChange::getLine)
-                        .collect(Collectors.toList());
-                List<Integer> editedLines = insertedLines.stream()
-                        .filter(deletedLines::contains)
-                        .collect(Collectors.toList());
-                insertedLines.removeAll(editedLines);
-                deletedLines.removeAll(editedLines);
-
-                GXLNode node = nodes.get(path);
-                node.setAttr("Metric.Vcs2See.Commit.Line_Changes", new GXLInt(lineChanges.size()));
-                node.setAttr("Metric.Vcs2See.Commit.Lines_Added", new GXLInt(insertedLines.size()));
-                node.setAttr("Metric.Vcs2See.Commit.Lines_Edited", new GXLInt(editedLines.size()));
-                node.setAttr("Metric.Vcs2See.Commit.Lines_Deleted", new GXLInt(deletedLines.size()));
+            int node = nodesByPath[id];
+            if(graphModel.contains(node)) {
+                LineChangeData data = diffCache == null ? null : diffCache.get(commit.getId(), file.getRelativePath());
+                if(data == null) {
+                    data = computeLineChanges(fileChange);
+                    if(diffCache != null) {
+                        diffCache.put(commit.getId(), file.getRelativePath(), data);
+                    }
+                }
+
+                Map<String, Integer> values = changes(node).getValues();
+                values.put("Metric.Vcs2See.Commit.Line_Changes", data.getLineChanges());
+                values.put("Metric.Vcs2See.Commit.Lines_Added", data.getAdded());
+                values.put("Metric.Vcs2See.Commit.Lines_Edited", data.getEdited());
+                values.put("Metric.Vcs2See.Commit.Lines_Deleted", data.getDeleted());
             }
 
             System.out.println("- " + path);
+            recordChange(id);
+        }
+    }
+
+    /**
+     * Adds the changed paths of a commit without a graph to the version history.
+     * The line changes are only needed for the graph of a commit and are not computed.
+     * @param commit commit which is skipped
+     */
+    public void recordHistory(Commit commit) {
+        for (FileChange fileChange : commit.getFileChanges()) {
+            VCSFile file = fileChange.getNewFile().orElse(fileChange.getOldFile().orElse(null));
+            String path = file == null ? null : path(file);
+            if(path != null) {
+                int id = paths.id(path);
+                ensureCapacity(id);
+                recordChange(id);
+            }
+        }
+    }
+
+    /**
+     * Returns the path of a file relative to the base path.
+     * @param file changed file
+     * @return relative path or null if the file is not written in the language of the repository
+     */
+    private String path(VCSFile file) {
+        String path = file.getRelativePath().replace('\\', '/');
+        if(configurationData.getBasePathPattern() != null) {
+            path = configurationData.getBasePathPattern().matcher(path).replaceAll("");
+        }
+        return configurationData.getLanguagePattern().matcher(path).matches() ? path : null;
+    }
+
+    /**
+     * Counts a change of a path for the most recent and most frequent changes.
+     * @param id id of the changed path
+     */
+    private void recordChange(int id) {
+        // Calculate most recent changes
+        moveToMostRecent(id);
 
-            // Calculate most recent changes
-            mostRecent.remove(path);
-            mostRecent.addFirst(path);
+        // Calculate most frequent changes
+        countChange(id, mostFrequent[id] + 1);
+    }
 
-            // Calculate most frequent changes
-            if(mostFrequent.computeIfPresent(path, (k, v) -> v + 1) == null) {
-                mostFrequent.put(path, 1);
+    /**
+     * Moves a path to the end of the most recent changes, or appends it if it was not changed yet.
+     * @param id id of the changed path
+     */
+    private void moveToMostRecent(int id) {
+        if(id == mostRecent) {
+            return;
+        }
+
+        if(mostFrequent[id] > 0) {
+            // Unlink the path, it cannot be the most recent one.
+            if(previousRecent[id] == -1) {
+                leastRecent = nextRecent[id];
+            } else {
+                nextRecent[previousRecent[id]] = nextRecent[id];
             }
+            previousRecent[nextRecent[id]] = previousRecent[id];
+        }
+
+        previousRecent[id] = mostRecent;
+        nextRecent[id] = -1;
+        if(mostRecent == -1) {
+            leastRecent = id;
+        } else {
+            nextRecent[mostRecent] = id;
         }
+        mostRecent = id;
+    }
+
+    /**
+     * Sets the number of changes of a path and updates the minimum and maximum of all paths.
+     * The number of changes of a path may only grow.
+     * @param id id of the changed path
+     * @param frequent new number of changes
+     */
+    private void countChange(int id, int frequent) {
+        int previous = mostFrequent[id];
+        mostFrequent[id] = frequent;
+        if(frequent >= frequencies.length) {
+            frequencies = Arrays.copyOf(frequencies, Math.max(frequent + 1, frequencies.length * 2));
+        }
+        frequencies[frequent]++;
+        maxFrequent = Math.max(maxFrequent, frequent);
+
+        if(previous == 0) {
+            changedPaths++;
+            minFrequent = changedPaths == 1 ? frequent : Math.min(minFrequent, frequent);
+        } else if(--frequencies[previous] == 0 && previous == minFrequent) {
+            minFrequent = previous + 1;
+            while (frequencies[minFrequent] == 0) {
+                minFrequent++;
+            }
+        }
+    }
+
+    /**
+     * Grows the arrays indexed by path id, so that they contain the specified id.
+     * @param id id of a path
+     */
+    private void ensureCapacity(int id) {
+        if(id < mostFrequent.length) {
+            return;
+        }
+
+        int capacity = Math.max(id + 1, mostFrequent.length * 2);
+        nodesByPath = Arrays.copyOf(nodesByPath, capacity);
+        Arrays.fill(nodesByPath, mostFrequent.length, capacity, -1);
+        previousRecent = Arrays.copyOf(previousRecent, capacity);
+        nextRecent = Arrays.copyOf(nextRecent, capacity);
+        mostFrequent = Arrays.copyOf(mostFrequent, capacity);
+    }
+
+    /**
+     * Computes the diff of a changed file and counts the added, edited and deleted lines.
+     * @param fileChange changed file
+     * @return counted line changes
+     * @throws IOException exception
+     */
+    private LineChangeData computeLineChanges(FileChange fileChange) throws IOException {
+        long start = statisticsManager.start();
+        LineChangeData data = diffProvider.diff(fileChange);
+        statisticsManager.stop(StatisticsManager.Stage.DIFF, start);
+        statisticsManager.count(StatisticsManager.Counter.FILES_DIFFED, 1);
+        return data;
     }
 
     public void populateNodes() {
-        List<String> list = (LinkedList<String>) mostRecent;
-        for(int i = 0; i < list.size(); i++) {
-            String path = list.get(i);
-            if(nodes.containsKey(path)) {
-                int frequent = Math.round(interpolateMostFrequent(mostFrequent.getOrDefault(path, 0)));
-
-                GXLNode node = nodes.get(path);
-                node.setAttr("Metric.Vcs2See.Most_Recent_Edit", new GXLInt(interpolateMostRecent(list.size(), i)));
-                node.setAttr("Metric.Vcs2See.Most_Frequent_Edit", new GXLInt(frequent));
+        long start = statisticsManager.start();
+
+        // Rank 0 is the most recently changed path.
+        int size = changedPaths;
+        int rank = size - 1;
+        for(int id = leastRecent; id != -1; id = nextRecent[id]) {
+            int node = nodesByPath[id];
+            if(graphModel.contains(node)) {
+                // Only nodes whose ranks changed since the last commit are changed.
+                int recent = interpolateMostRecent(size, rank);
+                int frequent = Math.round(interpolateMostFrequent(mostFrequent[id]));
+                if(!graphModel.hasValue(node, "Metric.Vcs2See.Most_Recent_Edit", recent)) {
+                    changes(node).getValues().put("Metric.Vcs2See.Most_Recent_Edit", recent);
+                }
+                if(!graphModel.hasValue(node, "Metric.Vcs2See.Most_Frequent_Edit", frequent)) {
+                    changes(node).getValues().put("Metric.Vcs2See.Most_Frequent_Edit", frequent);
+                }
             }
+            rank--;
         }
+        statisticsManager.stop(StatisticsManager.Stage.HISTORY, start);
     }
 
     public void addCommitGraph(Commit commit) {
-        GXLGraph codeGraph = document.getDocumentElement().getGraphAt(0);
-        codeGraph.setAttr("CommitId", new GXLString(commit.getId()));
-        codeGraph.setAttr("CommitAuthor", new GXLString(commit.getAuthor()));
-        codeGraph.setAttr("CommitMessage", new GXLString(commit.getMessage()));
-        codeGraph.setAttr("CommitTimestamp", new GXLString(commit.getDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+        graph.put("CommitId", commit.getId());
+        graph.put("CommitAuthor", commit.getAuthor());
+        graph.put("CommitMessage", commit.getMessage());
+        graph.put("CommitTimestamp", commit.getDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
     }
 
-    private int interpolateMostRecent(int size, int index) {
-        int step = 255 / (size - 1);
-        return 255 - (step  * index);
+    private int interpolateMostRecent(int size, int rank) {
+        if(size <= 1) {
+            return 255;
+        }
+        return Math.round(255f * (size - 1 - rank) / (size - 1));
     }
 
     private float interpolateMostFrequent(int value) {
-        float min = mostFrequent.values().stream().min(Integer::compareTo).orElse(0);
-        float max = mostFrequent.values().stream().max(Integer::compareTo).orElse(255);
-        return (255 / (max - min)) * (value - min);
+        // All paths were changed equally often.
+        if(maxFrequent == minFrequent) {
+            return 0;
+        }
+        return (255f / (maxFrequent - minFrequent)) * (value - minFrequent);
     }
 
     /**
-     * Writes the loaded GLX file.
+     * Writes the version history collected so far.
+     * @param output output to write to
+     * @throws IOException exception
+     */
+    public void writeHistory(DataOutput output) throws IOException {
+        output.writeInt(changedPaths);
+        for(int id = leastRecent; id != -1; id = nextRecent[id]) {
+            output.writeUTF(paths.string(id));
+        }
+
+        output.writeInt(changedPaths);
+        for(int id = leastRecent; id != -1; id = nextRecent[id]) {
+            output.writeUTF(paths.string(id));
+            output.writeInt(mostFrequent[id]);
+        }
+    }
+
+    /**
+     * Replaces the version history with one written by {@link #writeHistory(DataOutput)}.
+     * @param input input to read from
+     * @throws IOException exception
+     */
+    public void readHistory(DataInput input) throws IOException {
+        Arrays.fill(mostFrequent, 0);
+        Arrays.fill(frequencies, 0);
+        leastRecent = -1;
+        mostRecent = -1;
+        changedPaths = 0;
+        minFrequent = 0;
+        maxFrequent = 0;
+
+        // The order is restored before the numbers of changes, a path is only linked once.
+        int recent = input.readInt();
+        for(int i = 0; i < recent; i++) {
+            int id = paths.id(input.readUTF());
+            ensureCapacity(id);
+            moveToMostRecent(id);
+        }
+
+        int frequent = input.readInt();
+        for(int i = 0; i < frequent; i++) {
+            int id = paths.id(input.readUTF());
+            ensureCapacity(id);
+            countChange(id, input.readInt());
+        }
+    }
+
+    /**
+     * Writes the loaded GLX file with all changes.
      * @throws IOException exception
      */
     public void saveFile() throws IOException {
-        document.write(file);
+        saveFile(file);
+    }
+
+    /**
+     * Writes the loaded GLX file with all changes to the specified file, which is loaded afterwards.
+     * Files with the extension {@value GxlIO#GZIP_EXTENSION} are compressed while writing.
+     * @param target file to write
+     * @throws IOException exception
+     */
+    public void saveFile(File target) throws IOException {
+        long start = statisticsManager.start();
+        int updated = graphModel.apply(changes, graph);
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        graphModel.write(temp, GxlIO.isCompressed(target));
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.file = target;
+        statisticsManager.stop(StatisticsManager.Stage.GXL_SAVE, start);
+
+        statisticsManager.count(StatisticsManager.Counter.BYTES_WRITTEN, file.length());
+        statisticsManager.count(StatisticsManager.Counter.NODES_UPDATED, updated);
+    }
+
+    /**
+     * Applies all changes to the graph in memory without writing it. The graph counts as saved to the specified
+     * file, so loading this file continues with the graph in memory, although the file does not exist.
+     * @param target file the graph is saved to
+     */
+    public void applyChanges(File target) {
+        long start = statisticsManager.start();
+        int updated = graphModel.apply(changes, graph);
+        this.file = target;
+        statisticsManager.stop(StatisticsManager.Stage.GXL_SAVE, start);
+        statisticsManager.count(StatisticsManager.Counter.NODES_UPDATED, updated);
+    }
+
+    /**
+     * Returns the graph model with all saved changes, e.g. for the {@link HistoryArchive}.
+     * @return graph model
+     */
+    public GraphModel getGraphModel() {
+        return graphModel;
+    }
+
+    /**
+     * Returns the graph of the loaded GLX file with all saved changes, without reading the file again.
+     * @return graph
+     */
+    public GraphData getGraph() {
+        return graphModel.graph();
     }
 
 }
@@ -0,0 +1,286 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Component which reads and writes GXL files in a single streaming pass.
+ * A graph can be read element by element, so that only one element is held in memory at a time.
+ * The output is formatted like the output of {@link net.sourceforge.gxl.GXLDocument#write(File)}.
+ * Files compressed with gzip are recognized by their first bytes when reading. Files with the
+ * extension {@value #GZIP_EXTENSION} are compressed while writing.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class GxlIO {
+
+    public static final String GZIP_EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final Pattern SYSTEM_ID_PATTERN = Pattern.compile("SYSTEM\\s+[\"']([^\"']*)[\"']");
+
+    private final XMLInputFactory inputFactory;
+
+    public GxlIO() {
+        this.inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Reads a complete GXL file with a single graph of nodes and edges.
+     * @param file file to read
+     * @return graph
+     * @throws IOException if the file could not be read or contains other elements
+     */
+    public GraphData readGraph(File file) throws IOException {
+        GraphData graph = new GraphData();
+        return readGraph(file, graph.getElements()::add, graph);
+    }
+
+    /**
+     * Reads a GXL file with a single graph of nodes and edges and passes each element to a handler as soon as it
+     * is read, so the elements of the file are not held in memory at the same time.
+     * @param file file to read
+     * @param handler receives the nodes and edges in document order
+     * @return graph without its elements
+     * @throws IOException if the file could not be read or contains other elements, or the handler fails
+     */
+    public GraphData readGraph(File file, ElementHandler handler) throws IOException {
+        return readGraph(file, handler, new GraphData());
+    }
+
+    private GraphData readGraph(File file, ElementHandler handler, GraphData graph) throws IOException {
+        graph.setSystemId(GxlPrinter.SYSTEM_ID);
+
+        try (InputStream input = open(file)) {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if(event == XMLStreamConstants.DTD) {
+                    graph.setSystemId(systemId(reader.getText()));
+                } else if(event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "gxl":
+                            graph.getGxlAttributes().putAll(attributes(reader));
+                            break;
+
+                        case "graph":
+                            graph.getGraphAttributes().putAll(attributes(reader));
+                            break;
+
+                        case "attr":
+                            graph.getAttributes().add(readAttribute(reader));
+                            break;
+
+                        case "node":
+                        case "edge":
+                            handler.element(readElement(reader));
+                            break;
+
+                        default:
+                            throw new IOException("Unsupported element " + reader.getLocalName() + " in " + file.getName());
+                    }
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to read " + file.getName(), e);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Writes a complete GXL file.
+     * @param graph graph to write
+     * @param file file to write
+     * @throws IOException exception
+     */
+    public void writeGraph(GraphData graph, File file) throws IOException {
+        try (Writer out = create(file, isCompressed(file))) {
+            GxlPrinter printer = new GxlPrinter(out);
+            printer.doctype(graph.getSystemId());
+            printer.start("gxl", graph.getGxlAttributes());
+            printer.start("graph", graph.getGraphAttributes());
+            for (AttributeData attribute : graph.getAttributes()) {
+                printer.attribute(attribute.getName(), attribute.getType(), attribute.getValue());
+            }
+
+            for (ElementData element : graph.getElements()) {
+                Map<String, String> attributes = new TreeMap<>();
+                attributes.put("id", element.getId());
+                if(element.isEdge()) {
+                    attributes.put("from", element.getFrom());
+                    attributes.put("to", element.getTo());
+                }
+
+                String name = element.isEdge() ? "edge" : "node";
+                printer.start(name, attributes);
+                if(element.getType() != null) {
+                    printer.start("type", Map.of("xlink:href", element.getType()));
+                    printer.end("type");
+                }
+                for (AttributeData attribute : element.getAttributes()) {
+                    printer.attribute(attribute.getName(), attribute.getType(), attribute.getValue());
+                }
+                printer.end(name);
+            }
+
+            printer.end("graph");
+            printer.end("gxl");
+        }
+    }
+
+    /**
+     * Reads a node or an edge whose start was already read.
+     * @param reader input positioned at the start of the element
+     * @return element
+     * @throws XMLStreamException exception
+     * @throws IOException if the element has unsupported content
+     */
+    private ElementData readElement(XMLStreamReader reader) throws XMLStreamException, IOException {
+        boolean edge = reader.getLocalName().equals("edge");
+        Map<String, String> attributes = attributes(reader);
+        String id = attributes.remove("id");
+        String from = attributes.remove("from");
+        String to = attributes.remove("to");
+        if(!attributes.isEmpty()) {
+            throw new IOException("Unsupported attributes " + attributes.keySet() + " of " + id);
+        }
+
+        String type = null;
+        List<AttributeData> values = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if(reader.getLocalName().equals("type")) {
+                type = reader.getAttributeValue(null, "href");
+                reader.nextTag();
+            } else if(reader.getLocalName().equals("attr")) {
+                values.add(readAttribute(reader));
+            } else {
+                throw new IOException("Unsupported element " + reader.getLocalName() + " in " + id);
+            }
+        }
+        return new ElementData(edge, id, type, from, to, values);
+    }
+
+    /**
+     * Reads an attribute with a single value whose start was already read.
+     * @param reader input positioned at the start of the attribute
+     * @return attribute
+     * @throws XMLStreamException exception
+     */
+    private AttributeData readAttribute(XMLStreamReader reader) throws XMLStreamException {
+        String name = reader.getAttributeValue(null, "name");
+        reader.nextTag();
+        String type = reader.getLocalName();
+        String value = reader.getElementText();
+        reader.nextTag();
+        return new AttributeData(name, type, value);
+    }
+
+    /**
+     * Collects the namespace declarations and attributes of the current element with their prefixes.
+     * @param reader input positioned at the start of an element
+     * @return attributes by qualified name
+     */
+    private Map<String, String> attributes(XMLStreamReader reader) {
+        Map<String, String> attributes = new TreeMap<>();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            attributes.put(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String name = reader.getAttributeLocalName(i);
+            attributes.put(prefix == null || prefix.isEmpty() ? name : prefix + ":" + name, reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    /**
+     * Checks whether a file is written compressed, by its extension.
+     * @param file file to check
+     * @return true if the file is compressed with gzip
+     */
+    public static boolean isCompressed(File file) {
+        return file.getName().endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * Opens a GXL file for reading. Files compressed with gzip are decompressed while reading.
+     * @param file file to read
+     * @return buffered input stream
+     * @throws IOException exception
+     */
+    public static InputStream open(File file) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        input.mark(2);
+        int first = input.read();
+        int second = input.read();
+        input.reset();
+
+        if(first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >>> 8)) {
+            return new BufferedInputStream(new GZIPInputStream(input, BUFFER_SIZE), BUFFER_SIZE);
+        }
+        return input;
+    }
+
+    /**
+     * Creates a GXL file for writing.
+     * @param file file to write
+     * @param compressed true if the file is compressed with gzip while writing
+     * @return buffered writer
+     * @throws IOException exception
+     */
+    public static Writer create(File file, boolean compressed) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        if(compressed) {
+            output = new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private String systemId(String declaration) {
+        Matcher matcher = SYSTEM_ID_PATTERN.matcher(declaration);
+        return matcher.find() ? matcher.group(1) : GxlPrinter.SYSTEM_ID;
+    }
+
+    /**
+     * Receiver of the elements of a graph which is read element by element.
+     */
+    public interface ElementHandler {
+
+        void element(ElementData element) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writer which indents elements with tabs and writes text only elements in one line,
+ * like {@link net.sourceforge.gxl.GXLDocument#write(java.io.File)}.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+class GxlPrinter {
+
+    static final String SYSTEM_ID = "http://www.gupro.de/GXL/gxl-1.0.dtd";
+
+    private final Writer writer;
+
+    private final StringBuilder text;
+
+    private int depth;
+
+    private boolean open;
+
+    public GxlPrinter(Writer writer) throws IOException {
+        this.writer = writer;
+        this.text = new StringBuilder();
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+    }
+
+    public void doctype(String systemId) throws IOException {
+        writer.write("\n<!DOCTYPE gxl SYSTEM \"" + systemId + "\">");
+    }
+
+    public void start(String name, Map<String, String> attributes) throws IOException {
+        if(open) {
+            writer.write('>');
+        }
+        text.setLength(0);
+
+        writer.write('\n');
+        indent();
+        writer.write('<');
+        writer.write(name);
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            writer.write(' ');
+            writer.write(attribute.getKey());
+            writer.write("=\"");
+            escape(attribute.getValue(), true);
+            writer.write('"');
+        }
+
+        open = true;
+        depth++;
+    }
+
+    public void characters(String data) {
+        if(open) {
+            text.append(data);
+        }
+    }
+
+    public void end(String name) throws IOException {
+        depth--;
+        if(open && text.length() > 0) {
+            writer.write('>');
+            escape(text.toString(), false);
+            writer.write("</" + name + ">");
+        } else if(open) {
+            writer.write("/>");
+        } else {
+            writer.write('\n');
+            indent();
+            writer.write("</" + name + ">");
+        }
+
+        text.setLength(0);
+        open = false;
+    }
+
+    public void attribute(String name, String type, String value) throws IOException {
+        start("attr", Map.of("name", name));
+        start(type, Map.of());
+        characters(value);
+        end(type);
+        end("attr");
+    }
+
+    private void indent() throws IOException {
+        for (int i = 0; i < depth; i++) {
+            writer.write('\t');
+        }
+    }
+
+    private void escape(String value, boolean attribute) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': writer.write("&lt;"); break;
+                case '>': writer.write("&gt;"); break;
+                case '&': writer.write("&amp;"); break;
+                case '\r': writer.write("&#13;"); break;
+                case '"': writer.write(attribute ? "&quot;" : "\""); break;
+                case '\n': writer.write(attribute ? "&#10;" : "\n"); break;
+                case '\t': writer.write(attribute ? "&#9;" : "\t"); break;
+                default: writer.write(c); break;
+            }
+        }
+    }
+
+}
+
@@ -0,0 +1,985 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Component which stores the graphs of all revisions in one file, as snapshots followed by deltas.
+ * A delta holds the removed, added and changed nodes and edges of a revision. Nodes are identified by their
+ * linkage name and edges by their ends, so the renumbering of the ids between revisions does not count as change.
+ * Every {@value #SNAPSHOT_INTERVAL} revisions a snapshot starts a new segment with its own string table.
+ * An index with a record of fixed size per revision points to the revision and the start of its segment,
+ * so a single revision is restored by reading one segment.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class HistoryArchive implements Closeable {
+
+    private static final int VERSION = 1;
+
+    private static final int SNAPSHOT_INTERVAL = 100;
+
+    private static final int INDEX_RECORD = Long.BYTES + 2 * Integer.BYTES;
+
+    private static final byte SNAPSHOT = 0;
+
+    private static final byte DELTA = 1;
+
+    private final FileChannel data;
+
+    private final FileChannel index;
+
+    private State state;
+
+    private int size;
+
+    /**
+     * Graph model the last revision was appended from and its version, null if it was appended as graph.
+     */
+    private GraphModel model;
+
+    private int version;
+
+    /**
+     * Ids of the elements of the model whose ids are not sequential and are stored explicitly.
+     */
+    private BitSet explicitIds;
+
+    /**
+     * Opens or creates an archive. The index is stored next to it with the extension .idx.
+     * @param file archive file
+     * @throws IOException if the file could not be opened or has another version
+     */
+    public HistoryArchive(File file) throws IOException {
+        this.data = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = FileChannel.open(new File(file.getPath() + ".idx").toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if(data.size() == 0) {
+            data.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, VERSION), 0);
+            index.truncate(0);
+        } else {
+            ByteBuffer version = ByteBuffer.allocate(Integer.BYTES);
+            data.read(version, 0);
+            if(version.getInt(0) != VERSION) {
+                close();
+                throw new IOException("Unsupported version of " + file.getName());
+            }
+        }
+
+        // Drop what an aborted run wrote after the last complete revision.
+        this.size = (int) (index.size() / INDEX_RECORD);
+        index.truncate((long) size * INDEX_RECORD);
+        data.truncate(size == 0 ? Integer.BYTES : offset(size) + length(size));
+    }
+
+    /**
+     * Number of stored revisions.
+     * @return number of revisions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends the graph of the next revision.
+     * @param revision index of the revision, must follow the last stored revision
+     * @param graph graph of the revision
+     * @throws IOException exception
+     */
+    public void append(int revision, GraphData graph) throws IOException {
+        checkRevision(revision);
+        boolean snapshot = isSnapshot(revision);
+        if(state == null && !snapshot) {
+            state = restore(size);
+        }
+
+        State next = new State(graph);
+        write(revision, next, snapshot ? null : delta(state, next));
+        model = null;
+    }
+
+    /**
+     * Appends the current revision of a graph model. If the archive was fed by the same model before, only
+     * the elements the model touched since then are compared, so the graph is never copied as a whole.
+     * Otherwise, e.g. after the archive was opened or truncated, the complete graph is appended once.
+     * @param revision index of the revision, must follow the last stored revision
+     * @param graphModel graph of the revision
+     * @throws IOException exception
+     */
+    public void append(int revision, GraphModel graphModel) throws IOException {
+        checkRevision(revision);
+        if(state == null || model != graphModel || version != graphModel.version()) {
+            append(revision, graphModel.graph());
+            explicitIds = new BitSet();
+            int nodes = 0;
+            int edges = 0;
+            for (int position = 0; position < graphModel.size(); position++) {
+                int id = graphModel.element(position);
+                boolean edge = graphModel.isEdge(id);
+                explicitIds.set(id, !isSequential(graphModel.elementId(id), edge ? 'E' : 'N', edge ? ++edges : ++nodes));
+            }
+            model = graphModel;
+            version = graphModel.mark();
+            return;
+        }
+
+        State previous = state;
+        State next = new State();
+        GraphData header = graphModel.header();
+        next.systemId = header.getSystemId();
+        next.gxlAttributes = header.getGxlAttributes();
+        next.graphAttributes = header.getGraphAttributes();
+        next.attributes = header.getAttributes();
+
+        Delta delta = new Delta();
+        for (int id = graphModel.nextTouched(0); id != -1; id = graphModel.nextTouched(id + 1)) {
+            if(!graphModel.contains(id) && previous.elements.containsKey(graphModel.key(id))) {
+                delta.removed.add(graphModel.key(id));
+            }
+        }
+
+        // Untouched elements are the same as before, unless their position changed whether their id is sequential.
+        int nodes = 0;
+        int edges = 0;
+        for (int position = 0; position < graphModel.size(); position++) {
+            int id = graphModel.element(position);
+            String key = graphModel.key(id);
+            boolean edge = graphModel.isEdge(id);
+            boolean explicit = !isSequential(graphModel.elementId(id), edge ? 'E' : 'N', edge ? ++edges : ++nodes);
+            next.order.add(key);
+            if(!graphModel.isTouched(id) && explicit == explicitIds.get(id)) {
+                continue;
+            }
+            explicitIds.set(id, explicit);
+
+            Element after = new Element();
+            after.key = key;
+            after.edge = edge;
+            after.id = explicit ? graphModel.elementId(id) : null;
+            after.type = graphModel.type(id);
+            after.from = edge ? graphModel.key(graphModel.from(id)) : null;
+            after.to = edge ? graphModel.key(graphModel.to(id)) : null;
+            after.attributes = graphModel.attributes(id);
+
+            Element before = previous.elements.get(key);
+            if(before == null || !before.sameStructure(after)) {
+                if(before != null) {
+                    delta.removed.add(key);
+                }
+                delta.positions.add(position);
+                delta.added.add(after);
+            } else if(!before.attributes.equals(after.attributes)) {
+                delta.before.add(before);
+                delta.changed.add(after);
+            }
+        }
+
+        Set<String> addedKeys = new HashSet<>();
+        for (Element element : delta.added) {
+            addedKeys.add(element.key);
+        }
+        delta.reordered = isReordered(previous.order, new HashSet<>(delta.removed), next.order, addedKeys);
+
+        // The elements are updated in place, the previous revision is not needed afterwards.
+        next.elements = previous.elements;
+        for (String key : delta.removed) {
+            next.elements.remove(key);
+        }
+        for (Element element : delta.changed) {
+            next.elements.put(element.key, element);
+        }
+        for (Element element : delta.added) {
+            next.elements.put(element.key, element);
+        }
+
+        try {
+            write(revision, next, isSnapshot(revision) ? null : delta);
+        } catch (IOException e) {
+            // The elements of the last revision were changed already, it is restored from the file again.
+            state = null;
+            throw e;
+        }
+        version = graphModel.mark();
+    }
+
+    private void checkRevision(int revision) throws IOException {
+        if(revision != size + 1) {
+            throw new IOException("Expected revision " + (size + 1) + " but got " + revision);
+        }
+    }
+
+    private boolean isSnapshot(int revision) {
+        return (revision - 1) % SNAPSHOT_INTERVAL == 0;
+    }
+
+    /**
+     * Writes the record of the next revision and its index entry.
+     * @param revision index of the revision
+     * @param next state of the revision
+     * @param delta differences to the last revision, null to write a snapshot
+     * @throws IOException exception
+     */
+    private void write(int revision, State next, Delta delta) throws IOException {
+        boolean snapshot = delta == null;
+        if(snapshot) {
+            next.strings = new ArrayList<>();
+            next.ids = new HashMap<>();
+        } else {
+            next.strings = state.strings;
+            next.ids = state.ids;
+        }
+
+        // The body is encoded first, the strings it added to the table are written in front of it.
+        int known = next.strings.size();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(body);
+        if(snapshot) {
+            writeSnapshot(output, next);
+        } else {
+            writeDelta(output, state, next, delta);
+        }
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(body.size() + 64);
+        DataOutputStream header = new DataOutputStream(record);
+        header.writeByte(snapshot ? SNAPSHOT : DELTA);
+        writeNumber(header, next.strings.size() - known);
+        for (int i = known; i < next.strings.size(); i++) {
+            header.writeUTF(next.strings.get(i));
+        }
+        body.writeTo(record);
+
+        long offset = data.size();
+        int segment = snapshot ? revision : segment(size);
+        data.write(ByteBuffer.wrap(record.toByteArray()), offset);
+        index.write(ByteBuffer.allocate(INDEX_RECORD).putLong(0, offset).putInt(Long.BYTES, record.size())
+                .putInt(Long.BYTES + Integer.BYTES, segment), (long) size * INDEX_RECORD);
+
+        state = next;
+        size = revision;
+    }
+
+    /**
+     * Restores the graph of a revision.
+     * @param revision index of the revision
+     * @return graph of the revision
+     * @throws IOException exception
+     */
+    public GraphData read(int revision) throws IOException {
+        return restore(revision).graph();
+    }
+
+    /**
+     * Removes all revisions after the given revision, e.g. to continue after a checkpoint.
+     * @param revision index of the last revision to keep, 0 to remove all
+     * @throws IOException exception
+     */
+    public void truncate(int revision) throws IOException {
+        if(revision >= size) {
+            return;
+        }
+
+        data.truncate(revision == 0 ? Integer.BYTES : offset(revision) + length(revision));
+        index.truncate((long) revision * INDEX_RECORD);
+        size = revision;
+        state = null;
+    }
+
+    /**
+     * Writes a complete GXL file for each revision of a range.
+     * @param from index of the first revision
+     * @param to index of the last revision
+     * @param directory target directory
+     * @param name name of the repository, the files are named like the files of the crawl
+     * @param gxlIO writer for the GXL files
+     * @throws IOException exception
+     */
+    public void export(int from, int to, File directory, String name, GxlIO gxlIO) throws IOException {
+        to = Math.min(to, size);
+        if(from < 1 || from > to) {
+            return;
+        }
+
+        DataInputStream input = null;
+        State current = null;
+        for (int revision = segment(from); revision <= to; revision++) {
+            if(segment(revision) == revision) {
+                input = readSegment(revision);
+            }
+
+            current = readRecord(input, current);
+            if(revision >= from) {
+                gxlIO.writeGraph(current.graph(), new File(directory, name + "-" + revision + ".gxl"));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    /**
+     * Reads the segment of a revision up to the revision.
+     * @param revision index of the revision
+     * @return state after the revision
+     * @throws IOException exception
+     */
+    private State restore(int revision) throws IOException {
+        if(revision < 1 || revision > size) {
+            throw new IOException("Revision " + revision + " is not in the archive");
+        }
+
+        int segment = segment(revision);
+        DataInputStream input = readSegment(segment);
+        State current = null;
+        for (int i = segment; i <= revision; i++) {
+            current = readRecord(input, current);
+        }
+        return current;
+    }
+
+    /**
+     * Reads all stored records of a segment into memory.
+     * @param segment index of the first revision of the segment
+     * @return input positioned at the snapshot of the segment
+     * @throws IOException exception
+     */
+    private DataInputStream readSegment(int segment) throws IOException {
+        int last = segment;
+        while (last < size && segment(last + 1) == segment) {
+            last++;
+        }
+
+        long start = offset(segment);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (offset(last) + length(last) - start));
+        readFully(data, buffer, start);
+        return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+    }
+
+    private long offset(int revision) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        readFully(index, buffer, (long) (revision - 1) * INDEX_RECORD);
+        return buffer.getLong(0);
+    }
+
+    private int length(int revision) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(index, buffer, (long) (revision - 1) * INDEX_RECORD + Long.BYTES);
+        return buffer.getInt(0);
+    }
+
+    private int segment(int revision) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(index, buffer, (long) (revision - 1) * INDEX_RECORD + Long.BYTES + Integer.BYTES);
+        return buffer.getInt(0);
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated archive");
+            }
+        }
+    }
+
+    /**
+     * Writes all elements of a revision.
+     * @param output output
+     * @param next state of the revision
+     * @throws IOException exception
+     */
+    private void writeSnapshot(DataOutput output, State next) throws IOException {
+        writeHeader(output, next);
+        writeNumber(output, next.order.size());
+        for (String key : next.order) {
+            writeElement(output, next, next.elements.get(key));
+        }
+    }
+
+    /**
+     * Compares all elements of two revisions.
+     * @param previous state of the previous revision
+     * @param next state of the revision
+     * @return differences
+     */
+    private Delta delta(State previous, State next) {
+        // Elements whose ends, type or id changed are replaced.
+        Delta delta = new Delta();
+        for (String key : previous.order) {
+            Element before = previous.elements.get(key);
+            Element after = next.elements.get(key);
+            if(after == null || !before.sameStructure(after)) {
+                delta.removed.add(key);
+            } else if(!before.attributes.equals(after.attributes)) {
+                delta.before.add(before);
+                delta.changed.add(after);
+            }
+        }
+
+        Set<String> removedKeys = new HashSet<>(delta.removed);
+        Set<String> addedKeys = new HashSet<>();
+        for (int i = 0; i < next.order.size(); i++) {
+            String key = next.order.get(i);
+            if(!previous.elements.containsKey(key) || removedKeys.contains(key)) {
+                delta.positions.add(i);
+                delta.added.add(next.elements.get(key));
+                addedKeys.add(key);
+            }
+        }
+        delta.reordered = isReordered(previous.order, removedKeys, next.order, addedKeys);
+        return delta;
+    }
+
+    /**
+     * Checks whether the elements which are kept from the previous revision changed their order.
+     * Usually they keep it, otherwise the complete order is stored.
+     * @param previous order of the previous revision
+     * @param removed keys of the removed elements
+     * @param next order of the revision
+     * @param added keys of the added elements
+     * @return true if the kept elements are in another order
+     */
+    private boolean isReordered(List<String> previous, Set<String> removed, List<String> next, Set<String> added) {
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < previous.size() && removed.contains(previous.get(i))) {
+                i++;
+            }
+            while (j < next.size() && added.contains(next.get(j))) {
+                j++;
+            }
+            if(i == previous.size() || j == next.size()) {
+                return i != previous.size() || j != next.size();
+            }
+            if(!previous.get(i++).equals(next.get(j++))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Writes the differences between two revisions.
+     * @param output output
+     * @param previous state of the previous revision
+     * @param next state of the revision
+     * @param delta differences of the elements
+     * @throws IOException exception
+     */
+    private void writeDelta(DataOutput output, State previous, State next, Delta delta) throws IOException {
+        boolean header = !Objects.equals(previous.systemId, next.systemId)
+                || !previous.gxlAttributes.equals(next.gxlAttributes)
+                || !previous.graphAttributes.equals(next.graphAttributes)
+                || !previous.attributes.equals(next.attributes);
+        output.writeBoolean(header);
+        if(header) {
+            writeHeader(output, next);
+        }
+
+        writeNumber(output, delta.removed.size());
+        for (String key : delta.removed) {
+            writeString(output, next, key);
+        }
+
+        writeNumber(output, delta.changed.size());
+        for (int i = 0; i < delta.changed.size(); i++) {
+            writeString(output, next, delta.changed.get(i).key);
+            writeAttributes(output, next, delta.before.get(i).attributes, delta.changed.get(i).attributes);
+        }
+
+        writeNumber(output, delta.added.size());
+        for (int i = 0; i < delta.added.size(); i++) {
+            writeNumber(output, delta.positions.get(i));
+            writeElement(output, next, delta.added.get(i));
+        }
+
+        output.writeBoolean(delta.reordered);
+        if(delta.reordered) {
+            writeNumber(output, next.order.size());
+            for (String key : next.order) {
+                writeString(output, next, key);
+            }
+        }
+    }
+
+    /**
+     * Writes the changed attributes of an element. If only values changed, just these are written.
+     * @param output output
+     * @param next state of the revision
+     * @param before attributes in the previous revision
+     * @param after attributes in the revision
+     * @throws IOException exception
+     */
+    private void writeAttributes(DataOutput output, State next, List<AttributeData> before, List<AttributeData> after) throws IOException {
+        boolean valuesOnly = before.size() == after.size();
+        for (int i = 0; valuesOnly && i < before.size(); i++) {
+            valuesOnly = before.get(i).getName().equals(after.get(i).getName())
+                    && before.get(i).getType().equals(after.get(i).getType());
+        }
+
+        output.writeBoolean(valuesOnly);
+        if(!valuesOnly) {
+            writeAttributeList(output, next, after);
+            return;
+        }
+
+        int count = 0;
+        for (int i = 0; i < before.size(); i++) {
+            if(!before.get(i).getValue().equals(after.get(i).getValue())) {
+                count++;
+            }
+        }
+        writeNumber(output, count);
+        for (int i = 0; i < before.size(); i++) {
+            if(!before.get(i).getValue().equals(after.get(i).getValue())) {
+                writeNumber(output, i);
+                writeString(output, next, after.get(i).getValue());
+            }
+        }
+    }
+
+    private void writeHeader(DataOutput output, State next) throws IOException {
+        writeString(output, next, next.systemId);
+        writeMap(output, next, next.gxlAttributes);
+        writeMap(output, next, next.graphAttributes);
+        writeAttributeList(output, next, next.attributes);
+    }
+
+    private void writeMap(DataOutput output, State next, Map<String, String> map) throws IOException {
+        writeNumber(output, map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(output, next, entry.getKey());
+            writeString(output, next, entry.getValue());
+        }
+    }
+
+    private void writeElement(DataOutput output, State next, Element element) throws IOException {
+        writeString(output, next, element.key);
+        output.writeBoolean(element.edge);
+        writeString(output, next, element.id);
+        writeString(output, next, element.type);
+        if(element.edge) {
+            writeString(output, next, element.from);
+            writeString(output, next, element.to);
+        }
+        writeAttributeList(output, next, element.attributes);
+    }
+
+    private void writeAttributeList(DataOutput output, State next, List<AttributeData> attributes) throws IOException {
+        writeNumber(output, attributes.size());
+        for (AttributeData attribute : attributes) {
+            writeString(output, next, attribute.getName());
+            writeString(output, next, attribute.getType());
+            writeString(output, next, attribute.getValue());
+        }
+    }
+
+    /**
+     * Writes a string as reference into the string table of the segment, new strings are added to the table.
+     * @param output output
+     * @param next state with the string table
+     * @param value string or null
+     * @throws IOException exception
+     */
+    private void writeString(DataOutput output, State next, String value) throws IOException {
+        if(value == null) {
+            writeNumber(output, 0);
+            return;
+        }
+
+        Integer id = next.ids.get(value);
+        if(id == null) {
+            id = next.strings.size();
+            next.strings.add(value);
+            next.ids.put(value, id);
+        }
+        writeNumber(output, id + 1);
+    }
+
+    /**
+     * Writes a non-negative number with seven bits per byte.
+     * @param output output
+     * @param value number
+     * @throws IOException exception
+     */
+    private void writeNumber(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads the next record and applies it to the state of the previous revision.
+     * @param input input positioned at the record
+     * @param previous state of the previous revision, null at the start of a segment
+     * @return state of the revision
+     * @throws IOException exception
+     */
+    private State readRecord(DataInput input, State previous) throws IOException {
+        byte kind = input.readByte();
+        if(kind != SNAPSHOT && previous == null) {
+            throw new IOException("Delta without snapshot");
+        }
+
+        State next = new State();
+        next.strings = kind == SNAPSHOT ? new ArrayList<>() : previous.strings;
+        next.ids = kind == SNAPSHOT ? new HashMap<>() : previous.ids;
+        int count = readNumber(input);
+        for (int i = 0; i < count; i++) {
+            String value = input.readUTF();
+            next.ids.put(value, next.strings.size());
+            next.strings.add(value);
+        }
+
+        if(kind == SNAPSHOT) {
+            readHeader(input, next);
+            int elements = readNumber(input);
+            for (int i = 0; i < elements; i++) {
+                Element element = readElement(input, next);
+                next.order.add(element.key);
+                next.elements.put(element.key, element);
+            }
+            return next;
+        }
+
+        if(input.readBoolean()) {
+            readHeader(input, next);
+        } else {
+            next.systemId = previous.systemId;
+            next.gxlAttributes = previous.gxlAttributes;
+            next.graphAttributes = previous.graphAttributes;
+            next.attributes = previous.attributes;
+        }
+
+        next.elements.putAll(previous.elements);
+        Set<String> removed = new HashSet<>();
+        int removedCount = readNumber(input);
+        for (int i = 0; i < removedCount; i++) {
+            String key = readString(input, next);
+            removed.add(key);
+            next.elements.remove(key);
+        }
+
+        int changedCount = readNumber(input);
+        for (int i = 0; i < changedCount; i++) {
+            Element element = next.elements.get(readString(input, next));
+            next.elements.put(element.key, element.withAttributes(readAttributes(input, next, element.attributes)));
+        }
+
+        for (String key : previous.order) {
+            if(!removed.contains(key)) {
+                next.order.add(key);
+            }
+        }
+
+        int addedCount = readNumber(input);
+        for (int i = 0; i < addedCount; i++) {
+            int position = readNumber(input);
+            Element element = readElement(input, next);
+            next.elements.put(element.key, element);
+            next.order.add(Math.min(position, next.order.size()), element.key);
+        }
+
+        if(input.readBoolean()) {
+            next.order.clear();
+            int orderCount = readNumber(input);
+            for (int i = 0; i < orderCount; i++) {
+                next.order.add(readString(input, next));
+            }
+        }
+        return next;
+    }
+
+    private List<AttributeData> readAttributes(DataInput input, State next, List<AttributeData> before) throws IOException {
+        if(!input.readBoolean()) {
+            return readAttributeList(input, next);
+        }
+
+        List<AttributeData> after = new ArrayList<>(before);
+        int count = readNumber(input);
+        for (int i = 0; i < count; i++) {
+            int position = readNumber(input);
+            AttributeData attribute = after.get(position);
+            after.set(position, new AttributeData(attribute.getName(), attribute.getType(), readString(input, next)));
+        }
+        return after;
+    }
+
+    private void readHeader(DataInput input, State next) throws IOException {
+        next.systemId = readString(input, next);
+        next.gxlAttributes = readMap(input, next);
+        next.graphAttributes = readMap(input, next);
+        next.attributes = readAttributeList(input, next);
+    }
+
+    private Map<String, String> readMap(DataInput input, State next) throws IOException {
+        Map<String, String> map = new TreeMap<>();
+        int count = readNumber(input);
+        for (int i = 0; i < count; i++) {
+            map.put(readString(input, next), readString(input, next));
+        }
+        return map;
+    }
+
+    private Element readElement(DataInput input, State next) throws IOException {
+        Element element = new Element();
+        element.key = readString(input, next);
+        element.edge = input.readBoolean();
+        element.id = readString(input, next);
+        element.type = readString(input, next);
+        if(element.edge) {
+            element.from = readString(input, next);
+            element.to = readString(input, next);
+        }
+        element.attributes = readAttributeList(input, next);
+        return element;
+    }
+
+    private List<AttributeData> readAttributeList(DataInput input, State next) throws IOException {
+        int count = readNumber(input);
+        List<AttributeData> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            attributes.add(new AttributeData(readString(input, next), readString(input, next), readString(input, next)));
+        }
+        return attributes;
+    }
+
+    private String readString(DataInput input, State next) throws IOException {
+        int id = readNumber(input);
+        return id == 0 ? null : next.strings.get(id - 1);
+    }
+
+    private int readNumber(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Graph of a revision with elements identified by stable keys, and the string table of its segment.
+     */
+    private static class State {
+
+        private List<String> strings;
+
+        private Map<String, Integer> ids;
+
+        private String systemId;
+
+        private Map<String, String> gxlAttributes = new TreeMap<>();
+
+        private Map<String, String> graphAttributes = new TreeMap<>();
+
+        private List<AttributeData> attributes = new ArrayList<>();
+
+        private final List<String> order = new ArrayList<>();
+
+        private Map<String, Element> elements = new HashMap<>();
+
+        public State() {
+        }
+
+        /**
+         * Assigns the {@link ElementKeys} to the elements of a graph. Ids are only kept if they differ from the sequential ids N1, N2, ...
+         * and E1, E2, ... which are derived from the position.
+         * @param graph graph of a revision
+         * @throws IOException if an edge refers to an unknown node
+         */
+        public State(GraphData graph) throws IOException {
+            this.systemId = graph.getSystemId();
+            this.gxlAttributes = graph.getGxlAttributes();
+            this.graphAttributes = graph.getGraphAttributes();
+            this.attributes = graph.getAttributes();
+
+            List<ElementData> elements = graph.getElements();
+            String[] keys = new String[elements.size()];
+            Map<String, String> nodeKeys = new HashMap<>();
+            ElementKeys elementKeys = new ElementKeys();
+            for (int i = 0; i < elements.size(); i++) {
+                ElementData element = elements.get(i);
+                if(!element.isEdge()) {
+                    keys[i] = elementKeys.node(element);
+                    nodeKeys.put(element.getId(), keys[i]);
+                }
+            }
+
+            for (int i = 0; i < elements.size(); i++) {
+                ElementData element = elements.get(i);
+                if(element.isEdge()) {
+                    String from = nodeKeys.get(element.getFrom());
+                    String to = nodeKeys.get(element.getTo());
+                    if(from == null || to == null) {
+                        throw new IOException("Edge " + element.getId() + " refers to an unknown node");
+                    }
+                    keys[i] = elementKeys.edge(element, from, to);
+                }
+            }
+
+            int nodes = 0;
+            int edges = 0;
+            for (int i = 0; i < elements.size(); i++) {
+                ElementData element = elements.get(i);
+                String sequentialId = element.isEdge() ? "E" + (++edges) : "N" + (++nodes);
+                add(keys[i], element, sequentialId, element.isEdge() ? nodeKeys.get(element.getFrom()) : null,
+                        element.isEdge() ? nodeKeys.get(element.getTo()) : null);
+            }
+        }
+
+        private void add(String key, ElementData element, String sequentialId, String from, String to) {
+            Element entry = new Element();
+            entry.key = key;
+            entry.edge = element.isEdge();
+            entry.id = sequentialId.equals(element.getId()) ? null : element.getId();
+            entry.type = element.getType();
+            entry.from = from;
+            entry.to = to;
+            entry.attributes = element.getAttributes();
+            order.add(key);
+            elements.put(key, entry);
+        }
+
+        /**
+         * Turns the state back into a graph with sequential ids where no explicit id is stored.
+         * @return graph
+         */
+        public GraphData graph() {
+            Map<String, String> ids = new HashMap<>();
+            int nodes = 0;
+            int edges = 0;
+            for (String key : order) {
+                Element element = elements.get(key);
+                String sequentialId = element.edge ? "E" + (++edges) : "N" + (++nodes);
+                ids.put(key, element.id == null ? sequentialId : element.id);
+            }
+
+            GraphData graph = new GraphData();
+            graph.setSystemId(systemId);
+            graph.setGxlAttributes(gxlAttributes);
+            graph.setGraphAttributes(graphAttributes);
+            graph.setAttributes(attributes);
+            for (String key : order) {
+                Element element = elements.get(key);
+                graph.getElements().add(new ElementData(element.edge, ids.get(key), element.type,
+                        element.edge ? ids.get(element.from) : null, element.edge ? ids.get(element.to) : null,
+                        element.attributes));
+            }
+            return graph;
+        }
+
+    }
+
+    /**
+     * Checks whether an id is the sequential id which is derived from the position of the element.
+     * @param id id of the element
+     * @param prefix N for nodes and E for edges
+     * @param number number of the element among the nodes or edges, starting at 1
+     * @return true if the id is the prefix followed by the number
+     */
+    private static boolean isSequential(String id, char prefix, int number) {
+        if(id.isEmpty() || id.charAt(0) != prefix) {
+            return false;
+        }
+
+        int i = id.length() - 1;
+        for (int value = number; value > 0; value /= 10) {
+            if(i < 1 || id.charAt(i--) != '0' + value % 10) {
+                return false;
+            }
+        }
+        return i == 0;
+    }
+
+    /**
+     * Differences between the elements of two revisions.
+     */
+    private static class Delta {
+
+        private final List<String> removed = new ArrayList<>();
+
+        private final List<Element> before = new ArrayList<>();
+
+        private final List<Element> changed = new ArrayList<>();
+
+        private final List<Integer> positions = new ArrayList<>();
+
+        private final List<Element> added = new ArrayList<>();
+
+        private boolean reordered;
+
+    }
+
+    /**
+     * Node or edge of a revision.
+     */
+    private static class Element {
+
+        private String key;
+
+        private boolean edge;
+
+        private String id;
+
+        private String type;
+
+        private String from;
+
+        private String to;
+
+        private List<AttributeData> attributes;
+
+        public boolean sameStructure(Element other) {
+            return edge == other.edge && Objects.equals(id, other.id) && Objects.equals(type, other.type)
+                    && Objects.equals(from, other.from) && Objects.equals(to, other.to);
+        }
+
+        public Element withAttributes(List<AttributeData> attributes) {
+            Element element = new Element();
+            element.key = key;
+            element.edge = edge;
+            element.id = id;
+            element.type = type;
+            element.from = from;
+            element.to = to;
+            element.attributes = attributes;
+            return element;
+        }
+
+    }
+
+}
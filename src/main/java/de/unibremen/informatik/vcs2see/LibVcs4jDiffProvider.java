@@ -0,0 +1,28 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+
+import java.io.IOException;
+
+/**
+ * Component which counts the line changes of the diff computed by LibVCS4j.
+ * An instance must not be shared between threads.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class LibVcs4jDiffProvider implements DiffProvider {
+
+    private final LineChangeClassifier lineChangeClassifier;
+
+    public LibVcs4jDiffProvider() {
+        this.lineChangeClassifier = new LineChangeClassifier();
+    }
+
+    @Override
+    public LineChangeData diff(FileChange fileChange) throws IOException {
+        return lineChangeClassifier.classify(fileChange.computeDiff());
+    }
+
+}
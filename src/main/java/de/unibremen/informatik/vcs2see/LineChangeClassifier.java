@@ -0,0 +1,105 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.LineChange;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Component which counts the added, edited and deleted lines of a diff.
+ * A line number which was inserted and deleted at the same time counts as edited.
+ * The line numbers are sorted in reused primitive arrays, so the runtime is O(n log n) without boxing.
+ * An instance must not be shared between threads.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class LineChangeClassifier {
+
+    private int[] inserted;
+
+    private int[] deleted;
+
+    public LineChangeClassifier() {
+        this.inserted = new int[64];
+        this.deleted = new int[64];
+    }
+
+    /**
+     * Counts the line changes of a diff.
+     * @param lineChanges line changes of the diff
+     * @return counted line changes
+     */
+    public LineChangeData classify(List<LineChange> lineChanges) {
+        if(inserted.length < lineChanges.size()) {
+            inserted = new int[lineChanges.size()];
+            deleted = new int[lineChanges.size()];
+        }
+
+        int insertions = 0;
+        int deletions = 0;
+        for(LineChange lineChange : lineChanges) {
+            if(lineChange.getType() == LineChange.Type.INSERT) {
+                inserted[insertions++] = lineChange.getLine();
+            } else if(lineChange.getType() == LineChange.Type.DELETE) {
+                deleted[deletions++] = lineChange.getLine();
+            }
+        }
+
+        return classify(lineChanges.size(), inserted, insertions, deleted, deletions);
+    }
+
+    /**
+     * Counts the line changes of line numbers which were collected without line change objects.
+     * The arrays are sorted in place.
+     * @param inserted inserted line numbers
+     * @param insertions number of inserted line numbers
+     * @param deleted deleted line numbers
+     * @param deletions number of deleted line numbers
+     * @return counted line changes
+     */
+    public LineChangeData classify(int[] inserted, int insertions, int[] deleted, int deletions) {
+        return classify(insertions + deletions, inserted, insertions, deleted, deletions);
+    }
+
+    /**
+     * Counts the line changes of the line numbers in the arrays.
+     * @param lineChanges number of all line changes
+     * @param inserted inserted line numbers
+     * @param insertions number of inserted line numbers
+     * @param deleted deleted line numbers
+     * @param deletions number of deleted line numbers
+     * @return counted line changes
+     */
+    private LineChangeData classify(int lineChanges, int[] inserted, int insertions, int[] deleted, int deletions) {
+        Arrays.sort(inserted, 0, insertions);
+        Arrays.sort(deleted, 0, deletions);
+
+        int edited = 0;
+        int deletedOnly = 0;
+        int i = 0;
+        int j = 0;
+        while (i < insertions || j < deletions) {
+            if(j >= deletions || (i < insertions && inserted[i] < deleted[j])) {
+                i++;
+            } else if(i >= insertions || deleted[j] < inserted[i]) {
+                deletedOnly++;
+                j++;
+            } else {
+                // Every insertion of a deleted line number is an edit.
+                int line = inserted[i];
+                while (i < insertions && inserted[i] == line) {
+                    edited++;
+                    i++;
+                }
+                while (j < deletions && deleted[j] == line) {
+                    j++;
+                }
+            }
+        }
+
+        return new LineChangeData(lineChanges, insertions - edited, edited, deletedOnly);
+    }
+
+}
@@ -0,0 +1,323 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Component which counts the line changes of a Myers diff over the lines of both versions of a file.
+ * Each line, including its line break, is mapped to an id by its hash, so the diff only compares integers and
+ * no string or line change object is created per line. The diff runs in linear space by splitting at the middle
+ * snake of the edit graph. The line numbers are counted by the LineChangeClassifier, but where several diffs of
+ * the same length exist the lines may be aligned differently than by LibVCS4j.
+ * An instance must not be shared between threads.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class MyersDiffProvider implements DiffProvider {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final LineChangeClassifier lineChangeClassifier;
+
+    private byte[] oldContent;
+
+    private byte[] newContent;
+
+    private int[] oldLines;
+
+    private int[] newLines;
+
+    private int oldSize;
+
+    private int[] lineStarts;
+
+    private int[] lineEnds;
+
+    private int[] lineHashes;
+
+    private int[] table;
+
+    private int[] forward;
+
+    private int[] backward;
+
+    private int[] inserted;
+
+    private int insertions;
+
+    private int[] deleted;
+
+    private int deletions;
+
+    public MyersDiffProvider() {
+        this.lineChangeClassifier = new LineChangeClassifier();
+        this.oldLines = new int[64];
+        this.newLines = new int[64];
+        this.lineStarts = new int[64];
+        this.lineEnds = new int[64];
+        this.lineHashes = new int[64];
+        this.table = new int[128];
+        this.forward = new int[64];
+        this.backward = new int[64];
+        this.inserted = new int[64];
+        this.deleted = new int[64];
+    }
+
+    @Override
+    public LineChangeData diff(FileChange fileChange) throws IOException {
+        oldContent = read(fileChange.getOldFile());
+        newContent = read(fileChange.getNewFile());
+        int n = lines(oldContent);
+        int m = lines(newContent);
+        intern(n, m);
+
+        insertions = 0;
+        deletions = 0;
+        if(inserted.length < m) {
+            inserted = new int[m];
+        }
+        if(deleted.length < n) {
+            deleted = new int[n];
+        }
+        diff(0, n, 0, m);
+
+        oldContent = null;
+        newContent = null;
+        return lineChangeClassifier.classify(inserted, insertions, deleted, deletions);
+    }
+
+    /**
+     * Computes the diff of a section of both versions.
+     * @param oldStart first line of the old version
+     * @param oldEnd end of the section in the old version, exclusive
+     * @param newStart first line of the new version
+     * @param newEnd end of the section in the new version, exclusive
+     */
+    private void diff(int oldStart, int oldEnd, int newStart, int newEnd) {
+        while (oldStart < oldEnd && newStart < newEnd && oldLines[oldStart] == newLines[newStart]) {
+            oldStart++;
+            newStart++;
+        }
+        while (oldStart < oldEnd && newStart < newEnd && oldLines[oldEnd - 1] == newLines[newEnd - 1]) {
+            oldEnd--;
+            newEnd--;
+        }
+
+        if(oldStart == oldEnd || newStart == newEnd) {
+            delete(oldStart, oldEnd);
+            insert(newStart, newEnd);
+            return;
+        }
+
+        long split = split(oldStart, oldEnd, newStart, newEnd);
+        if(split < 0) {
+            delete(oldStart, oldEnd);
+            insert(newStart, newEnd);
+            return;
+        }
+
+        int x = (int) (split >>> 32);
+        int y = (int) split;
+        diff(oldStart, x, newStart, y);
+        diff(x, oldEnd, y, newEnd);
+    }
+
+    /**
+     * Searches the forward and the backward path of a shortest edit script at the same time until they overlap.
+     * Both sections must not be empty.
+     * @param oldStart first line of the old version
+     * @param oldEnd end of the section in the old version, exclusive
+     * @param newStart first line of the new version
+     * @param newEnd end of the section in the new version, exclusive
+     * @return absolute lines of both versions where the paths overlap, packed into a long, or -1 if there is none
+     */
+    private long split(int oldStart, int oldEnd, int newStart, int newEnd) {
+        int n = oldEnd - oldStart;
+        int m = newEnd - newStart;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int length = 2 * maxD + 2;
+        if(forward.length < length) {
+            forward = new int[length];
+            backward = new int[length];
+        }
+        Arrays.fill(forward, 0, length, -1);
+        Arrays.fill(backward, 0, length, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+
+        // Diagonals which left the edit graph are skipped in the following rounds.
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int forwardStart = 0;
+        int forwardEnd = 0;
+        int backwardStart = 0;
+        int backwardEnd = 0;
+        for (int d = 0; d < maxD; d++) {
+            for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+                int index = offset + k;
+                int x = k == -d || (k != d && forward[index - 1] < forward[index + 1])
+                        ? forward[index + 1]
+                        : forward[index - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && oldLines[oldStart + x] == newLines[newStart + y]) {
+                    x++;
+                    y++;
+                }
+                forward[index] = x;
+
+                if(x > n) {
+                    forwardEnd += 2;
+                } else if(y > m) {
+                    forwardStart += 2;
+                } else if(odd) {
+                    int other = offset + delta - k;
+                    if(other >= 0 && other < length && backward[other] != -1 && x >= n - backward[other]) {
+                        return ((long) (oldStart + x) << 32) | (newStart + y);
+                    }
+                }
+            }
+
+            for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+                int index = offset + k;
+                int x = k == -d || (k != d && backward[index - 1] < backward[index + 1])
+                        ? backward[index + 1]
+                        : backward[index - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && oldLines[oldEnd - x - 1] == newLines[newEnd - y - 1]) {
+                    x++;
+                    y++;
+                }
+                backward[index] = x;
+
+                if(x > n) {
+                    backwardEnd += 2;
+                } else if(y > m) {
+                    backwardStart += 2;
+                } else if(!odd) {
+                    int other = offset + delta - k;
+                    if(other >= 0 && other < length && forward[other] != -1 && forward[other] >= n - x) {
+                        int forwardX = forward[other];
+                        int forwardY = forwardX - (other - offset);
+                        return ((long) (oldStart + forwardX) << 32) | (newStart + forwardY);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void delete(int start, int end) {
+        for (int line = start; line < end; line++) {
+            deleted[deletions++] = line + 1;
+        }
+    }
+
+    private void insert(int start, int end) {
+        for (int line = start; line < end; line++) {
+            inserted[insertions++] = line + 1;
+        }
+    }
+
+    /**
+     * Finds the lines of a version. The line break belongs to its line, so a missing line break at the end of
+     * the file changes the last line.
+     * @param content content of the version
+     * @return number of lines
+     */
+    private int lines(byte[] content) {
+        int lines = 0;
+        for (byte b : content) {
+            if(b == '\n') {
+                lines++;
+            }
+        }
+        if(content.length > 0 && content[content.length - 1] != '\n') {
+            lines++;
+        }
+        return lines;
+    }
+
+    /**
+     * Maps the lines of both versions to ids. Equal lines get the same id, which is the index of their first
+     * occurrence in the old version followed by the new version.
+     * @param n number of lines of the old version
+     * @param m number of lines of the new version
+     */
+    private void intern(int n, int m) {
+        if(oldLines.length < n) {
+            oldLines = new int[n];
+        }
+        if(newLines.length < m) {
+            newLines = new int[m];
+        }
+        if(lineStarts.length < n + m) {
+            lineStarts = new int[n + m];
+            lineEnds = new int[n + m];
+            lineHashes = new int[n + m];
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, n + m)) << 2;
+        if(table.length < capacity) {
+            table = new int[capacity];
+        }
+        Arrays.fill(table, 0, capacity, -1);
+
+        oldSize = n;
+        intern(oldContent, 0, oldLines, capacity);
+        intern(newContent, n, newLines, capacity);
+    }
+
+    private void intern(byte[] content, int first, int[] ids, int capacity) {
+        int line = 0;
+        int start = 0;
+        while (start < content.length) {
+            int end = start;
+            int hash = 0x811C9DC5;
+            while (end < content.length) {
+                byte b = content[end++];
+                hash = (hash ^ (b & 0xFF)) * 0x01000193;
+                if(b == '\n') {
+                    break;
+                }
+            }
+
+            int index = first + line;
+            lineStarts[index] = start;
+            lineEnds[index] = end;
+            lineHashes[index] = hash;
+
+            // Linear probing, lines with the same hash are compared byte by byte.
+            int slot = (hash ^ (hash >>> 16)) & (capacity - 1);
+            while (table[slot] != -1 && !equal(table[slot], index)) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if(table[slot] == -1) {
+                table[slot] = index;
+            }
+            ids[line++] = table[slot];
+            start = end;
+        }
+    }
+
+    private boolean equal(int a, int b) {
+        if(lineHashes[a] != lineHashes[b] || lineEnds[a] - lineStarts[a] != lineEnds[b] - lineStarts[b]) {
+            return false;
+        }
+        return Arrays.equals(content(a), lineStarts[a], lineEnds[a], content(b), lineStarts[b], lineEnds[b]);
+    }
+
+    private byte[] content(int index) {
+        return index < oldSize ? oldContent : newContent;
+    }
+
+    private byte[] read(Optional<VCSFile> file) throws IOException {
+        return file.isPresent() ? file.get().readAllBytes() : EMPTY;
+    }
+
+}
@@ -0,0 +1,79 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each external tool in a new process. The output is redirected by the operating system,
+ * so it is neither copied through the JVM nor able to block the process.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class ProcessToolRunner implements ToolRunner {
+
+    private final File logDirectory;
+
+    private final Output output;
+
+    private final long timeout;
+
+    /**
+     * Initialization for the ProcessToolRunner.
+     * @param logDirectory directory for the log files of the revisions
+     * @param output destination of the output of the tools
+     * @param timeout maximum duration of a single tool in seconds, 0 for none
+     */
+    public ProcessToolRunner(File logDirectory, Output output, long timeout) {
+        this.logDirectory = logDirectory;
+        this.output = output;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ProcessBuilder processBuilder, String name) throws IOException {
+        processBuilder.redirectErrorStream(true);
+        switch (output) {
+            case DISCARD:
+                processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+                break;
+
+            case LOG:
+                logDirectory.mkdirs();
+                processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(new File(logDirectory, name + ".log")));
+                break;
+
+            case CONSOLE:
+                processBuilder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+                break;
+        }
+
+        Process process = processBuilder.start();
+        String command = String.join(" ", processBuilder.command());
+        try {
+            if(timeout > 0 && !process.waitFor(timeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException(command + " timed out after " + timeout + " seconds");
+            }
+
+            int exitCode = process.waitFor();
+            if(exitCode != 0) {
+                throw new IOException(command + " failed with exit code " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running " + command);
+        }
+    }
+
+    /**
+     * Destination of the output of the tools.
+     */
+    public enum Output {
+        DISCARD, LOG, CONSOLE
+    }
+
+}
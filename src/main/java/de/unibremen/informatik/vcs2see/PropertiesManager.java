@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -19,19 +21,34 @@ public class PropertiesManager {
 
     private File file;
 
+    public PropertiesManager() {
+        this.properties = new Properties();
+    }
+
     /**
      * Load the properties file of the software.
      * @throws IOException exception
      */
     public void loadProperties() throws IOException {
-        file = new File("vsc2see.properties");
+        loadProperties(new File("vsc2see.properties"));
+    }
+
+    /**
+     * Load the specified properties file.
+     * @param file properties file to load, created if it does not exist
+     * @throws IOException exception
+     */
+    public void loadProperties(File file) throws IOException {
+        this.file = file;
         if(!file.exists() && !file.createNewFile()) {
             System.err.println("Failed to create properties file.");
             System.exit(1);
         }
 
         properties = new Properties();
-        properties.load(new FileInputStream(file));
+        try (InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        }
     }
 
     /**
@@ -57,7 +74,9 @@ public class PropertiesManager {
      * @throws IOException exception
      */
     public void saveProperties() throws IOException {
-        properties.store(new FileOutputStream(file), "Vsc2See Properties");
+        try (OutputStream output = new FileOutputStream(file)) {
+            properties.store(output, "Vsc2See Properties");
+        }
     }
 
 }
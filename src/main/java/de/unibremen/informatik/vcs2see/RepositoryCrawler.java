@@ -4,16 +4,38 @@ import de.unibremen.informatik.st.libvcs4j.Commit;
 import de.unibremen.informatik.st.libvcs4j.RevisionRange;
 import de.unibremen.informatik.st.libvcs4j.VCSEngine;
 import de.unibremen.informatik.st.libvcs4j.VCSEngineBuilder;
+import de.unibremen.informatik.vcs2see.data.CheckpointData;
+import de.unibremen.informatik.vcs2see.data.ConfigurationData;
 import de.unibremen.informatik.vcs2see.data.EnvironmentData;
 import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import org.apache.commons.io.FileUtils;
-import org.xml.sax.SAXException;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Component which uses LibVCS4j to traverse the repository and run an analysis on each revision.
@@ -23,74 +45,522 @@ import java.nio.file.Paths;
  */
 public class RepositoryCrawler {
 
-    private final VCSEngine engine;
+    private static final int DIFF_CACHE_SIZE = 250_000;
+
+    private static final int MAX_CHANGED_PATHS = 50_000;
+
+    private static final String PART_EXTENSION = ".part";
+
+    private VCSEngine engine;
 
     private final RepositoryData repositoryData;
 
     private final EnvironmentData environmentData;
 
+    private final File folder;
+
+    private final CheckpointManager checkpointManager;
+
+    private final StatisticsManager statisticsManager;
+
+    private final GxlIO gxlIO;
+
+    private final WorkerPool workerPool;
+
+    private final ConfigurationData configurationData;
+
+    private final BiFunction<String, ToolRunner, Analyser> analyserFactory;
+
+    private HistoryArchive historyArchive;
+
     /**
      * Initialization for the RepositoryCrawler.
      * @param repositoryData all the required information about the repository
      * @param environmentData all the required information about the environment
      */
     public RepositoryCrawler(RepositoryData repositoryData, EnvironmentData environmentData) {
+        this(repositoryData, environmentData, null);
+    }
+
+    /**
+     * Initialization for the RepositoryCrawler.
+     * @param repositoryData all the required information about the repository
+     * @param environmentData all the required information about the environment
+     * @param workerPool pool shared with other crawlers, or null for a pool of this crawler
+     */
+    public RepositoryCrawler(RepositoryData repositoryData, EnvironmentData environmentData, WorkerPool workerPool) {
+        this(repositoryData, environmentData, workerPool, new File(repositoryData.getName()), null);
+    }
+
+    /**
+     * Initialization for the RepositoryCrawler with another output folder and analysis.
+     * @param repositoryData all the required information about the repository
+     * @param environmentData all the required information about the environment
+     * @param workerPool pool shared with other crawlers, or null for a pool of this crawler
+     * @param folder output folder for the graphs
+     * @param analyserFactory creates the analyser of a working tree, or null for the configured analyser
+     */
+    RepositoryCrawler(RepositoryData repositoryData, EnvironmentData environmentData, WorkerPool workerPool, File folder,
+                      BiFunction<String, ToolRunner, Analyser> analyserFactory) {
+        this.workerPool = workerPool;
         this.repositoryData = repositoryData;
         this.environmentData = environmentData;
+        this.folder = folder;
+        this.analyserFactory = analyserFactory;
+        this.checkpointManager = new CheckpointManager(new File(folder, repositoryData.getName() + ".checkpoint"), repositoryData, environmentData);
+        this.statisticsManager = new StatisticsManager(environmentData.isStatistics(), environmentData.getProgressInterval());
+        this.gxlIO = new GxlIO();
 
+        // The settings are fixed for the whole run, the patterns are compiled once instead of for every path.
+        String basePathFilter = environmentData.getBasePathFilter();
+        this.configurationData = new ConfigurationData(
+                basePathFilter == null || basePathFilter.isEmpty() ? null : Pattern.compile(basePathFilter),
+                Pattern.compile(repositoryData.getLanguage().regex()));
+
+        // Either a revision range or a date range, libvcs4j does not combine both.
+        VCSEngineBuilder builder = builder();
+        if(repositoryData.getFrom() != null || repositoryData.getTo() != null) {
+            Optional.ofNullable(repositoryData.getFrom()).ifPresent(builder::withFrom);
+            Optional.ofNullable(repositoryData.getTo()).ifPresent(builder::withTo);
+        } else {
+            Optional.ofNullable(repositoryData.getSince()).ifPresent(builder::withSince);
+            Optional.ofNullable(repositoryData.getUntil()).ifPresent(builder::withUntil);
+        }
+        this.engine = builder.build();
+    }
+
+    /**
+     * Creates the engine builder for the type of the repository.
+     * @return engine builder without a range
+     */
+    private VCSEngineBuilder builder() {
         switch (repositoryData.getType()) {
             case GIT:
-                engine = VCSEngineBuilder.ofGit(repositoryData.getPath()).build();
-                break;
+                return VCSEngineBuilder.ofGit(repositoryData.getPath());
 
             case HG:
-                engine = VCSEngineBuilder.ofHG(repositoryData.getPath()).build();
-                break;
+                return VCSEngineBuilder.ofHG(repositoryData.getPath());
 
             case SVN:
-                engine = VCSEngineBuilder.ofSVN(repositoryData.getPath()).build();
-                break;
+                return VCSEngineBuilder.ofSVN(repositoryData.getPath());
 
             default:
-                engine = VCSEngineBuilder.of(repositoryData.getPath()).build();
-                break;
+                return VCSEngineBuilder.of(repositoryData.getPath());
         }
     }
 
+    /**
+     * Limits the engine to the last revisions of the configured range.
+     * @param maxCount maximum number of revisions
+     * @throws IOException exception
+     */
+    private void limit(int maxCount) throws IOException {
+        List<String> revisions = engine.listRevisions();
+        if(revisions.size() <= maxCount) {
+            return;
+        }
+
+        engine = builder()
+                .withFrom(revisions.get(revisions.size() - maxCount))
+                .withTo(revisions.get(revisions.size() - 1))
+                .build();
+    }
+
     /**
      * Start crawling the repository. This may take a few minutes.
+     * The file changes of each revision are written into a working tree of its own, which is analysed instead of
+     * the checkout of LibVCS4j, so the next revision is checked out while the analysis is running.
+     * With more than one worker, the working tree is copied into a free worker directory for each analysis.
+     * The graph modification depends on the history and therefore always runs in commit order.
+     * Finished graphs are moved into the output folder as soon as they are complete, so the results can be
+     * used while the crawl is still running. A checkpoint is saved at regular intervals, so that an aborted crawl
+     * can be resumed from the last checkpoint. With the delta output, the graphs are appended to a
+     * {@link HistoryArchive} instead and can be exported as GXL files later.
+     * With a stride, only every nth commit gets a graph. The commits in between are only added to the
+     * version history, without an analysis and without computing diffs.
      * @throws IOException exception
-     * @throws SAXException exception
      */
-    public void crawl() throws IOException, SAXException {
-        String temp = engine.getOutput().toAbsolutePath().toString();
+    public void crawl() throws IOException {
+        if(repositoryData.getMaxCount() > 0) {
+            limit(repositoryData.getMaxCount());
+        }
+
+        int workers = Math.max(1, environmentData.getWorkers());
 
-        CodeAnalyser codeAnalyser = new CodeAnalyser(temp, repositoryData, environmentData);
-        GraphModifier graphModifier = new GraphModifier(repositoryData);
+        folder.mkdirs();
+        DiffCache diffCache = new DiffCache(new File(folder, repositoryData.getName() + ".diffs"), repositoryData, environmentData, DIFF_CACHE_SIZE);
+        historyArchive = environmentData.getOutput() == Output.DELTA
+                ? new HistoryArchive(new File(folder, repositoryData.getName() + ".history"))
+                : null;
+
+        // The output of the Bauhaus tools is kept per revision next to the graphs instead of flooding the console.
+        WorkerPool pool = workerPool != null ? workerPool : new WorkerPool(workers, 0);
+        ToolRunner toolRunner = pool.limit(new ProcessToolRunner(new File(folder, "logs"), environmentData.getToolOutput(), environmentData.getToolTimeout()));
+        File tree = Files.createTempDirectory("vcs2see-tree-").toFile();
+        Analyser codeAnalyser = createAnalyser(tree.getAbsolutePath(), toolRunner);
+        GraphModifier graphModifier = new GraphModifier(repositoryData, configurationData, diffCache, createDiffProvider(), statisticsManager);
         ConsoleManager consoleManager = new ConsoleManager();
+        if(environmentData.getAnalyser() == Analyser.Backend.BAUHAUS && environmentData.getConverter() == CodeAnalyser.Converter.JAVA) {
+            System.err.println("The Java converter is experimental, its metrics differ from the ones of rfgexport");
+        }
 
+        // Continue after the last checkpoint or start with an empty output folder.
+        CheckpointData checkpointData = environmentData.isResume()
+                ? checkpointManager.load(graphModifier).orElse(null)
+                : null;
+        if(checkpointData != null) {
+            consoleManager.print("Resume after commit " + checkpointData.getIndex() + ": " + checkpointData.getCommitId());
+            if(historyArchive != null) {
+                historyArchive.truncate(checkpointData.getIndex());
+                File last = graphFile(checkpointData.getIndex());
+                File part = new File(folder, last.getName() + ".tmp");
+                gxlIO.writeGraph(historyArchive.read(checkpointData.getIndex()), part);
+                Files.move(part.toPath(), last.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } else {
+            File[] previous = folder.listFiles((directory, name) -> name.endsWith(".gxl") || name.endsWith(".gxl" + GxlIO.GZIP_EXTENSION)
+                    || name.endsWith(".tmp") || name.endsWith(PART_EXTENSION));
+            for (File file : Objects.requireNonNull(previous)) {
+                Files.delete(file.toPath());
+            }
+            checkpointManager.delete();
+            if(historyArchive != null) {
+                historyArchive.truncate(0);
+            }
+        }
+
+        // Every worker owns a copy of the working tree, so a free analyser also means a free directory.
+        BlockingQueue<Analyser> analysers = new ArrayBlockingQueue<>(workers);
+        WorkspaceMaterializer workspaceMaterializer = new WorkspaceMaterializer(tree, engine.getOutput().toFile(), repositoryData,
+                environmentData.isFilterWorkspaces(), environmentData.isVerifyWorkspaces());
+        List<File> workspaces = new ArrayList<>();
+        Deque<PendingCommit> pending = new ArrayDeque<>();
+        Map<Analyser, Set<String>> changes = new IdentityHashMap<>();
+        Future<File> running = null;
+        int stride = Math.max(1, repositoryData.getStride());
+        int position = 0;
+        boolean relevant = false;
         int index = 1;
-        for (RevisionRange revision : engine) {
-            for(Commit commit : revision.getCommits()) {
-                consoleManager.print("Commit: " + commit.getId());
-                File file = codeAnalyser.analyse(index);
-
-                graphModifier.loadFile(file);
-                graphModifier.loadNodes();
-                graphModifier.queryCommitData(commit);
-                graphModifier.populateNodes();
-                graphModifier.addCommitGraph(commit);
-                graphModifier.saveFile();
-
-                index++;
-                consoleManager.printLine();
+
+        try {
+            if(workers > 1) {
+                for (int i = 0; i < workers; i++) {
+                    File workspace = Files.createTempDirectory("vcs2see-worker-").toFile();
+                    workspaces.add(workspace);
+                    analysers.add(createAnalyser(workspace.getAbsolutePath(), toolRunner));
+                }
+            }
+            for (Analyser analyser : workers > 1 ? analysers : List.of(codeAnalyser)) {
+                changes.put(analyser, new HashSet<>());
+            }
+
+            Iterator<RevisionRange> revisions = engine.iterator();
+            while (true) {
+                // The engine checks out the next revision while iterating, even though only the verification uses it.
+                long start = statisticsManager.start();
+                if(!revisions.hasNext()) {
+                    break;
+                }
+                RevisionRange revision = revisions.next();
+                statisticsManager.stop(StatisticsManager.Stage.CHECKOUT, start);
+
+                // A single worker analyses the working tree, which must not change before it is done.
+                if(running != null) {
+                    await(running);
+                    running = null;
+                }
+                long update = statisticsManager.start();
+                workspaceMaterializer.update(revision.getFileChanges());
+                statisticsManager.stop(StatisticsManager.Stage.WORKSPACE, update);
+
+                for(Commit commit : revision.getCommits()) {
+                    recordChanges(changes, commit);
+                    boolean sampled = position++ % stride == 0;
+
+                    if(checkpointData != null && index <= checkpointData.getIndex()) {
+                        if(!sampled) {
+                            continue;
+                        }
+                        if(index == checkpointData.getIndex() && !commit.getId().equals(checkpointData.getCommitId())) {
+                            throw new IOException("Checkpoint does not match commit " + commit.getId());
+                        }
+
+                        index++;
+                        continue;
+                    }
+
+                    // Skipped commits only count for the history, but their changes may require the next analysis.
+                    relevant |= isRelevant(commit);
+                    if(!sampled) {
+                        pending.addLast(new PendingCommit(index, commit, null, true));
+                        continue;
+                    }
+
+                    Future<File> future;
+                    if(index > 1 && !relevant) {
+                        // Nothing the analysis looks at has changed, the previous graph is reused.
+                        future = null;
+                    } else if(workers > 1) {
+                        Analyser analyser = take(analysers);
+                        Set<String> changedPaths = changes.put(analyser, new HashSet<>());
+                        long copy = statisticsManager.start();
+                        workspaceMaterializer.materialize(analyser.getDirectory(), changedPaths);
+                        statisticsManager.stop(StatisticsManager.Stage.WORKSPACE, copy);
+                        future = pool.submit(repositoryData.getName(), analyse(analyser, changedPaths, analysers, index));
+                    } else {
+                        Set<String> changedPaths = changes.put(codeAnalyser, new HashSet<>());
+                        int analysed = index;
+                        future = pool.submit(repositoryData.getName(), () -> codeAnalyser.analyse(analysed, changedPaths));
+                        running = future;
+                    }
+                    pending.addLast(new PendingCommit(index, commit, future, false));
+                    relevant = false;
+
+                    // Modify finished graphs in commit order, but do not let them pile up.
+                    while (!pending.isEmpty() && (pending.size() > 2 * workers || pending.peekFirst().isDone())) {
+                        modify(graphModifier, diffCache, consoleManager, pending.removeFirst());
+                    }
+
+                    index++;
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                modify(graphModifier, diffCache, consoleManager, pending.removeFirst());
+            }
+        } finally {
+            // After a failure, analyses which are still running are interrupted.
+            for (PendingCommit pendingCommit : pending) {
+                if(pendingCommit.getFuture() != null) {
+                    pendingCommit.getFuture().cancel(true);
+                }
+            }
+            if(workerPool == null) {
+                pool.close();
+            }
+            toolRunner.close();
+            diffCache.close();
+            if(historyArchive != null) {
+                historyArchive.close();
+            }
+            for (File workspace : workspaces) {
+                FileUtils.deleteQuietly(workspace);
+            }
+            FileUtils.deleteQuietly(tree);
+        }
+
+        // All graphs are in the output folder already. The diff cache is kept for the next run.
+        checkpointManager.delete();
+        statisticsManager.writeReport(new File(folder, repositoryData.getName() + ".report.json"));
+    }
+
+    /**
+     * Adds the version history information of a commit to its analysed graph.
+     * Commits without an analysis get a copy of the graph of the previous commit.
+     * @param graphModifier modifier holding the history of all previous commits
+     * @param diffCache cache of the computed diffs, written with every checkpoint
+     * @param consoleManager console for the progress output
+     * @param pendingCommit commit and its running or finished analysis
+     * @throws IOException exception
+     */
+    private void modify(GraphModifier graphModifier, DiffCache diffCache, ConsoleManager consoleManager, PendingCommit pendingCommit) throws IOException {
+        Commit commit = pendingCommit.getCommit();
+        if(pendingCommit.isSkipped()) {
+            graphModifier.recordHistory(commit);
+            return;
+        }
+
+        // Without an analysis, the graph of the previous commit is still loaded and is modified again.
+        File previous = graphFile(pendingCommit.getIndex() - 1);
+        File file = pendingCommit.getFuture() == null ? previous : await(pendingCommit.getFuture());
+        File target = graphFile(pendingCommit.getIndex());
+
+        consoleManager.print("Commit: " + commit.getId());
+        long start = statisticsManager.start();
+        graphModifier.loadFile(file);
+        graphModifier.loadNodes();
+        graphModifier.queryCommitData(commit);
+        graphModifier.populateNodes();
+        graphModifier.addCommitGraph(commit);
+        if(historyArchive != null) {
+            // The archive takes the changed elements from the graph in memory, which a following commit without
+            // an analysis modifies again. Only a graph restored from the archive on resume is a file.
+            graphModifier.applyChanges(target);
+            historyArchive.append(pendingCommit.getIndex(), graphModifier.getGraphModel());
+            Files.deleteIfExists(previous.toPath());
+        } else {
+            graphModifier.saveFile(target);
+        }
+        if(!file.equals(target) && !file.equals(previous)) {
+            Files.deleteIfExists(file.toPath());
+        }
+
+        if(pendingCommit.getIndex() % Math.max(1, environmentData.getCheckpointInterval()) == 0) {
+            // The diffs are written with the checkpoint, so they are not lost if the process is killed.
+            diffCache.flush();
+            checkpointManager.save(pendingCommit.getIndex(), commit.getId(), graphModifier);
+        }
+        statisticsManager.stop(StatisticsManager.Stage.COMMIT, start);
+        statisticsManager.commit(consoleManager);
+        consoleManager.printLine();
+    }
+
+    /**
+     * Returns the graph file of a commit in the output folder, compressed with gzip for the compressed output.
+     * @param index index of the commit
+     * @return graph file
+     */
+    private File graphFile(int index) {
+        String extension = environmentData.getOutput() == Output.GZIP ? ".gxl" + GxlIO.GZIP_EXTENSION : ".gxl";
+        return new File(folder, repositoryData.getName() + "-" + index + extension);
+    }
+
+    /**
+     * Creates the configured analyser for a working tree.
+     * @param path path to the working tree
+     * @param toolRunner runner for the Bauhaus commands
+     * @return analyser
+     */
+    private Analyser createAnalyser(String path, ToolRunner toolRunner) {
+        if(analyserFactory != null) {
+            return analyserFactory.apply(path, toolRunner);
+        }
+        if(environmentData.getAnalyser() == Analyser.Backend.JAVA) {
+            return new CloneAnalyser(path, repositoryData, statisticsManager);
+        }
+        return new CodeAnalyser(path, repositoryData, environmentData, statisticsManager, toolRunner);
+    }
+
+    /**
+     * Creates the configured diff for the line changes of changed files.
+     * @return diff provider
+     */
+    private DiffProvider createDiffProvider() {
+        if(environmentData.getDiff() == DiffProvider.Backend.MYERS) {
+            return new MyersDiffProvider();
+        }
+        return new LibVcs4jDiffProvider();
+    }
+
+    /**
+     * Creates the background task which analyses a prepared worker directory and moves the generated
+     * GXL file to the output folder. The file keeps a temporary name until the history is added.
+     * The analyser is handed back to the pool afterwards.
+     * @param analyser analyser of the prepared worker directory
+     * @param changedPaths paths which changed since the last analysis of the analyser, or null if unknown
+     * @param analysers pool of free analysers
+     * @param index index of the revision to be analyzed
+     * @return background task
+     */
+    private Callable<File> analyse(Analyser analyser, Set<String> changedPaths, BlockingQueue<Analyser> analysers, int index) {
+        return () -> {
+            try {
+                File file = analyser.analyse(index, changedPaths);
+                File target = new File(folder, file.getName() + PART_EXTENSION);
+                Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return target;
+            } finally {
+                analysers.add(analyser);
+            }
+        };
+    }
+
+    /**
+     * Adds the paths changed by a commit to the changes of every analyser since its last analysis.
+     * If too many paths changed, the changes are forgotten and the analyser has to look at all files.
+     * @param changes changed paths by analyser, null if unknown
+     * @param commit commit which changed the paths
+     */
+    private void recordChanges(Map<Analyser, Set<String>> changes, Commit commit) {
+        for (Map.Entry<Analyser, Set<String>> entry : changes.entrySet()) {
+            Set<String> paths = entry.getValue();
+            if(paths == null) {
+                continue;
+            }
+
+            commit.getFileChanges().stream()
+                    .flatMap(fileChange -> Stream.of(fileChange.getOldFile(), fileChange.getNewFile()))
+                    .flatMap(Optional::stream)
+                    .forEach(file -> paths.add(file.getRelativePath()));
+            if(paths.size() > MAX_CHANGED_PATHS) {
+                entry.setValue(null);
             }
         }
+    }
+
+    /**
+     * Checks whether a commit changes any file of the configured language.
+     * Other files, e.g. README or build files, are filtered by the analysis, so the graph stays the same.
+     * @param commit commit to check
+     * @return true if the revision has to be analysed
+     */
+    private boolean isRelevant(Commit commit) {
+        Pattern pattern = configurationData.getLanguagePattern();
+        return commit.getFileChanges().stream()
+                .flatMap(fileChange -> Stream.of(fileChange.getOldFile(), fileChange.getNewFile()))
+                .flatMap(Optional::stream)
+                .map(file -> file.getRelativePath().replace('\\', '/'))
+                .anyMatch(path -> pattern.matcher(path).matches());
+    }
+
+    /**
+     * Waits for a free analyser.
+     * @param analysers pool of free analysers
+     * @return free analyser
+     * @throws IOException if interrupted while waiting
+     */
+    private Analyser take(BlockingQueue<Analyser> analysers) throws IOException {
+        try {
+            return analysers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a worker");
+        }
+    }
+
+    /**
+     * Waits for an analysis to finish and returns the generated file.
+     * @param future running or finished analysis
+     * @return generated GXL file
+     * @throws IOException exception of the analysis
+     */
+    private File await(Future<File> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the analysis");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Analysis failed", e.getCause());
+        }
+    }
+
+    /**
+     * Commit whose analysis was started, but whose graph was not modified yet.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class PendingCommit {
+
+        private final int index;
+
+        private final Commit commit;
+
+        private final Future<File> future;
+
+        private final boolean skipped;
+
+        /**
+         * Checks whether the commit can be modified without waiting.
+         * @return true if the analysis finished or was skipped
+         */
+        public boolean isDone() {
+            return future == null || future.isDone();
+        }
 
-        // Copy result from temp directory to execution path.
-        File folder = new File(repositoryData.getName());
-        FileUtils.deleteDirectory(folder);
-        FileUtils.copyDirectory(new File(temp, repositoryData.getName()), folder);
     }
 
     /**
@@ -100,4 +570,12 @@ public class RepositoryCrawler {
         GIT, HG, SVN;
     }
 
+    /**
+     * Enum of output formats. GXL writes a complete file per commit, GZIP a complete file per commit
+     * compressed with gzip and DELTA a single history archive.
+     */
+    public enum Output {
+        GXL, GZIP, DELTA
+    }
+
 }
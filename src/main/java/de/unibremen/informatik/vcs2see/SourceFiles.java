@@ -0,0 +1,121 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Component which finds the source files of a working tree which are part of the clone graph.
+ * Only files of the language below the base path are analysed. The output directory and the directories
+ * of the version control systems are skipped.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class SourceFiles {
+
+    private static final Set<String> VCS_DIRECTORIES = Set.of(".git", ".hg", ".svn");
+
+    private final String outputDirectory;
+
+    private final Set<String> extensions;
+
+    private final String basePath;
+
+    /**
+     * Initialization for the SourceFiles.
+     * @param repositoryData all the required information about the repository
+     */
+    public SourceFiles(RepositoryData repositoryData) {
+        this.outputDirectory = repositoryData.getName();
+        this.extensions = Set.of(repositoryData.getLanguage().getExtensions());
+        this.basePath = basePath(repositoryData.getBasePath());
+    }
+
+    /**
+     * Collects the source files of a working tree.
+     * @param root directory of the working tree
+     * @return files by path relative to the base path, sorted by path
+     * @throws IOException exception
+     */
+    public Map<String, Path> list(Path root) throws IOException {
+        Map<String, Path> files = new TreeMap<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path path : stream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                String linkageName = linkageName(root.relativize(path).toString().replace('\\', '/'));
+                if(linkageName != null) {
+                    files.put(linkageName, path);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Maps a path of the working tree to the path used in the graph.
+     * @param relative path relative to the working tree, separated by slashes
+     * @return path relative to the base path or null if the file is not analysed
+     */
+    public String linkageName(String relative) {
+        if(isIgnored(relative)) {
+            return null;
+        }
+
+        String[] parts = relative.split("/");
+        String name = parts[parts.length - 1];
+        int dot = name.lastIndexOf('.');
+        if(dot < 0 || !extensions.contains(name.substring(dot + 1))) {
+            return null;
+        }
+
+        return relative.startsWith(basePath) ? relative.substring(basePath.length()) : null;
+    }
+
+    /**
+     * Checks whether a path is part of the output directory or of the metadata of a version control system.
+     * @param relative path relative to the working tree, separated by slashes
+     * @return true if the path is never analysed
+     */
+    public boolean isIgnored(String relative) {
+        String[] parts = relative.split("/");
+        if(parts[0].equals(outputDirectory)) {
+            return true;
+        }
+        for (String part : parts) {
+            if(VCS_DIRECTORIES.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the content of a file.
+     * @param content content of the file
+     * @return hash
+     */
+    public static long hash(byte[] content) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : content) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static String basePath(String value) {
+        String basePath = value == null ? "" : value.replace('\\', '/');
+        if(basePath.startsWith("./")) {
+            basePath = basePath.substring(2);
+        }
+        return basePath.isEmpty() || basePath.endsWith("/") ? basePath : basePath + "/";
+    }
+
+}
@@ -0,0 +1,175 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Component which measures the duration of the stages of a crawl and counts the processed data.
+ * When disabled, measurements return immediately without reading the clock.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class StatisticsManager {
+
+    private final boolean enabled;
+
+    private final int progressInterval;
+
+    private final long started;
+
+    private final long[][] samples;
+
+    private final int[] sizes;
+
+    private final AtomicLongArray counters;
+
+    /**
+     * Initialization for the StatisticsManager.
+     * @param enabled whether durations and counters are recorded
+     * @param progressInterval number of commits between two progress lines, 0 for none
+     */
+    public StatisticsManager(boolean enabled, int progressInterval) {
+        this.enabled = enabled || progressInterval > 0;
+        this.progressInterval = progressInterval;
+        this.started = System.nanoTime();
+        this.samples = new long[Stage.values().length][16];
+        this.sizes = new int[Stage.values().length];
+        this.counters = new AtomicLongArray(Counter.values().length);
+    }
+
+    /**
+     * Creates a StatisticsManager which does not record anything.
+     * @return disabled StatisticsManager
+     */
+    public static StatisticsManager disabled() {
+        return new StatisticsManager(false, 0);
+    }
+
+    /**
+     * Starts the measurement of a stage.
+     * @return start time to be passed to {@link #stop(Stage, long)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finishes the measurement of a stage.
+     * @param stage measured stage
+     * @param start start time returned by {@link #start()}
+     */
+    public void stop(Stage stage, long start) {
+        if(!enabled) {
+            return;
+        }
+
+        long duration = System.nanoTime() - start;
+        synchronized (this) {
+            int size = sizes[stage.ordinal()];
+            if(size == samples[stage.ordinal()].length) {
+                samples[stage.ordinal()] = Arrays.copyOf(samples[stage.ordinal()], size * 2);
+            }
+            samples[stage.ordinal()][size] = duration;
+            sizes[stage.ordinal()] = size + 1;
+        }
+    }
+
+    /**
+     * Adds a value to a counter.
+     * @param counter counter to increase
+     * @param value value to add
+     */
+    public void count(Counter counter, long value) {
+        if(enabled) {
+            counters.addAndGet(counter.ordinal(), value);
+        }
+    }
+
+    /**
+     * Counts a processed commit and prints a progress line at the configured interval.
+     * @param consoleManager console for the progress line
+     */
+    public void commit(ConsoleManager consoleManager) {
+        if(!enabled) {
+            return;
+        }
+
+        long commits = counters.incrementAndGet(Counter.COMMITS.ordinal());
+        if(progressInterval > 0 && commits % progressInterval == 0) {
+            consoleManager.print(String.format(Locale.ROOT, "Progress: %d commits, %.1f commits/minute", commits, commitsPerMinute()));
+        }
+    }
+
+    /**
+     * Writes the aggregated durations of all stages and the counters as JSON.
+     * @param file report file
+     * @throws IOException exception
+     */
+    public void writeReport(File file) throws IOException {
+        if(!enabled) {
+            return;
+        }
+
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("{");
+            writer.printf(Locale.ROOT, "  \"durationSeconds\": %.3f,%n", (System.nanoTime() - started) / 1e9);
+            writer.printf(Locale.ROOT, "  \"commitsPerMinute\": %.3f,%n", commitsPerMinute());
+
+            writer.println("  \"counters\": {");
+            for (Counter counter : Counter.values()) {
+                writer.printf("    \"%s\": %d%s%n", counter.name(), counters.get(counter.ordinal()), counter.ordinal() < Counter.values().length - 1 ? "," : "");
+            }
+            writer.println("  },");
+
+            writer.println("  \"stages\": {");
+            for (Stage stage : Stage.values()) {
+                long[] sorted;
+                synchronized (this) {
+                    sorted = Arrays.copyOf(samples[stage.ordinal()], sizes[stage.ordinal()]);
+                }
+                Arrays.sort(sorted);
+
+                writer.printf(Locale.ROOT, "    \"%s\": {\"count\": %d, \"totalMs\": %.3f, \"p50Ms\": %.3f, \"p95Ms\": %.3f, \"maxMs\": %.3f}%s%n",
+                        stage.name(), sorted.length, Arrays.stream(sorted).sum() / 1e6,
+                        percentile(sorted, 0.5) / 1e6, percentile(sorted, 0.95) / 1e6, percentile(sorted, 1) / 1e6,
+                        stage.ordinal() < Stage.values().length - 1 ? "," : "");
+            }
+            writer.println("  }");
+            writer.println("}");
+        }
+    }
+
+    private double commitsPerMinute() {
+        double minutes = (System.nanoTime() - started) / 60e9;
+        return minutes > 0 ? counters.get(Counter.COMMITS.ordinal()) / minutes : 0;
+    }
+
+    private long percentile(long[] sorted, double percentile) {
+        if(sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * Measured stages of a crawl.
+     */
+    public enum Stage {
+        CHECKOUT, WORKSPACE, CPF, CPFCSV2RFG, RFGEXPORT, CONVERT, TOKENIZE, DETECT, GXL_WRITE, GXL_LOAD, DIFF, HISTORY, GXL_SAVE, COMMIT
+    }
+
+    /**
+     * Counted data of a crawl.
+     */
+    public enum Counter {
+        COMMITS, FILES_DIFFED, FILES_TOKENIZED, NODES_UPDATED, ELEMENTS_CHANGED, BYTES_WRITTEN
+    }
+
+}
@@ -0,0 +1,110 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.util.Arrays;
+
+/**
+ * Component which stores each distinct string once and maps it to a dense id, starting at 0 in the order in
+ * which the strings are added. State per string, e.g. per path or per element type, can be kept in arrays
+ * indexed by the id instead of maps with the string as key, and strings can be compared as integers.
+ * Strings are never removed.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class StringTable {
+
+    private static final int EMPTY = -1;
+
+    private String[] strings;
+
+    /**
+     * Open addressing table with the id of each string, or {@value #EMPTY} for a free slot.
+     */
+    private int[] table;
+
+    private int size;
+
+    public StringTable() {
+        this.strings = new String[4096];
+        this.table = new int[8192];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Returns the id of a string and adds the string if it is unknown.
+     * @param string string to look up
+     * @return id of the string
+     */
+    public int id(String string) {
+        int slot = slot(string);
+        if(table[slot] != EMPTY) {
+            return table[slot];
+        }
+
+        if(size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+        }
+        strings[size] = string;
+        table[slot] = size;
+        size++;
+
+        if(size * 2 > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the id of a string without adding it.
+     * @param string string to look up
+     * @return id of the string, or -1 if the string is unknown
+     */
+    public int find(String string) {
+        return table[slot(string)];
+    }
+
+    /**
+     * Returns the string of an id.
+     * @param id id of the string
+     * @return string
+     */
+    public String string(int id) {
+        return strings[id];
+    }
+
+    /**
+     * Returns the number of strings.
+     * @return number of strings, all ids are lower than it
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot of a string, or the free slot where it belongs.
+     * @param string string to look up
+     * @return slot in the table
+     */
+    private int slot(String string) {
+        int mask = table.length - 1;
+        int slot = mix(string.hashCode()) & mask;
+        while (table[slot] != EMPTY && !strings[table[slot]].equals(string)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, EMPTY);
+        for (int id = 0; id < size; id++) {
+            table[slot(strings[id])] = id;
+        }
+    }
+
+    private int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+}
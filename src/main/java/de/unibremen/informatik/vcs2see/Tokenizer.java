@@ -0,0 +1,323 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.TokenData;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Component which splits source code into tokens for the clone detection.
+ * Comments and whitespace are dropped. Identifiers and literals are reduced to their kind,
+ * so that code with renamed identifiers or changed literals still has the same symbols.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class Tokenizer {
+
+    private static final int IDENTIFIER = "<identifier>".hashCode();
+
+    private static final int NUMBER = "<number>".hashCode();
+
+    private static final int STRING = "<string>".hashCode();
+
+    private static final int CHARACTER = "<character>".hashCode();
+
+    private static final String[] C_OPERATORS = {">>>=", "<<=", ">>=", "->*", "...", ">>>", "->", "::", "++", "--", "&&", "||",
+            "==", "!=", "<=", ">=", "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<", ">>", "=>", "??", ".*"};
+
+    private static final String[] ADA_OPERATORS = {":=", "=>", "..", "**", "/=", "<=", ">=", "<>", "<<", ">>"};
+
+    private static final Set<String> JAVA_KEYWORDS = Set.of("abstract", "assert", "boolean", "break", "byte", "case",
+            "catch", "char", "class", "const", "continue", "default", "do", "double", "else", "enum", "extends", "final",
+            "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long",
+            "native", "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile",
+            "while", "true", "false", "null", "var", "record", "yield");
+
+    private static final Set<String> C_KEYWORDS = Set.of("auto", "break", "case", "char", "const", "continue",
+            "default", "do", "double", "else", "enum", "extern", "float", "for", "goto", "if", "inline", "int", "long",
+            "register", "restrict", "return", "short", "signed", "sizeof", "static", "struct", "switch", "typedef",
+            "union", "unsigned", "void", "volatile", "while", "_Bool", "_Complex", "_Imaginary");
+
+    private static final Set<String> CPP_KEYWORDS = Set.of("alignas", "alignof", "and", "and_eq", "asm", "auto",
+            "bitand", "bitor", "bool", "break", "case", "catch", "char", "char8_t", "char16_t", "char32_t", "class",
+            "compl", "concept", "const", "consteval", "constexpr", "constinit", "const_cast", "continue", "co_await",
+            "co_return", "co_yield", "decltype", "default", "delete", "do", "double", "dynamic_cast", "else", "enum",
+            "explicit", "export", "extern", "false", "float", "for", "friend", "goto", "if", "inline", "int", "long",
+            "mutable", "namespace", "new", "noexcept", "not", "not_eq", "nullptr", "operator", "or", "or_eq",
+            "private", "protected", "public", "register", "reinterpret_cast", "requires", "return", "short", "signed",
+            "sizeof", "static", "static_assert", "static_cast", "struct", "switch", "template", "this",
+            "thread_local", "throw", "true", "try", "typedef", "typeid", "typename", "union", "unsigned", "using",
+            "virtual", "void", "volatile", "wchar_t", "while", "xor", "xor_eq");
+
+    private static final Set<String> CS_KEYWORDS = Set.of("abstract", "as", "async", "await", "base", "bool",
+            "break", "byte", "case", "catch", "char", "checked", "class", "const", "continue", "decimal", "default",
+            "delegate", "do", "double", "else", "enum", "event", "explicit", "extern", "false", "finally", "fixed",
+            "float", "for", "foreach", "goto", "if", "implicit", "in", "int", "interface", "internal", "is", "lock",
+            "long", "namespace", "new", "null", "object", "operator", "out", "override", "params", "private",
+            "protected", "public", "readonly", "ref", "return", "sbyte", "sealed", "short", "sizeof", "stackalloc",
+            "static", "string", "struct", "switch", "this", "throw", "true", "try", "typeof", "uint", "ulong",
+            "unchecked", "unsafe", "ushort", "using", "var", "virtual", "void", "volatile", "while");
+
+    private static final Set<String> ADA_KEYWORDS = Set.of("abort", "abs", "abstract", "accept", "access", "aliased",
+            "all", "and", "array", "at", "begin", "body", "case", "constant", "declare", "delay", "delta", "digits",
+            "do", "else", "elsif", "end", "entry", "exception", "exit", "for", "function", "generic", "goto", "if",
+            "in", "interface", "is", "limited", "loop", "mod", "new", "not", "null", "of", "or", "others", "out",
+            "overriding", "package", "pragma", "private", "procedure", "protected", "raise", "range", "record", "rem",
+            "renames", "requeue", "return", "reverse", "select", "separate", "some", "subtype", "synchronized",
+            "tagged", "task", "terminate", "then", "type", "until", "use", "when", "while", "with", "xor");
+
+    private final CodeAnalyser.Language language;
+
+    private final boolean ada;
+
+    private final Set<String> keywords;
+
+    private final String[] operators;
+
+    /**
+     * Initialization for the Tokenizer.
+     * @param language programming language of the source code
+     */
+    public Tokenizer(CodeAnalyser.Language language) {
+        this.language = language;
+        this.ada = language == CodeAnalyser.Language.ADA;
+        this.operators = ada ? ADA_OPERATORS : C_OPERATORS;
+        switch (language) {
+            case C:
+                this.keywords = C_KEYWORDS;
+                break;
+
+            case CPP:
+                this.keywords = CPP_KEYWORDS;
+                break;
+
+            case CS:
+                this.keywords = CS_KEYWORDS;
+                break;
+
+            case ADA:
+                this.keywords = ADA_KEYWORDS;
+                break;
+
+            default:
+                this.keywords = JAVA_KEYWORDS;
+                break;
+        }
+    }
+
+    /**
+     * Splits a source file into tokens.
+     * @param path path of the file, relative to the base path
+     * @param source content of the file
+     * @return tokens of the file
+     */
+    public TokenData tokenize(String path, String source) {
+        Buffer buffer = new Buffer();
+        int length = source.length();
+        int index = 0;
+        int line = 1;
+        int column = 1;
+
+        while (index < length) {
+            char c = source.charAt(index);
+            int end;
+            int symbol;
+
+            if(c == '\n') {
+                index++;
+                line++;
+                column = 1;
+                continue;
+            }
+
+            if(Character.isWhitespace(c)) {
+                index++;
+                column++;
+                continue;
+            }
+
+            if(startsWith(source, index, ada ? "--" : "//")) {
+                end = source.indexOf('\n', index);
+                end = end < 0 ? length : end;
+                column += end - index;
+                index = end;
+                continue;
+            }
+
+            if(!ada && startsWith(source, index, "/*")) {
+                end = source.indexOf("*/", index + 2);
+                end = end < 0 ? length : end + 2;
+                for (; index < end; index++) {
+                    if(source.charAt(index) == '\n') {
+                        line++;
+                        column = 1;
+                    } else {
+                        column++;
+                    }
+                }
+                continue;
+            }
+
+            if(Character.isJavaIdentifierStart(c)) {
+                end = index + 1;
+                while (end < length && Character.isJavaIdentifierPart(source.charAt(end))) {
+                    end++;
+                }
+
+                String word = source.substring(index, end);
+                if(ada) {
+                    word = word.toLowerCase(Locale.ROOT);
+                }
+                symbol = keywords.contains(word) ? word.hashCode() : IDENTIFIER;
+            } else if(Character.isDigit(c) || (c == '.' && index + 1 < length && Character.isDigit(source.charAt(index + 1)))) {
+                end = index + 1;
+                while (end < length && (Character.isLetterOrDigit(source.charAt(end)) || source.charAt(end) == '_'
+                        || (source.charAt(end) == '.' && !startsWith(source, end, "..")))) {
+                    end++;
+                }
+                symbol = NUMBER;
+            } else if(c == '"') {
+                end = language == CodeAnalyser.Language.JAVA && startsWith(source, index, "\"\"\"")
+                        ? textBlock(source, index)
+                        : literal(source, index, '"');
+                symbol = STRING;
+            } else if(c == '\'' && (!ada || (index + 2 < length && source.charAt(index + 2) == '\''))) {
+                end = ada ? index + 3 : literal(source, index, '\'');
+                symbol = CHARACTER;
+            } else {
+                end = index + operator(source, index);
+                symbol = source.substring(index, end).hashCode();
+            }
+
+            // Remember where the token starts and ends, literals may span several lines.
+            int startLine = line;
+            int startColumn = column;
+            int text = source.substring(index, end).hashCode();
+            for (; index < end - 1; index++) {
+                if(source.charAt(index) == '\n') {
+                    line++;
+                    column = 1;
+                } else {
+                    column++;
+                }
+            }
+            buffer.add(symbol, text, startLine, startColumn, line, column);
+            index++;
+            column++;
+        }
+
+        return buffer.toTokenData(path);
+    }
+
+    /**
+     * Finds the end of a string or character literal. Literals end at the line end if they are not closed.
+     * @param source content of the file
+     * @param index position of the opening quote
+     * @param quote quote character
+     * @return position after the literal
+     */
+    private int literal(String source, int index, char quote) {
+        int end = index + 1;
+        while (end < source.length()) {
+            char c = source.charAt(end);
+            if(c == '\\' && !ada) {
+                end += 2;
+                continue;
+            }
+
+            if(c == quote && ada && end + 1 < source.length() && source.charAt(end + 1) == quote) {
+                end += 2;
+                continue;
+            }
+
+            if(c == '\n') {
+                return end;
+            }
+
+            end++;
+            if(c == quote) {
+                return end;
+            }
+        }
+        return Math.min(end, source.length());
+    }
+
+    private int textBlock(String source, int index) {
+        int end = source.indexOf("\"\"\"", index + 3);
+        while (end > 0 && source.charAt(end - 1) == '\\') {
+            end = source.indexOf("\"\"\"", end + 1);
+        }
+        return end < 0 ? source.length() : end + 3;
+    }
+
+    private int operator(String source, int index) {
+        for (String operator : operators) {
+            if(startsWith(source, index, operator)) {
+                return operator.length();
+            }
+        }
+        return 1;
+    }
+
+    private boolean startsWith(String source, int index, String prefix) {
+        return source.startsWith(prefix, index);
+    }
+
+    /**
+     * Growing columns of the tokens of a file.
+     */
+    private static class Buffer {
+
+        private int[] symbols = new int[1024];
+
+        private int[] texts = new int[1024];
+
+        private int[] startLines = new int[1024];
+
+        private int[] startColumns = new int[1024];
+
+        private int[] endLines = new int[1024];
+
+        private int[] endColumns = new int[1024];
+
+        private int size;
+
+        private int linesOfCode;
+
+        private int lastLine;
+
+        public void add(int symbol, int text, int startLine, int startColumn, int endLine, int endColumn) {
+            if(size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+                startLines = Arrays.copyOf(startLines, size * 2);
+                startColumns = Arrays.copyOf(startColumns, size * 2);
+                endLines = Arrays.copyOf(endLines, size * 2);
+                endColumns = Arrays.copyOf(endColumns, size * 2);
+            }
+
+            symbols[size] = symbol;
+            texts[size] = text;
+            startLines[size] = startLine;
+            startColumns[size] = startColumn;
+            endLines[size] = endLine;
+            endColumns[size] = endColumn;
+            size++;
+
+            // Every line with at least one token is a line of code.
+            linesOfCode += endLine - Math.max(startLine, lastLine + 1) + 1;
+            lastLine = Math.max(lastLine, endLine);
+        }
+
+        public TokenData toTokenData(String path) {
+            return new TokenData(path, Arrays.copyOf(symbols, size), Arrays.copyOf(texts, size),
+                    Arrays.copyOf(startLines, size), Arrays.copyOf(startColumns, size),
+                    Arrays.copyOf(endLines, size), Arrays.copyOf(endColumns, size), linesOfCode);
+        }
+
+    }
+
+}
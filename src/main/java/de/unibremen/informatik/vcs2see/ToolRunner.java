@@ -0,0 +1,27 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Runs the external tools of the analysis. Implementations may keep processes alive between
+ * revisions and release them on {@link #close()}, or replace the tools with fakes.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public interface ToolRunner extends Closeable {
+
+    /**
+     * Runs an external tool and waits for it to finish.
+     * @param processBuilder prepared command and working directory
+     * @param name name of the analysed revision, the output of all tools of a revision is grouped by it
+     * @throws IOException if the tool could not be started, failed or timed out
+     */
+    void run(ProcessBuilder processBuilder, String name) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+}
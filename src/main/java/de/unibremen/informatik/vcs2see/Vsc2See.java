@@ -5,11 +5,27 @@ import de.unibremen.informatik.vcs2see.data.RepositoryData;
 import de.unibremen.informatik.vcs2see.predicates.BauhausPathPredicate;
 import de.unibremen.informatik.vcs2see.predicates.CpfCsv2RfgPathPredicate;
 import de.unibremen.informatik.vcs2see.predicates.RepositoryPathPredicate;
-import org.xml.sax.SAXException;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -22,6 +38,9 @@ import java.util.stream.Collectors;
  */
 public class Vsc2See {
 
+    private static final List<String> REPOSITORY_OPTIONS = List.of("--name", "--path", "--base-path", "--type",
+            "--language", "--from", "--to");
+
     private final PropertiesManager propertiesManager;
 
     private final ConsoleManager consoleManager;
@@ -35,6 +54,12 @@ public class Vsc2See {
         this.consoleManager = new ConsoleManager();
     }
 
+    Vsc2See(EnvironmentData environmentData, RepositoryData repositoryData) {
+        this();
+        this.environmentData = environmentData;
+        this.repositoryData = repositoryData;
+    }
+
     /**
      * Outputs the logo in the console.
      */
@@ -69,6 +94,7 @@ public class Vsc2See {
 
         environmentData.setBauhausPath(propertySetupStep("path.bauhaus", new BauhausPathPredicate()));
         environmentData.setCpfcsv2rfgPath(propertySetupStep("path.cpfcsv2rfg", new CpfCsv2RfgPathPredicate()));
+        environmentData.setBasePathFilter(propertiesManager.getProperty("path.base").orElse(null));
 
         return environmentData;
     }
@@ -143,14 +169,345 @@ public class Vsc2See {
         return repositoryData;
     }
 
+    /**
+     * Applies the command line options to the environment and repository settings of the setup.
+     * @param args command line options
+     */
+    public void configure(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers":
+                    i = option(args, i, Integer::parseInt, environmentData::setWorkers, "Invalid number of workers");
+                    break;
+
+                case "--checkpoint":
+                    i = option(args, i, Integer::parseInt, environmentData::setCheckpointInterval, "Invalid checkpoint interval");
+                    break;
+
+                case "--progress":
+                    i = option(args, i, Integer::parseInt, environmentData::setProgressInterval, "Invalid progress interval");
+                    break;
+
+                case "--analyser":
+                    i = option(args, i, constant(Analyser.Backend.class), environmentData::setAnalyser, "Invalid analyser, expected bauhaus or java");
+                    break;
+
+                case "--converter":
+                    i = option(args, i, constant(CodeAnalyser.Converter.class), environmentData::setConverter, "Invalid converter, expected java or rfgexport");
+                    break;
+
+                case "--diff":
+                    i = option(args, i, constant(DiffProvider.Backend.class), environmentData::setDiff, "Invalid diff, expected libvcs4j or myers");
+                    break;
+
+                case "--output":
+                    i = option(args, i, constant(RepositoryCrawler.Output.class), environmentData::setOutput, "Invalid output, expected gxl, gzip or delta");
+                    break;
+
+                case "--export":
+                    i = option(args, i, this::parseRange, range -> {
+                        environmentData.setExportFrom(range[0]);
+                        environmentData.setExportTo(range[1]);
+                    }, "Invalid export range, expected all, <index> or <from>-<to>");
+                    break;
+
+                case "--tool-output":
+                    i = option(args, i, constant(ProcessToolRunner.Output.class), environmentData::setToolOutput, "Invalid tool output, expected discard, log or console");
+                    break;
+
+                case "--tool-timeout":
+                    i = option(args, i, Long::parseLong, environmentData::setToolTimeout, "Invalid tool timeout");
+                    break;
+
+                case "--config":
+                    // Read by the headless run before the other options.
+                    i++;
+                    break;
+
+                case "--name":
+                    i = option(args, i, repositoryData::setName);
+                    break;
+
+                case "--path":
+                    i = option(args, i, repositoryData::setPath);
+                    break;
+
+                case "--base-path":
+                    i = option(args, i, repositoryData::setBasePath);
+                    break;
+
+                case "--type":
+                    i = option(args, i, constant(RepositoryCrawler.Type.class), repositoryData::setType, "Invalid type");
+                    break;
+
+                case "--language":
+                    i = option(args, i, constant(CodeAnalyser.Language.class), repositoryData::setLanguage, "Invalid language");
+                    break;
+
+                case "--from":
+                    i = option(args, i, repositoryData::setFrom);
+                    break;
+
+                case "--to":
+                    i = option(args, i, repositoryData::setTo);
+                    break;
+
+                case "--since":
+                    i = option(args, i, value -> BatchManager.parseDate(value, LocalTime.MIN), repositoryData::setSince,
+                            "Invalid date, expected e.g. 2021-06-30 or 2021-06-30T12:00:00");
+                    break;
+
+                case "--until":
+                    i = option(args, i, value -> BatchManager.parseDate(value, LocalTime.MAX), repositoryData::setUntil,
+                            "Invalid date, expected e.g. 2021-06-30 or 2021-06-30T12:00:00");
+                    break;
+
+                case "--stride":
+                    i = option(args, i, Integer::parseInt, repositoryData::setStride, "Invalid stride");
+                    break;
+
+                case "--max-count":
+                    i = option(args, i, Integer::parseInt, repositoryData::setMaxCount, "Invalid maximum number of commits");
+                    break;
+
+                case "--parallel":
+                    i = option(args, i, Integer::parseInt, environmentData::setParallel, "Invalid number of parallel repositories");
+                    break;
+
+                case "--pool":
+                    i = option(args, i, Integer::parseInt, environmentData::setPoolSize, "Invalid pool size");
+                    break;
+
+                case "--max-processes":
+                    i = option(args, i, Integer::parseInt, environmentData::setMaxProcesses, "Invalid maximum number of processes");
+                    break;
+
+                case "--statistics":
+                    environmentData.setStatistics(true);
+                    break;
+
+                case "--resume":
+                    environmentData.setResume(true);
+                    break;
+
+                case "--filter-workspaces":
+                    environmentData.setFilterWorkspaces(true);
+                    break;
+
+                case "--verify-workspaces":
+                    environmentData.setVerifyWorkspaces(true);
+                    break;
+
+                default:
+                    consoleManager.print("Unknown option " + args[i] + ", see --help");
+                    break;
+            }
+        }
+
+        if((repositoryData.getFrom() != null || repositoryData.getTo() != null)
+                && (repositoryData.getSince() != null || repositoryData.getUntil() != null)) {
+            consoleManager.print("Revision range and date range cannot be combined, the date range is ignored");
+        }
+    }
+
+    /**
+     * Parses the value of a command line option and passes it to a setter. A missing or invalid value is reported
+     * on the console and the setting is left unchanged.
+     * @param args command line options
+     * @param i index of the option
+     * @param parser parses the value, throws an IllegalArgumentException or a DateTimeParseException if it is invalid
+     * @param setter receives the parsed value
+     * @param error message for an invalid value
+     * @param <T> type of the value
+     * @return index of the last argument which belongs to the option
+     */
+    private <T> int option(String[] args, int i, Function<String, T> parser, Consumer<T> setter, String error) {
+        if(i + 1 >= args.length) {
+            consoleManager.print("Missing value for " + args[i]);
+            return i;
+        }
+
+        try {
+            setter.accept(parser.apply(args[i + 1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            consoleManager.print(error);
+        }
+        return i + 1;
+    }
+
+    /**
+     * Passes the value of a command line option to a setter without parsing it.
+     * @param args command line options
+     * @param i index of the option
+     * @param setter receives the value
+     * @return index of the last argument which belongs to the option
+     */
+    private int option(String[] args, int i, Consumer<String> setter) {
+        return option(args, i, Function.identity(), setter, null);
+    }
+
+    /**
+     * Creates a parser for the constants of an enum, which ignores the case of the value.
+     * @param type type of the enum
+     * @param <E> type of the enum
+     * @return parser
+     */
+    private static <E extends Enum<E>> Function<String, E> constant(Class<E> type) {
+        return value -> Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Parses the range of revisions to be exported.
+     * @param range all, an index or two indices separated by a dash
+     * @return first and last index
+     */
+    private int[] parseRange(String range) {
+        int separator = range.indexOf('-');
+        if(range.equals("all")) {
+            return new int[]{1, Integer.MAX_VALUE};
+        } else if(separator < 0) {
+            return new int[]{Integer.parseInt(range), Integer.parseInt(range)};
+        }
+        return new int[]{Integer.parseInt(range.substring(0, separator)), Integer.parseInt(range.substring(separator + 1))};
+    }
+
+    /**
+     * Runs without the interactive setup. The repositories and settings are read from the config file given with
+     * --config, or from the command line options and the properties file for a single repository. A missing
+     * properties file is read as an empty one. The options of a single repository, like --name or --path, cannot be
+     * combined with the repositories of a config file, the other options apply to all of its repositories. All
+     * repositories are crawled in this JVM, each into its own folder with its own report. Up to --parallel
+     * repositories are crawled at the same time and share a pool of --pool threads for their analyses, with at most
+     * --max-processes external processes at the same time. A failed repository does not stop the others.
+     * @param args command line options
+     * @return true if all repositories were crawled
+     * @throws IOException if the config file is missing or invalid, or the options do not fit its repositories
+     */
+    public boolean batch(String[] args) throws IOException {
+        List<String> options = Arrays.asList(args);
+        int config = options.indexOf("--config");
+        BatchManager batchManager = config >= 0 && config + 1 < args.length
+                ? new BatchManager(new File(args[config + 1]))
+                : new BatchManager(new File("vsc2see.properties"), false);
+
+        List<RepositoryData> repositories = config >= 0 ? batchManager.loadRepositories() : List.of();
+        if(repositories.isEmpty()) {
+            RepositoryData repositoryData = new RepositoryData();
+            repositoryData.setBasePath("src/main/java");
+            repositories = List.of(repositoryData);
+        } else {
+            for (String option : REPOSITORY_OPTIONS) {
+                if(options.contains(option)) {
+                    throw new IOException("Option " + option + " cannot be combined with the repositories of --config");
+                }
+            }
+
+            // Each repository is written to a folder with its name, so two repositories must not share one.
+            Set<String> names = new HashSet<>();
+            for (RepositoryData repository : repositories) {
+                if(!names.add(repository.getName().toLowerCase(Locale.ROOT))) {
+                    throw new IOException("Repository name " + repository.getName() + " is used more than once");
+                }
+            }
+        }
+
+        List<String> failed = new ArrayList<>();
+        List<Map.Entry<RepositoryData, EnvironmentData>> crawls = new ArrayList<>();
+        for (RepositoryData repository : repositories) {
+            // Every repository starts with the settings of the file, the remaining options apply to all of them.
+            this.environmentData = batchManager.loadEnvironment();
+            this.repositoryData = repository;
+            configure(args);
+
+            if(repositoryData.getName() == null || repositoryData.getType() == null
+                    || repositoryData.getLanguage() == null || repositoryData.getPath() == null) {
+                consoleManager.print("Name, type, language and path of the repository are required");
+                failed.add(String.valueOf(repositoryData.getName()));
+                continue;
+            }
+
+            if(!new RepositoryPathPredicate(repositoryData.getType()).test(repositoryData.getPath())) {
+                failed.add(repositoryData.getName());
+                continue;
+            }
+            crawls.add(Map.entry(repositoryData, environmentData));
+        }
+
+        if(crawls.isEmpty()) {
+            consoleManager.print("No repository to crawl");
+            return false;
+        }
+
+        // The repositories are crawled side by side, their analyses share the threads and process slots of one pool.
+        int threads = environmentData.getPoolSize() > 0 ? environmentData.getPoolSize() : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, environmentData.getParallel()));
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        try (WorkerPool workerPool = new WorkerPool(threads, environmentData.getMaxProcesses())) {
+            for (Map.Entry<RepositoryData, EnvironmentData> crawl : crawls) {
+                futures.put(crawl.getKey().getName(), executor.submit(() -> {
+                    consoleManager.print("Start crawling " + crawl.getKey().getName());
+                    run(crawl.getValue(), crawl.getKey(), workerPool);
+                    return null;
+                }));
+            }
+
+            for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    System.err.println("Failed to crawl " + future.getKey() + ": " + e.getCause().getMessage());
+                    failed.add(future.getKey());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while crawling " + future.getKey());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        consoleManager.printLine();
+        consoleManager.print("Crawled " + (repositories.size() - failed.size()) + " of " + repositories.size() + " repositories");
+        if(!failed.isEmpty()) {
+            consoleManager.print("Failed: " + String.join(", ", failed));
+        }
+        return failed.isEmpty();
+    }
+
     /**
      * Starts crawling and analysing the repository.
      * @throws IOException exception
-     * @throws SAXException exception
      */
-    public void run() throws IOException, SAXException {
+    public void run() throws IOException {
+        run(environmentData, repositoryData, null);
+    }
+
+    /**
+     * Starts crawling and analysing a repository.
+     * @param environmentData all the required information about the environment
+     * @param repositoryData all the required information about the repository
+     * @param workerPool pool shared with other repositories, or null
+     * @throws IOException exception
+     */
+    private void run(EnvironmentData environmentData, RepositoryData repositoryData, WorkerPool workerPool) throws IOException {
+        // Export GXL files from the history archive of a previous crawl instead of crawling.
+        if(environmentData.getExportFrom() > 0) {
+            File folder = new File(repositoryData.getName());
+            File file = new File(folder, repositoryData.getName() + ".history");
+            if(!file.exists()) {
+                consoleManager.print("No history archive found: " + file.getPath());
+                return;
+            }
+
+            try (HistoryArchive historyArchive = new HistoryArchive(file)) {
+                historyArchive.export(environmentData.getExportFrom(), environmentData.getExportTo(), folder, repositoryData.getName(), new GxlIO());
+                consoleManager.print("Exported " + historyArchive.size() + " revisions available in " + file.getPath());
+            }
+            return;
+        }
+
         // Start crawling the repository.
-        RepositoryCrawler repositoryCrawler = new RepositoryCrawler(repositoryData, environmentData);
+        RepositoryCrawler repositoryCrawler = new RepositoryCrawler(repositoryData, environmentData, workerPool);
         repositoryCrawler.crawl();
     }
 
@@ -199,12 +556,30 @@ public class Vsc2See {
      * The entry point of the application.
      * Perform steps of the sequence one by one.
      *
-     * @param args ignored
+     * With --config or --name, the application runs headless without the interactive setup.
+     * With --help, only the command line options are printed.
+     *
+     * @param args command line options, e.g. --analyser java --converter java --diff myers --output delta --since 2021-01-01 --stride 10 --workers 4 --filter-workspaces --verify-workspaces --checkpoint 100 --resume --statistics --progress 50 --tool-output log --tool-timeout 3600,
+     *             and for a headless run --config batch.properties or --name --type --language --path --base-path
      */
-    public static void main(String[] args) throws IOException, SAXException {
+    public static void main(String[] args) throws IOException {
         Vsc2See software = new Vsc2See();
+        List<String> options = Arrays.asList(args);
+        if(options.contains("--help") || options.contains("-h")) {
+            software.consoleManager.printUsage();
+            return;
+        }
+
+        if(options.contains("--config") || options.contains("--name")) {
+            if(!software.batch(args)) {
+                System.exit(1);
+            }
+            return;
+        }
+
         software.welcome();
         software.setup();
+        software.configure(args);
         software.run();
     }
 
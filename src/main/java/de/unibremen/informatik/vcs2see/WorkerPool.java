@@ -0,0 +1,175 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Component which runs the analyses of one or more repositories on a bounded number of threads.
+ * Every repository has its own queue and the threads take one task of each queue in turn, so a repository
+ * with many pending revisions does not starve the others. The number of external processes running at
+ * the same time can be limited independently of the number of threads.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class WorkerPool implements Closeable {
+
+    private final Map<String, Deque<FutureTask<?>>> queues;
+
+    /**
+     * Queues with pending tasks in the order in which they get their next turn.
+     */
+    private final Deque<String> turns;
+
+    private final Semaphore processes;
+
+    private boolean closed;
+
+    /**
+     * Initialization for the WorkerPool.
+     * @param threads number of threads
+     * @param maxProcesses maximum number of external processes at the same time, unlimited if 0 or less
+     */
+    public WorkerPool(int threads, int maxProcesses) {
+        this.queues = new HashMap<>();
+        this.turns = new ArrayDeque<>();
+        this.processes = maxProcesses > 0 ? new Semaphore(maxProcesses, true) : null;
+
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            Thread thread = new Thread(this::work, "vcs2see-worker-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Adds a task to the queue of a repository.
+     * @param queue name of the repository
+     * @param task task to run
+     * @param <T> type of the result
+     * @return result of the task
+     */
+    public <T> Future<T> submit(String queue, Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        synchronized (this) {
+            if(closed) {
+                throw new RejectedExecutionException("Worker pool is closed");
+            }
+
+            Deque<FutureTask<?>> tasks = queues.computeIfAbsent(queue, key -> new ArrayDeque<>());
+            if(tasks.isEmpty()) {
+                turns.addLast(queue);
+            }
+            tasks.addLast(future);
+            notify();
+        }
+        return future;
+    }
+
+    /**
+     * Wraps a tool runner, so that it waits for a free process slot of this pool before starting a tool.
+     * @param toolRunner tool runner to wrap
+     * @return limited tool runner, or the same tool runner if the processes are unlimited
+     */
+    public ToolRunner limit(ToolRunner toolRunner) {
+        if(processes == null) {
+            return toolRunner;
+        }
+        return new LimitedToolRunner(toolRunner, processes);
+    }
+
+    /**
+     * Stops the threads after the pending tasks are finished.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    private void work() {
+        try {
+            FutureTask<?> task;
+            while ((task = take()) != null) {
+                task.run();
+
+                // A cancelled task may leave the interrupt flag set for the next one.
+                Thread.interrupted();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the next task, taking the queues in turn.
+     * @return next task or null if the pool is closed and all tasks are finished
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private synchronized FutureTask<?> take() throws InterruptedException {
+        while (turns.isEmpty()) {
+            if(closed) {
+                return null;
+            }
+            wait();
+        }
+
+        String queue = turns.pollFirst();
+        Deque<FutureTask<?>> tasks = queues.get(queue);
+        FutureTask<?> task = tasks.pollFirst();
+        if(tasks.isEmpty()) {
+            queues.remove(queue);
+        } else {
+            turns.addLast(queue);
+        }
+        return task;
+    }
+
+    /**
+     * Tool runner which holds a permit of a shared semaphore while a tool is running.
+     */
+    private static class LimitedToolRunner implements ToolRunner {
+
+        private final ToolRunner toolRunner;
+
+        private final Semaphore processes;
+
+        public LimitedToolRunner(ToolRunner toolRunner, Semaphore processes) {
+            this.toolRunner = toolRunner;
+            this.processes = processes;
+        }
+
+        @Override
+        public void run(ProcessBuilder processBuilder, String name) throws IOException {
+            try {
+                processes.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a process slot");
+            }
+
+            try {
+                toolRunner.run(processBuilder, name);
+            } finally {
+                processes.release();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            toolRunner.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,240 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Component which keeps a persistent working tree and the worker directories in sync with the current revision.
+ * The working tree is copied from the checkout of LibVCS4j once for the first revision of the crawl, which may
+ * start anywhere in the history. Afterwards only the file changes of each revision are written into it, with the
+ * content read from the repository, which covers added, modified, deleted and relocated files. The analysis reads
+ * the working tree, so the checkout is only needed to verify it.
+ * A worker directory is only copied completely from the working tree before its first analysis. Afterwards only
+ * the paths which changed since its last analysis are copied or deleted.
+ * Optionally only the files of the language below the base path are kept, and the working tree is compared with
+ * the checkout and every worker directory with the working tree after it was updated.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+public class WorkspaceMaterializer {
+
+    private final Path tree;
+
+    private final Path checkout;
+
+    private final SourceFiles sourceFiles;
+
+    private final boolean filter;
+
+    private final boolean verify;
+
+    private final Set<Path> initialized;
+
+    private boolean seeded;
+
+    /**
+     * Initialization for the WorkspaceMaterializer.
+     * @param tree directory of the persistent working tree
+     * @param checkout directory of the revision checked out by LibVCS4j
+     * @param repositoryData all the required information about the repository
+     * @param filter true if only the files of the language below the base path are kept
+     * @param verify true if the working tree and the worker directories are compared after each update
+     */
+    public WorkspaceMaterializer(File tree, File checkout, RepositoryData repositoryData, boolean filter, boolean verify) {
+        this.tree = tree.toPath();
+        this.checkout = checkout.toPath();
+        this.sourceFiles = new SourceFiles(repositoryData);
+        this.filter = filter;
+        this.verify = verify;
+        this.initialized = new HashSet<>();
+    }
+
+    /**
+     * Updates the working tree to the next revision.
+     * @param fileChanges changes of the revision compared to the previous one
+     * @throws IOException if a file could not be written or the verification failed
+     */
+    public void update(List<FileChange> fileChanges) throws IOException {
+        if(!seeded) {
+            // The changes of the first revision are relative to a revision which was never written.
+            synchronize(checkout, tree);
+            seeded = true;
+        } else {
+            for (FileChange fileChange : fileChanges) {
+                Optional<VCSFile> oldFile = fileChange.getOldFile();
+                Optional<VCSFile> newFile = fileChange.getNewFile();
+                String oldPath = oldFile.map(this::relative).orElse(null);
+                String newPath = newFile.map(this::relative).orElse(null);
+                if(oldPath != null && !oldPath.equals(newPath) && isIncluded(oldPath)) {
+                    Files.deleteIfExists(tree.resolve(oldPath));
+                }
+                if(newPath != null && isIncluded(newPath)) {
+                    Path to = tree.resolve(newPath);
+                    Files.createDirectories(to.getParent());
+                    Files.write(to, newFile.get().readAllBytes());
+                }
+            }
+        }
+
+        if(verify) {
+            verify(checkout, tree);
+        }
+    }
+
+    /**
+     * Updates a worker directory to the working tree.
+     * @param workspace worker directory
+     * @param changedPaths paths relative to the working tree which changed since the last update of the worker
+     *                     directory, or null if they are unknown
+     * @throws IOException if a file could not be copied or the verification failed
+     */
+    public void materialize(File workspace, Set<String> changedPaths) throws IOException {
+        Path target = workspace.toPath();
+        if(changedPaths == null || initialized.add(target)) {
+            synchronize(tree, target);
+        } else {
+            for (String changedPath : changedPaths) {
+                String relative = changedPath.replace('\\', '/');
+                if(isIncluded(relative)) {
+                    apply(tree, target, relative);
+                }
+            }
+        }
+
+        if(verify) {
+            verify(tree, target);
+        }
+    }
+
+    /**
+     * Copies or deletes a single file of a directory.
+     * @param source directory which is copied
+     * @param target directory which is updated
+     * @param relative path relative to the working tree
+     * @throws IOException exception
+     */
+    private void apply(Path source, Path target, String relative) throws IOException {
+        Path from = source.resolve(relative);
+        Path to = target.resolve(relative);
+        if(Files.isRegularFile(from)) {
+            Files.createDirectories(to.getParent());
+            Files.copy(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        } else {
+            Files.deleteIfExists(to);
+        }
+    }
+
+    /**
+     * Compares a directory with another one file by file and only copies files whose content differs.
+     * Files of the same size are compared byte by byte, the modification time says nothing about the content.
+     * Files which are not part of the other directory are deleted.
+     * @param source directory which is copied
+     * @param target directory which is updated
+     * @throws IOException exception
+     */
+    private void synchronize(Path source, Path target) throws IOException {
+        Map<String, Path> expected = files(source);
+        Map<String, Path> actual = files(target);
+        for (Map.Entry<String, Path> entry : actual.entrySet()) {
+            if(!expected.containsKey(entry.getKey())) {
+                Files.delete(entry.getValue());
+            }
+        }
+
+        for (Map.Entry<String, Path> entry : expected.entrySet()) {
+            Path to = actual.get(entry.getKey());
+            if(to == null || Files.size(to) != Files.size(entry.getValue())
+                    || !Arrays.equals(Files.readAllBytes(to), Files.readAllBytes(entry.getValue()))) {
+                apply(source, target, entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Compares the content of a directory with another one.
+     * @param source directory which was copied
+     * @param target directory which was updated
+     * @throws IOException if a file is missing, unexpected or has another content
+     */
+    private void verify(Path source, Path target) throws IOException {
+        Map<String, Path> expected = files(source);
+        Map<String, Path> actual = files(target);
+        for (String path : actual.keySet()) {
+            if(!expected.containsKey(path)) {
+                throw new IOException("Directory " + target + " contains " + path + " which is not in " + source);
+            }
+        }
+
+        for (Map.Entry<String, Path> entry : expected.entrySet()) {
+            Path to = actual.get(entry.getKey());
+            if(to == null) {
+                throw new IOException("Directory " + target + " misses " + entry.getKey());
+            }
+            if(!Arrays.equals(Files.readAllBytes(entry.getValue()), Files.readAllBytes(to))) {
+                throw new IOException("Directory " + target + " has another content of " + entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Collects the files of a directory which are kept in the working tree and the worker directories.
+     * @param root checkout, working tree or worker directory
+     * @return files by path relative to the directory
+     * @throws IOException exception
+     */
+    private Map<String, Path> files(Path root) throws IOException {
+        Map<String, Path> files = new TreeMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                String relative = relative(root, directory);
+                return !relative.isEmpty() && sourceFiles.isIgnored(relative)
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                String relative = relative(root, file);
+                if(attributes.isRegularFile() && isIncluded(relative)) {
+                    files.put(relative, file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+        return files;
+    }
+
+    private boolean isIncluded(String relative) {
+        return filter ? sourceFiles.linkageName(relative) != null : !sourceFiles.isIgnored(relative);
+    }
+
+    private String relative(VCSFile file) {
+        return file.getRelativePath().replace('\\', '/');
+    }
+
+    private String relative(Path root, Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+}
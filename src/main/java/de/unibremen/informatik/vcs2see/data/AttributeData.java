@@ -0,0 +1,14 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+@Data
+public class AttributeData {
+
+    private final String name;
+
+    private final String type;
+
+    private final String value;
+
+}
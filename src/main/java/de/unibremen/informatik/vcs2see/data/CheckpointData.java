@@ -0,0 +1,12 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+@Data
+public class CheckpointData {
+
+    private final int index;
+
+    private final String commitId;
+
+}
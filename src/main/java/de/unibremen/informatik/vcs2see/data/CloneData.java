@@ -0,0 +1,20 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+@Data
+public class CloneData {
+
+    private final String source;
+
+    private final int sourceStart;
+
+    private final String target;
+
+    private final int targetStart;
+
+    private final int length;
+
+    private final int type;
+
+}
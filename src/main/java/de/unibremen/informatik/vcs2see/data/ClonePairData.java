@@ -0,0 +1,30 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+@Data
+public class ClonePairData {
+
+    private final String source;
+
+    private final int sourceStartLine;
+
+    private final int sourceStartColumn;
+
+    private final int sourceEndLine;
+
+    private final int sourceEndColumn;
+
+    private final String target;
+
+    private final int targetStartLine;
+
+    private final int targetStartColumn;
+
+    private final int targetEndLine;
+
+    private final int targetEndColumn;
+
+    private final int type;
+
+}
@@ -0,0 +1,14 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+import java.util.regex.Pattern;
+
+@Data
+public class ConfigurationData {
+
+    private final Pattern basePathPattern;
+
+    private final Pattern languagePattern;
+
+}
@@ -0,0 +1,22 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ElementData {
+
+    private final boolean edge;
+
+    private final String id;
+
+    private final String type;
+
+    private final String from;
+
+    private final String to;
+
+    private final List<AttributeData> attributes;
+
+}
@@ -1,5 +1,10 @@
 package de.unibremen.informatik.vcs2see.data;
 
+import de.unibremen.informatik.vcs2see.Analyser;
+import de.unibremen.informatik.vcs2see.CodeAnalyser;
+import de.unibremen.informatik.vcs2see.DiffProvider;
+import de.unibremen.informatik.vcs2see.ProcessToolRunner;
+import de.unibremen.informatik.vcs2see.RepositoryCrawler;
 import lombok.Data;
 
 @Data
@@ -9,4 +14,42 @@ public class EnvironmentData {
 
     private String cpfcsv2rfgPath;
 
+    private String basePathFilter;
+
+    private Analyser.Backend analyser = Analyser.Backend.BAUHAUS;
+
+    private CodeAnalyser.Converter converter = CodeAnalyser.Converter.RFGEXPORT;
+
+    private DiffProvider.Backend diff = DiffProvider.Backend.LIBVCS4J;
+
+    private RepositoryCrawler.Output output = RepositoryCrawler.Output.GXL;
+
+    private int exportFrom;
+
+    private int exportTo;
+
+    private int workers = 1;
+
+    private int parallel = 1;
+
+    private int poolSize;
+
+    private int maxProcesses;
+
+    private boolean filterWorkspaces;
+
+    private boolean verifyWorkspaces;
+
+    private int checkpointInterval = 100;
+
+    private boolean resume;
+
+    private boolean statistics;
+
+    private int progressInterval;
+
+    private ProcessToolRunner.Output toolOutput = ProcessToolRunner.Output.LOG;
+
+    private long toolTimeout = 3600;
+
 }
@@ -0,0 +1,23 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+public class GraphData {
+
+    private String systemId;
+
+    private Map<String, String> gxlAttributes = new TreeMap<>();
+
+    private Map<String, String> graphAttributes = new TreeMap<>();
+
+    private List<AttributeData> attributes = new ArrayList<>();
+
+    private List<ElementData> elements = new ArrayList<>();
+
+}
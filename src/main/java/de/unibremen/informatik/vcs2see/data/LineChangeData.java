@@ -0,0 +1,16 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+@Data
+public class LineChangeData {
+
+    private final int lineChanges;
+
+    private final int added;
+
+    private final int edited;
+
+    private final int deleted;
+
+}
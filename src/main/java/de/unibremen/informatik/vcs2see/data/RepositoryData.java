@@ -4,6 +4,8 @@ import de.unibremen.informatik.vcs2see.CodeAnalyser;
 import de.unibremen.informatik.vcs2see.RepositoryCrawler;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class RepositoryData {
 
@@ -17,4 +19,16 @@ public class RepositoryData {
 
     private String basePath;
 
+    private String from;
+
+    private String to;
+
+    private LocalDateTime since;
+
+    private LocalDateTime until;
+
+    private int stride = 1;
+
+    private int maxCount;
+
 }
@@ -0,0 +1,28 @@
+package de.unibremen.informatik.vcs2see.data;
+
+import lombok.Data;
+
+@Data
+public class TokenData {
+
+    private final String path;
+
+    private final int[] symbols;
+
+    private final int[] texts;
+
+    private final int[] startLines;
+
+    private final int[] startColumns;
+
+    private final int[] endLines;
+
+    private final int[] endColumns;
+
+    private final int linesOfCode;
+
+    public int size() {
+        return symbols.length;
+    }
+
+}
@@ -0,0 +1,80 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchManagerTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void missingConfigIsRefused() {
+        File file = temp.resolve("missing.properties").toFile();
+
+        assertThrows(IOException.class, () -> new BatchManager(file));
+    }
+
+    @Test
+    void missingOptionalConfigIsEmpty() throws IOException {
+        File file = temp.resolve("missing.properties").toFile();
+        BatchManager batchManager = new BatchManager(file, false);
+
+        assertEquals(new EnvironmentData(), batchManager.loadEnvironment());
+        assertTrue(batchManager.loadRepositories().isEmpty());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void repositoriesAreRead() throws IOException {
+        Path file = temp.resolve("batch.properties");
+        Files.writeString(file, "workers=4\n"
+                + "repositories=alpha, beta\n"
+                + "repository.alpha.type=GIT\n"
+                + "repository.alpha.language=JAVA\n"
+                + "repository.alpha.path=/repositories/alpha\n"
+                + "repository.alpha.stride=10\n"
+                + "repository.beta.name=gamma\n"
+                + "repository.beta.type=GIT\n"
+                + "repository.beta.language=JAVA\n"
+                + "repository.beta.path=/repositories/beta\n"
+                + "repository.beta.base=src\n");
+        BatchManager batchManager = new BatchManager(file.toFile());
+
+        assertEquals(4, batchManager.loadEnvironment().getWorkers());
+
+        List<RepositoryData> repositories = batchManager.loadRepositories();
+        assertEquals(2, repositories.size());
+        assertEquals("alpha", repositories.get(0).getName());
+        assertEquals("src/main/java", repositories.get(0).getBasePath());
+        assertEquals(10, repositories.get(0).getStride());
+        assertEquals("gamma", repositories.get(1).getName());
+        assertEquals("/repositories/beta", repositories.get(1).getPath());
+        assertEquals("src", repositories.get(1).getBasePath());
+    }
+
+    @Test
+    void missingRequiredValueIsRefused() throws IOException {
+        Path file = temp.resolve("batch.properties");
+        Files.writeString(file, "repositories=alpha\n"
+                + "repository.alpha.type=GIT\n"
+                + "repository.alpha.language=JAVA\n");
+        BatchManager batchManager = new BatchManager(file.toFile());
+
+        assertThrows(IOException.class, batchManager::loadRepositories);
+    }
+
+}
@@ -0,0 +1,105 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.CheckpointData;
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointManagerTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void checkpointIsLoadedWithTheSameSettings() throws IOException {
+        File file = temp.resolve("test.checkpoint").toFile();
+        new CheckpointManager(file, repositoryData(), new EnvironmentData()).save(42, "abc", graphModifier());
+
+        Optional<CheckpointData> checkpointData = new CheckpointManager(file, repositoryData(), new EnvironmentData()).load(graphModifier());
+
+        assertTrue(checkpointData.isPresent());
+        assertEquals(new CheckpointData(42, "abc"), checkpointData.get());
+    }
+
+    @Test
+    void missingCheckpointIsEmpty() throws IOException {
+        File file = temp.resolve("test.checkpoint").toFile();
+
+        assertFalse(new CheckpointManager(file, repositoryData(), new EnvironmentData()).load(graphModifier()).isPresent());
+    }
+
+    @Test
+    void checkpointIsRefusedWithOtherRepositorySettings() throws IOException {
+        File file = temp.resolve("test.checkpoint").toFile();
+        new CheckpointManager(file, repositoryData(), new EnvironmentData()).save(42, "abc", graphModifier());
+
+        RepositoryData stride = repositoryData();
+        stride.setStride(5);
+        RepositoryData from = repositoryData();
+        from.setFrom("def");
+        RepositoryData to = repositoryData();
+        to.setTo("def");
+        RepositoryData maxCount = repositoryData();
+        maxCount.setMaxCount(100);
+
+        for (RepositoryData repositoryData : new RepositoryData[]{stride, from, to, maxCount}) {
+            CheckpointManager checkpointManager = new CheckpointManager(file, repositoryData, new EnvironmentData());
+            assertThrows(IOException.class, () -> checkpointManager.load(graphModifier()));
+        }
+    }
+
+    @Test
+    void checkpointIsRefusedWithOtherEnvironmentSettings() throws IOException {
+        File file = temp.resolve("test.checkpoint").toFile();
+        new CheckpointManager(file, repositoryData(), new EnvironmentData()).save(42, "abc", graphModifier());
+
+        EnvironmentData output = new EnvironmentData();
+        output.setOutput(RepositoryCrawler.Output.DELTA);
+        EnvironmentData analyser = new EnvironmentData();
+        analyser.setAnalyser(Analyser.Backend.JAVA);
+
+        for (EnvironmentData environmentData : new EnvironmentData[]{output, analyser}) {
+            CheckpointManager checkpointManager = new CheckpointManager(file, repositoryData(), environmentData);
+            IOException exception = assertThrows(IOException.class, () -> checkpointManager.load(graphModifier()));
+            assertTrue(exception.getMessage().contains("--resume"));
+        }
+    }
+
+    @Test
+    void otherSettingsDoNotMatter() throws IOException {
+        File file = temp.resolve("test.checkpoint").toFile();
+        new CheckpointManager(file, repositoryData(), new EnvironmentData()).save(42, "abc", graphModifier());
+
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setWorkers(8);
+        environmentData.setCheckpointInterval(10);
+
+        assertTrue(new CheckpointManager(file, repositoryData(), environmentData).load(graphModifier()).isPresent());
+    }
+
+    private GraphModifier graphModifier() {
+        return new GraphModifier(repositoryData());
+    }
+
+    private RepositoryData repositoryData() {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("test");
+        repositoryData.setType(RepositoryCrawler.Type.GIT);
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("src/main/java");
+        repositoryData.setStride(2);
+        return repositoryData;
+    }
+
+}
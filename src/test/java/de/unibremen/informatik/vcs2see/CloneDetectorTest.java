@@ -0,0 +1,59 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.CloneData;
+import de.unibremen.informatik.vcs2see.data.TokenData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CloneDetectorTest {
+
+    private static final String[] METHODS = {
+            "int sum(int[] values) { int sum = 0; for (int value : values) { sum += value; } return sum; }",
+            "int max(int[] values) { int max = values[0]; for (int value : values) { if(value > max) { max = value; } } return max; }",
+            "int count(int[] values) { int count = 0; for (int value : values) { if(value > 0) { count++; } } return count; }",
+            "void print(String text) { System.out.println(text); }"
+    };
+
+    private final Tokenizer tokenizer = new Tokenizer(CodeAnalyser.Language.JAVA);
+
+    @Test
+    void repeatedEditsFindTheSameClonesAsANewDetector() {
+        Random random = new Random(42);
+        CloneDetector cloneDetector = new CloneDetector(20);
+        boolean found = false;
+
+        for (int round = 0; round < 500; round++) {
+            // Edit a few files per round, some of them too short to be indexed, and remove one from time to time.
+            for (int edit = 0; edit < 3; edit++) {
+                String path = "a/F" + random.nextInt(6) + ".java";
+                if(random.nextInt(10) == 0) {
+                    cloneDetector.remove(path);
+                } else {
+                    cloneDetector.add(tokenize(path, random));
+                }
+            }
+
+            List<CloneData> clones = cloneDetector.detect();
+            CloneDetector fresh = new CloneDetector(20);
+            cloneDetector.getFiles().forEach(fresh::add);
+            assertEquals(fresh.detect(), clones, "round " + round);
+            found |= !clones.isEmpty();
+        }
+        assertTrue(found);
+    }
+
+    private TokenData tokenize(String path, Random random) {
+        StringBuilder source = new StringBuilder("class F {\n");
+        int methods = random.nextInt(4);
+        for (int i = 0; i < methods; i++) {
+            source.append(METHODS[random.nextInt(METHODS.length)]).append('\n');
+        }
+        return tokenizer.tokenize(path, source.append("}\n").toString());
+    }
+
+}
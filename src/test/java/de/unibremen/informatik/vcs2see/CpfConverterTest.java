@@ -0,0 +1,125 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CpfConverterTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void graphHasTheStructureOfRfgexport() throws IOException {
+        // The example is a graph of rfgexport from a real crawl, but neither the sources nor the CSV file of cpf
+        // were kept. The clone pairs are taken from its clone edges and the files are empty, so the metrics
+        // which are computed from the tokens are left out of the comparison.
+        GxlIO gxlIO = new GxlIO();
+        GraphData expected = gxlIO.readGraph(new File("example/example-82.gxl"));
+        Path tree = temp.resolve("tree");
+        Map<String, String> paths = new HashMap<>();
+        StringBuilder csv = new StringBuilder("File1;StartLine1;StartColumn1;EndLine1;EndColumn1;File2;StartLine2;StartColumn2;EndLine2;EndColumn2;CloneType\n");
+        for (ElementData element : expected.getElements()) {
+            if("File".equals(element.getType())) {
+                String path = "src/main/java/" + value(element, "Linkage.Name");
+                paths.put(element.getId(), path);
+                Files.createDirectories(tree.resolve(path).getParent());
+                Files.createFile(tree.resolve(path));
+            } else if("Clone".equals(element.getType())) {
+                csv.append(paths.get(element.getFrom()));
+                for (String position : List.of("Source.Start.Line", "Source.Start.Column", "Source.End.Line", "Source.End.Column")) {
+                    csv.append(';').append(value(element, "Clone." + position));
+                }
+                csv.append(';').append(paths.get(element.getTo()));
+                for (String position : List.of("Target.Start.Line", "Target.Start.Column", "Target.End.Line", "Target.End.Column")) {
+                    csv.append(';').append(value(element, "Clone." + position));
+                }
+                csv.append(';').append(value(element, "Clone.Type")).append('\n');
+            }
+        }
+        Path clones = Files.writeString(temp.resolve("example-82.csv"), csv);
+        File file = temp.resolve("example-82.gxl").toFile();
+
+        cpfConverter().convert(tree.toFile(), clones.toFile(), file);
+
+        assertEquals(4, csv.toString().split("\n").length - 1);
+        assertEquals(structure(expected), structure(gxlIO.readGraph(file)));
+    }
+
+    @Test
+    void unchangedTreeIsConvertedAgain() throws IOException, URISyntaxException {
+        CpfConverter cpfConverter = cpfConverter();
+        File first = temp.resolve("first.gxl").toFile();
+        File second = temp.resolve("second.gxl").toFile();
+
+        cpfConverter.convert(resource("tree").toFile(), resource("example-1.csv").toFile(), first);
+        cpfConverter.convert(resource("tree").toFile(), resource("example-1.csv").toFile(), second);
+
+        assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+    }
+
+    @Test
+    void missingColumnIsRefused() throws IOException, URISyntaxException {
+        Path csv = temp.resolve("missing.csv");
+        Files.writeString(csv, "File1;StartLine1;StartColumn1;EndLine1;EndColumn1;File2;StartLine2;StartColumn2;EndLine2\n");
+        File file = temp.resolve("missing.gxl").toFile();
+
+        assertThrows(IOException.class, () -> cpfConverter().convert(resource("tree").toFile(), csv.toFile(), file));
+    }
+
+    private CpfConverter cpfConverter() {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("example");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("src/main/java");
+        return new CpfConverter(repositoryData, StatisticsManager.disabled());
+    }
+
+    private Path resource(String name) throws URISyntaxException {
+        return Path.of(Objects.requireNonNull(getClass().getResource("/cpf/" + name)).toURI());
+    }
+
+    private String value(ElementData element, String name) {
+        return element.getAttributes().stream().filter(attribute -> attribute.getName().equals(name)).findFirst().orElseThrow().getValue();
+    }
+
+    /**
+     * Removes the attributes of a graph which are not written by rfgexport or which are computed from the tokens.
+     * @param graph graph
+     * @return graph without these attributes
+     */
+    private GraphData structure(GraphData graph) {
+        Set<String> metrics = Set.of("Metric.Number_of_Tokens", "Metric.LOC", "Metric.Clone_Rate", "Clone.Number_Of_Tokens");
+        GraphData structure = new GraphData();
+        structure.setSystemId(graph.getSystemId());
+        structure.setGxlAttributes(graph.getGxlAttributes());
+        structure.setGraphAttributes(graph.getGraphAttributes());
+        for (ElementData element : graph.getElements()) {
+            List<AttributeData> attributes = element.getAttributes().stream()
+                    .filter(attribute -> !metrics.contains(attribute.getName()) && !attribute.getName().startsWith("Metric.Vcs2See."))
+                    .collect(Collectors.toList());
+            structure.getElements().add(new ElementData(element.isEdge(), element.getId(), element.getType(), element.getFrom(), element.getTo(), attributes));
+        }
+        return structure;
+    }
+
+}
@@ -0,0 +1,113 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DiffCacheTest {
+
+    private static final LineChangeData DATA = new LineChangeData(7, 3, 2, 1);
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void entriesAreKeptForTheSameSettings() throws IOException {
+        File file = temp.resolve("test.diffs").toFile();
+        put(file, repositoryData(), environmentData("^src/"));
+
+        try (DiffCache diffCache = new DiffCache(file, repositoryData(), environmentData("^src/"), 10)) {
+            assertEquals(DATA, diffCache.get("abc", "src/A.java"));
+            assertNull(diffCache.get("abc", "src/B.java"));
+        }
+    }
+
+    @Test
+    void entriesAreDiscardedForAnotherBasePathFilter() throws IOException {
+        File file = temp.resolve("test.diffs").toFile();
+        put(file, repositoryData(), environmentData("^src/"));
+
+        try (DiffCache diffCache = new DiffCache(file, repositoryData(), environmentData("^lib/"), 10)) {
+            assertNull(diffCache.get("abc", "src/A.java"));
+        }
+        try (DiffCache diffCache = new DiffCache(file, repositoryData(), environmentData(null), 10)) {
+            assertNull(diffCache.get("abc", "src/A.java"));
+        }
+    }
+
+    @Test
+    void entriesAreDiscardedForAnotherBasePathOrDiff() throws IOException {
+        File file = temp.resolve("test.diffs").toFile();
+        put(file, repositoryData(), environmentData(null));
+
+        RepositoryData otherBasePath = repositoryData();
+        otherBasePath.setBasePath("src");
+        try (DiffCache diffCache = new DiffCache(file, otherBasePath, environmentData(null), 10)) {
+            assertNull(diffCache.get("abc", "src/A.java"));
+        }
+
+        put(file, repositoryData(), environmentData(null));
+        EnvironmentData otherDiff = environmentData(null);
+        otherDiff.setDiff(DiffProvider.Backend.MYERS);
+        try (DiffCache diffCache = new DiffCache(file, repositoryData(), otherDiff, 10)) {
+            assertNull(diffCache.get("abc", "src/A.java"));
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        File file = temp.resolve("test.diffs").toFile();
+        try (DiffCache diffCache = new DiffCache(file, repositoryData(), environmentData(null), 2)) {
+            diffCache.put("abc", "A.java", DATA);
+            diffCache.put("abc", "B.java", DATA);
+            diffCache.get("abc", "A.java");
+            diffCache.put("abc", "C.java", DATA);
+
+            assertEquals(DATA, diffCache.get("abc", "A.java"));
+            assertNull(diffCache.get("abc", "B.java"));
+            assertEquals(DATA, diffCache.get("abc", "C.java"));
+        }
+    }
+
+    @Test
+    void flushedEntriesAreKeptWithoutClose() throws IOException {
+        File file = temp.resolve("test.diffs").toFile();
+        DiffCache killed = new DiffCache(file, repositoryData(), environmentData(null), 10);
+        killed.put("abc", "src/A.java", DATA);
+        killed.flush();
+
+        try (DiffCache diffCache = new DiffCache(file, repositoryData(), environmentData(null), 10)) {
+            assertEquals(DATA, diffCache.get("abc", "src/A.java"));
+        }
+    }
+
+    private void put(File file, RepositoryData repositoryData, EnvironmentData environmentData) throws IOException {
+        try (DiffCache diffCache = new DiffCache(file, repositoryData, environmentData, 10)) {
+            diffCache.put("abc", "src/A.java", DATA);
+        }
+    }
+
+    private RepositoryData repositoryData() {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("test");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("");
+        return repositoryData;
+    }
+
+    private EnvironmentData environmentData(String basePathFilter) {
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setBasePathFilter(basePathFilter);
+        return environmentData;
+    }
+
+}
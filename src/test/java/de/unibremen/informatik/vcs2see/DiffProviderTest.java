@@ -0,0 +1,125 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.Commit;
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.RevisionRange;
+import de.unibremen.informatik.st.libvcs4j.VCSEngineBuilder;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DiffProviderTest {
+
+    @TempDir
+    Path temp;
+
+    private Map<String, LineChangeData> libvcs4j;
+
+    private Map<String, LineChangeData> myers;
+
+    @BeforeEach
+    void diffRepository() throws IOException {
+        assumeTrue(GitFixture.isAvailable(), "git is not installed");
+        GitFixture git = new GitFixture(temp.resolve("repository"));
+
+        git.write("Example.txt", "one\ntwo\nthree\n");
+        git.commit("add");
+
+        git.write("Example.txt", "one\ntwo\nthree\nfour\nfive\n");
+        git.commit("append");
+
+        git.write("Example.txt", "one\nTWO\nthree\nfour\nfive\n");
+        git.commit("edit");
+
+        git.write("Example.txt", "one\nTWO\nfour\nfive\n");
+        git.commit("delete");
+
+        git.write("Example.txt", "one\nzwei\ndrei\nvier\nfive\n");
+        git.commit("replace");
+
+        git.write("Example.txt", "one\nzwei\ndrei\nfive\nfive\n");
+        git.commit("tie");
+
+        git.delete("Example.txt");
+        git.commit("remove");
+
+        libvcs4j = diff(git.getDirectory(), DiffProvider.Backend.LIBVCS4J);
+        myers = diff(git.getDirectory(), DiffProvider.Backend.MYERS);
+        assertEquals(7, libvcs4j.size());
+        assertEquals(7, myers.size());
+    }
+
+    @Test
+    void addedFileIsAdded() {
+        assertBoth("add", new LineChangeData(3, 3, 0, 0));
+    }
+
+    @Test
+    void appendedLinesAreAdded() {
+        assertBoth("append", new LineChangeData(2, 2, 0, 0));
+    }
+
+    @Test
+    void replacedLineIsEdited() {
+        assertBoth("edit", new LineChangeData(2, 0, 1, 0));
+    }
+
+    @Test
+    void removedLineIsDeleted() {
+        assertBoth("delete", new LineChangeData(1, 0, 0, 1));
+    }
+
+    @Test
+    void longerReplacementIsEditedAndAdded() {
+        assertBoth("replace", new LineChangeData(5, 1, 2, 0));
+    }
+
+    @Test
+    void removedFileIsDeleted() {
+        assertBoth("remove", new LineChangeData(5, 0, 0, 5));
+    }
+
+    @Test
+    void equallyShortDiffsMayBeAlignedDifferently() {
+        // "vier" becomes a second "five". Both diffs have the same length, but LibVCS4j aligns the old "five"
+        // with the fourth line and adds the last one, while the Myers diff keeps the common last line and
+        // edits the fourth one.
+        assertEquals(new LineChangeData(2, 1, 0, 1), libvcs4j.get("tie"));
+        assertEquals(new LineChangeData(2, 0, 1, 0), myers.get("tie"));
+    }
+
+    private void assertBoth(String message, LineChangeData expected) {
+        assertEquals(expected, libvcs4j.get(message), "libvcs4j");
+        assertEquals(expected, myers.get(message), "myers");
+    }
+
+    /**
+     * Counts the line changes of the file changed by each commit of a repository.
+     * @param directory directory of the repository
+     * @param backend implementation of the diff
+     * @return line changes by commit message
+     * @throws IOException exception
+     */
+    private Map<String, LineChangeData> diff(Path directory, DiffProvider.Backend backend) throws IOException {
+        DiffProvider diffProvider = backend == DiffProvider.Backend.MYERS ? new MyersDiffProvider() : new LibVcs4jDiffProvider();
+        Map<String, LineChangeData> changes = new HashMap<>();
+        for (RevisionRange revision : VCSEngineBuilder.ofGit(directory.toString()).build()) {
+            for (Commit commit : revision.getCommits()) {
+                assertEquals(1, commit.getFileChanges().size());
+                FileChange fileChange = commit.getFileChanges().get(0);
+                changes.put(commit.getMessage().trim(), diffProvider.diff(fileChange));
+            }
+        }
+        return changes;
+    }
+
+}
@@ -0,0 +1,48 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ElementKeysTest {
+
+    @Test
+    void nodesAreIdentifiedByTypeAndLinkageName() {
+        ElementKeys elementKeys = new ElementKeys();
+
+        assertEquals("N|File|a/A.java", elementKeys.node(node("N1", "a/A.java")));
+        assertEquals("N|File|a/B.java", elementKeys.node(node("N2", "a/B.java")));
+        assertEquals(ElementKeys.node("File", "a/A.java"), new ElementKeys().node(node("N7", "a/A.java")));
+    }
+
+    @Test
+    void nodesWithoutLinkageNameAreIdentifiedById() {
+        ElementKeys elementKeys = new ElementKeys();
+
+        assertEquals("N|File|#N1", elementKeys.node(new ElementData(false, "N1", "File", null, null, List.of())));
+    }
+
+    @Test
+    void repeatedKeysAreNumbered() {
+        ElementKeys elementKeys = new ElementKeys();
+        String from = elementKeys.node(node("N1", "a/A.java"));
+        String to = elementKeys.node(node("N2", "a/B.java"));
+
+        assertEquals("N|File|a/A.java#2", elementKeys.node(node("N3", "a/A.java")));
+        assertEquals("E|Clone|" + from + "|" + to, elementKeys.edge(edge("E1", "N1", "N2"), from, to));
+        assertEquals("E|Clone|" + from + "|" + to + "#2", elementKeys.edge(edge("E2", "N1", "N2"), from, to));
+    }
+
+    private ElementData node(String id, String linkage) {
+        return new ElementData(false, id, "File", null, null, List.of(new AttributeData("Linkage.Name", "string", linkage)));
+    }
+
+    private ElementData edge(String id, String from, String to) {
+        return new ElementData(true, id, "Clone", from, to, List.of());
+    }
+
+}
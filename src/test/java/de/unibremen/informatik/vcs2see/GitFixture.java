@@ -0,0 +1,107 @@
+package de.unibremen.informatik.vcs2see;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small git repository in a temporary directory, built with the git command line.
+ * The commits get fixed authors and dates, so the same edits always lead to the same history.
+ *
+ * @author Felix Gaebler
+ * @version 1.0.0
+ */
+class GitFixture {
+
+    private static final long EPOCH = 1_600_000_000L;
+
+    private final Path directory;
+
+    private int commits;
+
+    GitFixture(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        git("init", "-q");
+        git("config", "user.name", "vcs2see");
+        git("config", "user.email", "vcs2see@example.org");
+        git("config", "core.autocrlf", "false");
+    }
+
+    /**
+     * Checks whether the git command line is installed.
+     * @return true if git can be run
+     */
+    static boolean isAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").redirectErrorStream(true).start().waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    void write(String path, String content) throws IOException {
+        Path file = directory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void delete(String path) throws IOException {
+        Files.delete(directory.resolve(path));
+    }
+
+    /**
+     * Commits all changes of the working tree.
+     * @param message commit message
+     * @return id of the commit
+     * @throws IOException exception
+     */
+    String commit(String message) throws IOException {
+        String date = "@" + (EPOCH + 60L * commits++) + " +0000";
+        Map<String, String> environment = Map.of("GIT_AUTHOR_DATE", date, "GIT_COMMITTER_DATE", date);
+        git(environment, "add", "-A");
+        git(environment, "commit", "-q", "-m", message);
+        return git("rev-parse", "HEAD").trim();
+    }
+
+    private String git(String... args) throws IOException {
+        return git(Map.of(), args);
+    }
+
+    private String git(Map<String, String> environment, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.directory(directory.toFile());
+        processBuilder.redirectErrorStream(true);
+        processBuilder.environment().putAll(environment);
+
+        Process process = processBuilder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            if(process.waitFor() != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed: " + output);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running git");
+        }
+        return output;
+    }
+
+}
@@ -0,0 +1,155 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphModelTest {
+
+    private static final File EXAMPLES = new File("example");
+
+    private final GxlIO gxlIO = new GxlIO();
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void fileIsReadLikeTheGraph() throws IOException {
+        GraphModel streamed = new GraphModel();
+        GraphModel parsed = new GraphModel();
+        for (File example : examples()) {
+            GraphData graph = gxlIO.readGraph(example);
+
+            assertEquals(parsed.update(graph), streamed.update(example, gxlIO), example.getName());
+            assertEquals(graph, streamed.graph(), example.getName());
+            assertEquals(parsed.graph(), streamed.graph(), example.getName());
+        }
+    }
+
+    @Test
+    void unchangedRevisionChangesNothing() throws IOException {
+        GraphModel graphModel = new GraphModel();
+        File example = examples()[0];
+
+        assertEquals(gxlIO.readGraph(example).getElements().size(), graphModel.update(example, gxlIO));
+        assertEquals(0, graphModel.update(example, gxlIO));
+    }
+
+    @Test
+    void nodesKeepTheirIdAcrossRevisions() throws IOException {
+        GraphModel graphModel = new GraphModel();
+        File[] examples = examples();
+        graphModel.update(examples[0], gxlIO);
+        int id = graphModel.fileNode(0);
+        String linkage = graphModel.linkage(id);
+
+        for (File example : examples) {
+            graphModel.update(example, gxlIO);
+        }
+        graphModel.update(examples[0], gxlIO);
+
+        assertNotEquals(-1, id);
+        assertEquals(id, graphModel.nodeId("File", linkage));
+    }
+
+    @Test
+    void edgesMayPrecedeTheirNodes() throws IOException {
+        GraphData graph = graph(
+                edge("e1", "n1", "n2"),
+                node("n1", "a/A.java"),
+                edge("e2", "n2", "n3"),
+                node("n2", "a/B.java"),
+                node("n3", "a/C.java"));
+        File file = temp.resolve("edges.gxl").toFile();
+        gxlIO.writeGraph(graph, file);
+
+        GraphModel graphModel = new GraphModel();
+        assertEquals(5, graphModel.update(file, gxlIO));
+        assertEquals(gxlIO.readGraph(file), graphModel.graph());
+    }
+
+    @Test
+    void failedUpdateStoresTheNextRevisionCompletely() throws IOException {
+        File valid = temp.resolve("valid.gxl").toFile();
+        File invalid = temp.resolve("invalid.gxl").toFile();
+        gxlIO.writeGraph(graph(node("n1", "a/A.java"), node("n2", "a/B.java"), edge("e1", "n1", "n2")), valid);
+        gxlIO.writeGraph(graph(node("n1", "a/A.java"), edge("e1", "n1", "n3")), invalid);
+
+        GraphModel graphModel = new GraphModel();
+        graphModel.update(valid, gxlIO);
+        assertThrows(IOException.class, () -> graphModel.update(invalid, gxlIO));
+        assertFalse(graphModel.isLoaded());
+
+        assertEquals(3, graphModel.update(valid, gxlIO));
+        assertTrue(graphModel.isLoaded());
+        assertEquals(gxlIO.readGraph(valid), graphModel.graph());
+    }
+
+    @Test
+    void onlyChangesOfFileNodesAreApplied() throws IOException {
+        GraphModel graphModel = new GraphModel();
+        graphModel.update(graph(node("n1", "a/A.java"), node("n2", "a/B.java"), edge("e1", "n1", "n2")));
+        assertEquals(2, graphModel.fileNodeCount());
+        int node = graphModel.fileNode(1);
+        assertEquals("a/B.java", graphModel.linkage(node));
+
+        GraphModel.NodeChanges changes = new GraphModel.NodeChanges(node);
+        changes.getValues().put("Metric.Vcs2See.Commit.Lines_Added", 42);
+        GraphModel.NodeChanges unknown = new GraphModel.NodeChanges(graphModel.size() + 10);
+        unknown.getValues().put("Metric.Vcs2See.Commit.Lines_Added", 1);
+        assertEquals(1, graphModel.apply(List.of(changes, unknown), Map.of()));
+
+        assertTrue(graphModel.hasValue(node, "Metric.Vcs2See.Commit.Lines_Added", 42));
+        assertFalse(graphModel.hasValue(node, "Metric.Vcs2See.Commit.Lines_Added", 43));
+        assertFalse(graphModel.hasValue(graphModel.fileNode(0), "Metric.Vcs2See.Commit.Lines_Added", 42));
+        assertTrue(graphModel.hasAttribute(node, "Metric.Vcs2See.Commit."));
+
+        changes = new GraphModel.NodeChanges(node);
+        graphModel.attributeNames(node, "Metric.Vcs2See.Commit.", changes.getRemoved());
+        assertEquals(Set.of("Metric.Vcs2See.Commit.Lines_Added"), changes.getRemoved());
+        graphModel.apply(List.of(changes), Map.of());
+        assertFalse(graphModel.hasAttribute(node, "Metric.Vcs2See.Commit."));
+    }
+
+    private File[] examples() {
+        File[] examples = Objects.requireNonNull(EXAMPLES.listFiles((directory, name) -> name.endsWith(".gxl")));
+        Arrays.sort(examples);
+        assertTrue(examples.length > 0);
+        return examples;
+    }
+
+    private GraphData graph(ElementData... elements) {
+        GraphData graph = new GraphData();
+        graph.setSystemId(GxlPrinter.SYSTEM_ID);
+        graph.getGxlAttributes().put("xmlns:xlink", "http://www.w3.org/1999/xlink");
+        graph.getGraphAttributes().put("id", "graph");
+        graph.getElements().addAll(Arrays.asList(elements));
+        return graph;
+    }
+
+    private ElementData node(String id, String linkage) {
+        return new ElementData(false, id, "File", null, null, List.of(new AttributeData("Linkage.Name", "string", linkage)));
+    }
+
+    private ElementData edge(String id, String from, String to) {
+        return new ElementData(true, id, "Belongs_To", from, to, List.of());
+    }
+
+}
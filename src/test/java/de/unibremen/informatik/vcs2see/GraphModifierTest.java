@@ -0,0 +1,217 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.Commit;
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GraphModifierTest {
+
+    private static final String MOST_RECENT = "Metric.Vcs2See.Most_Recent_Edit";
+
+    private static final String MOST_FREQUENT = "Metric.Vcs2See.Most_Frequent_Edit";
+
+    private static final File EXAMPLE = new File("example", "example-100.gxl");
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void historyMatchesTheReference() throws IOException {
+        List<String> paths = paths();
+        Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            GraphModifier graphModifier = graphModifier();
+            LinkedHashSet<String> recent = new LinkedHashSet<>();
+            Map<String, Integer> frequent = new HashMap<>();
+
+            int commits = 1 + random.nextInt(200);
+            for (int i = 0; i < commits; i++) {
+                List<String> changed = new ArrayList<>();
+                for (int j = 1 + random.nextInt(5); j > 0; j--) {
+                    changed.add(paths.get(random.nextInt(paths.size())));
+                }
+                graphModifier.recordHistory(commit(changed));
+                for (String path : changed) {
+                    recent.remove(path);
+                    recent.add(path);
+                    frequent.merge(path, 1, Integer::sum);
+                }
+            }
+
+            // Unchanged file nodes keep the metrics of the example.
+            Map<String, List<Integer>> expected = expected(recent, frequent);
+            Map<String, List<Integer>> actual = populate(graphModifier, "run-" + run);
+            actual.keySet().retainAll(expected.keySet());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void singleChangeIsTheMostRecentOne() throws IOException {
+        GraphModifier graphModifier = graphModifier();
+        String path = paths().get(0);
+        graphModifier.recordHistory(commit(List.of(path)));
+
+        Map<String, List<Integer>> values = populate(graphModifier, "single");
+
+        assertEquals(List.of(255, 0), values.get(path));
+    }
+
+    @Test
+    void historyIsRestored() throws IOException {
+        List<String> paths = paths();
+        Random random = new Random(7);
+        GraphModifier graphModifier = graphModifier();
+        for (int i = 0; i < 100; i++) {
+            graphModifier.recordHistory(commit(List.of(paths.get(random.nextInt(paths.size())))));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        graphModifier.writeHistory(new DataOutputStream(bytes));
+        GraphModifier restored = graphModifier();
+        restored.recordHistory(commit(List.of(paths.get(0))));
+        restored.readHistory(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(populate(graphModifier, "written"), populate(restored, "restored"));
+    }
+
+    /**
+     * Returns the paths of the file nodes of the example and some paths without a node.
+     * @return paths
+     * @throws IOException exception
+     */
+    private List<String> paths() throws IOException {
+        GraphModel graphModel = new GraphModel();
+        graphModel.update(new GxlIO().readGraph(EXAMPLE));
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < graphModel.fileNodeCount(); i++) {
+            paths.add(graphModel.linkage(graphModel.fileNode(i)));
+        }
+        for (int i = 0; i < 20; i++) {
+            paths.add("removed/Removed" + i + ".java");
+        }
+        return paths;
+    }
+
+    private GraphModifier graphModifier() throws IOException {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("example");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("");
+
+        File file = Files.createTempFile(temp, "graph-", ".gxl").toFile();
+        Files.copy(EXAMPLE.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        GraphModifier graphModifier = new GraphModifier(repositoryData);
+        graphModifier.loadFile(file);
+        graphModifier.loadNodes();
+        return graphModifier;
+    }
+
+    /**
+     * Computes the metrics of the file nodes the way the history was computed with a set and a map of paths.
+     * @param recent changed paths from the least to the most recently changed one
+     * @param frequent number of changes by path
+     * @return most recent and most frequent edit by path of a file node
+     * @throws IOException exception
+     */
+    private Map<String, List<Integer>> expected(LinkedHashSet<String> recent, Map<String, Integer> frequent) throws IOException {
+        int min = Collections.min(frequent.values());
+        int max = Collections.max(frequent.values());
+        List<String> paths = paths();
+        List<String> nodes = paths.subList(0, paths.size() - 20);
+
+        Map<String, List<Integer>> values = new HashMap<>();
+        int rank = recent.size() - 1;
+        for (String path : recent) {
+            if(nodes.contains(path)) {
+                int mostRecent = recent.size() <= 1 ? 255 : Math.round(255f * (recent.size() - 1 - rank) / (recent.size() - 1));
+                int mostFrequent = max == min ? 0 : Math.round((255f / (max - min)) * (frequent.get(path) - min));
+                values.put(path, List.of(mostRecent, mostFrequent));
+            }
+            rank--;
+        }
+        return values;
+    }
+
+    /**
+     * Populates the nodes and returns the metrics of the file nodes of the saved graph.
+     * @param graphModifier modifier with a history
+     * @param name name of the saved file
+     * @return most recent and most frequent edit by path of a file node
+     * @throws IOException exception
+     */
+    private Map<String, List<Integer>> populate(GraphModifier graphModifier, String name) throws IOException {
+        graphModifier.populateNodes();
+        graphModifier.saveFile(temp.resolve(name + ".gxl").toFile());
+
+        Map<String, List<Integer>> values = new HashMap<>();
+        for (ElementData element : graphModifier.getGraph().getElements()) {
+            String path = null;
+            Integer mostRecent = null;
+            Integer mostFrequent = null;
+            for (AttributeData attribute : element.getAttributes()) {
+                switch (attribute.getName()) {
+                    case "Linkage.Name":
+                        path = attribute.getValue();
+                        break;
+                    case MOST_RECENT:
+                        mostRecent = Integer.valueOf(attribute.getValue());
+                        break;
+                    case MOST_FREQUENT:
+                        mostFrequent = Integer.valueOf(attribute.getValue());
+                        break;
+                }
+            }
+            if(path != null && mostRecent != null) {
+                values.put(path, List.of(mostRecent, mostFrequent));
+            }
+        }
+        return values;
+    }
+
+    private Commit commit(List<String> paths) {
+        List<FileChange> fileChanges = new ArrayList<>();
+        for (String path : paths) {
+            VCSFile file = proxy(VCSFile.class, Map.of("getRelativePath", path));
+            fileChanges.add(proxy(FileChange.class, Map.of("getOldFile", Optional.of(file), "getNewFile", Optional.of(file))));
+        }
+        return proxy(Commit.class, Map.of("getFileChanges", fileChanges));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if(!values.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return values.get(method.getName());
+        });
+    }
+
+}
@@ -0,0 +1,206 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.GraphData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import net.sourceforge.gxl.GXLAttr;
+import net.sourceforge.gxl.GXLDocument;
+import net.sourceforge.gxl.GXLGraph;
+import net.sourceforge.gxl.GXLGraphElement;
+import net.sourceforge.gxl.GXLInt;
+import net.sourceforge.gxl.GXLNode;
+import net.sourceforge.gxl.GXLString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GxlIOTest {
+
+    private static final File EXAMPLES = new File("example");
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void modelWritesTheSameBytesAsTheDocument() throws IOException, SAXException {
+        GxlIO gxlIO = new GxlIO();
+        GraphModel graphModel = new GraphModel();
+        for (File example : examples()) {
+            File expected = temp.resolve("dom-" + example.getName()).toFile();
+            File actual = temp.resolve("model-" + example.getName()).toFile();
+
+            graphModel.update(example, gxlIO);
+            List<GraphModel.NodeChanges> nodeChanges = nodeChanges(graphModel);
+            Map<String, GraphModel.NodeChanges> byLinkage = new HashMap<>();
+            for (GraphModel.NodeChanges changes : nodeChanges) {
+                byLinkage.put(graphModel.linkage(changes.getId()), changes);
+            }
+
+            writeDocument(example, expected, byLinkage);
+            graphModel.apply(nodeChanges, graphAttributes(example));
+            graphModel.write(actual, false);
+
+            assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()), example.getName());
+        }
+    }
+
+    @Test
+    void compressedGraphIsTheCompressedPlainGraph() throws IOException {
+        GxlIO gxlIO = new GxlIO();
+        for (File example : examples()) {
+            GraphData graph = gxlIO.readGraph(example);
+            File plain = temp.resolve(example.getName()).toFile();
+            File compressed = temp.resolve(example.getName() + GxlIO.GZIP_EXTENSION).toFile();
+
+            gxlIO.writeGraph(graph, plain);
+            gxlIO.writeGraph(graph, compressed);
+
+            assertFalse(GxlIO.isCompressed(plain));
+            assertTrue(GxlIO.isCompressed(compressed));
+            try (InputStream input = new GZIPInputStream(new FileInputStream(compressed))) {
+                assertArrayEquals(Files.readAllBytes(plain.toPath()), input.readAllBytes(), compressed.getName());
+            }
+            assertEquals(graph, gxlIO.readGraph(compressed));
+        }
+    }
+
+    @Test
+    void compressedFileIsRecognizedByItsContent() throws IOException {
+        GxlIO gxlIO = new GxlIO();
+        File example = examples()[0];
+        File compressed = temp.resolve("compressed.gxl").toFile();
+        try (Writer writer = GxlIO.create(compressed, true)) {
+            writer.write(Files.readString(example.toPath()));
+        }
+
+        assertEquals(gxlIO.readGraph(example), gxlIO.readGraph(compressed));
+        try (InputStream input = GxlIO.open(compressed)) {
+            assertArrayEquals(Files.readAllBytes(example.toPath()), input.readAllBytes());
+        }
+    }
+
+    @Test
+    void modifierSavesAndLoadsCompressedGraphs() throws IOException {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("example");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("");
+
+        File example = examples()[0];
+        File plain = temp.resolve("plain.gxl").toFile();
+        File compressed = temp.resolve("compressed.gxl" + GxlIO.GZIP_EXTENSION).toFile();
+        GraphModifier graphModifier = new GraphModifier(repositoryData);
+        graphModifier.loadFile(example);
+        graphModifier.loadNodes();
+        graphModifier.saveFile(plain);
+        graphModifier.saveFile(compressed);
+
+        try (InputStream input = new GZIPInputStream(new FileInputStream(compressed))) {
+            assertArrayEquals(Files.readAllBytes(plain.toPath()), input.readAllBytes());
+        }
+
+        GraphModifier other = new GraphModifier(repositoryData);
+        other.loadFile(compressed);
+        assertEquals(graphModifier.getGraph(), other.getGraph());
+    }
+
+    private File[] examples() {
+        File[] examples = Objects.requireNonNull(EXAMPLES.listFiles((directory, name) -> name.endsWith(".gxl")));
+        Arrays.sort(examples);
+        assertTrue(examples.length > 0);
+        return examples;
+    }
+
+    /**
+     * Changes of the file nodes like the ones of a commit. Every third file gets new metrics, every fifth file
+     * loses one and the others keep their attributes.
+     * @param graphModel graph to change
+     * @return changes of the file nodes
+     */
+    private List<GraphModel.NodeChanges> nodeChanges(GraphModel graphModel) {
+        List<GraphModel.NodeChanges> nodeChanges = new ArrayList<>();
+        for (int i = 0; i < graphModel.fileNodeCount(); i++) {
+            GraphModel.NodeChanges changes = new GraphModel.NodeChanges(graphModel.fileNode(i));
+            if(i % 3 == 0) {
+                changes.getValues().put("Metric.Vcs2See.Commit.Lines_Added", i);
+                changes.getValues().put("Metric.Vcs2See.Most_Recent_Edit", 255 - i);
+                changes.getValues().put("Metric.Vcs2See.Test", i * 7);
+            }
+            if(i % 5 == 0) {
+                changes.getRemoved().add("Metric.Vcs2See.Commit.Lines_Deleted");
+                changes.getRemoved().add("Metric.LOC");
+            }
+            nodeChanges.add(changes);
+        }
+        return nodeChanges;
+    }
+
+    private Map<String, String> graphAttributes(File example) {
+        Map<String, String> graphAttributes = new LinkedHashMap<>();
+        graphAttributes.put("CommitId", example.getName());
+        graphAttributes.put("CommitAuthor", "Author <author@example.org>");
+        graphAttributes.put("CommitMessage", "Message with \"quotes\" & <tags>\n\tand a second line");
+        graphAttributes.put("CommitTimestamp", "2021-12-01T10:00:00");
+        graphAttributes.put("CommitBranch", "main");
+        return graphAttributes;
+    }
+
+    /**
+     * Applies the changes with the DOM of the GXL library, like the modifier did before the graph model.
+     * @param input file to read
+     * @param output file to write
+     * @param nodeChanges changes of the file nodes by linkage name
+     * @throws IOException exception
+     * @throws SAXException exception
+     */
+    private void writeDocument(File input, File output, Map<String, GraphModel.NodeChanges> nodeChanges) throws IOException, SAXException {
+        GXLDocument document = new GXLDocument(input);
+        GXLGraph graph = document.getDocumentElement().getGraphAt(0);
+        for (int i = 0; i < graph.getGraphElementCount(); i++) {
+            GXLGraphElement element = graph.getGraphElementAt(i);
+            if(!(element instanceof GXLNode) || element.getType() == null || !element.getType().getURI().toString().equals("File")) {
+                continue;
+            }
+
+            GXLAttr linkage = element.getAttr("Linkage.Name");
+            GraphModel.NodeChanges changes = linkage == null ? null : nodeChanges.get(((GXLString) linkage.getValue()).getValue());
+            if(changes == null) {
+                continue;
+            }
+            for (String name : changes.getRemoved()) {
+                GXLAttr attr = element.getAttr(name);
+                if(attr != null) {
+                    element.remove(attr);
+                }
+            }
+            for (Map.Entry<String, Integer> entry : changes.getValues().entrySet()) {
+                element.setAttr(entry.getKey(), new GXLInt(entry.getValue()));
+            }
+        }
+        for (Map.Entry<String, String> entry : graphAttributes(input).entrySet()) {
+            graph.setAttr(entry.getKey(), new GXLString(entry.getValue()));
+        }
+        document.write(output);
+    }
+
+}
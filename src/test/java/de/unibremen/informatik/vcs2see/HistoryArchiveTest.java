@@ -0,0 +1,217 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.AttributeData;
+import de.unibremen.informatik.vcs2see.data.ElementData;
+import de.unibremen.informatik.vcs2see.data.GraphData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryArchiveTest {
+
+    @TempDir
+    Path temp;
+
+    private GxlIO gxlIO;
+
+    private List<GraphData> graphs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gxlIO = new GxlIO();
+
+        // The examples are the revisions of a crawl, more than fit into one segment.
+        List<File> examples = Stream.of(Objects.requireNonNull(new File("example").listFiles((directory, name) -> name.endsWith(".gxl"))))
+                .sorted(Comparator.comparingInt(HistoryArchiveTest::revision))
+                .collect(Collectors.toList());
+        assertTrue(examples.size() > 100);
+
+        graphs = new ArrayList<>();
+        for (File example : examples) {
+            graphs.add(gxlIO.readGraph(example));
+        }
+    }
+
+    @Test
+    void everyRevisionIsRestored() throws IOException {
+        try (HistoryArchive historyArchive = archive()) {
+            assertEquals(graphs.size(), historyArchive.size());
+            for (int revision = graphs.size(); revision >= 1; revision--) {
+                assertEquals(graphs.get(revision - 1), historyArchive.read(revision), "revision " + revision);
+            }
+        }
+    }
+
+    @Test
+    void exportWritesTheSameFilesAsTheCrawl() throws IOException {
+        File directory = Files.createDirectories(temp.resolve("export")).toFile();
+        try (HistoryArchive historyArchive = archive()) {
+            historyArchive.export(95, graphs.size(), directory, "example", gxlIO);
+        }
+
+        for (int revision = 95; revision <= graphs.size(); revision++) {
+            File expected = temp.resolve("expected-" + revision + ".gxl").toFile();
+            gxlIO.writeGraph(graphs.get(revision - 1), expected);
+            File actual = new File(directory, "example-" + revision + ".gxl");
+            assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()), actual.getName());
+        }
+        assertEquals(graphs.size() - 94, Objects.requireNonNull(directory.list()).length);
+    }
+
+    @Test
+    void archiveIsReopened() throws IOException {
+        archive().close();
+
+        try (HistoryArchive historyArchive = new HistoryArchive(temp.resolve("test.history").toFile())) {
+            assertEquals(graphs.size(), historyArchive.size());
+            assertEquals(graphs.get(0), historyArchive.read(1));
+            assertEquals(graphs.get(graphs.size() - 1), historyArchive.read(graphs.size()));
+        }
+    }
+
+    @Test
+    void incompleteRevisionIsDroppedWhenReopened() throws IOException {
+        archive().close();
+        File file = temp.resolve("test.history").toFile();
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            output.write(new byte[]{1, 2, 3, 4, 5});
+        }
+
+        try (HistoryArchive historyArchive = new HistoryArchive(file)) {
+            assertEquals(graphs.size(), historyArchive.size());
+            historyArchive.append(graphs.size() + 1, graphs.get(0));
+            assertEquals(graphs.get(0), historyArchive.read(graphs.size() + 1));
+            assertEquals(graphs.get(graphs.size() - 1), historyArchive.read(graphs.size()));
+        }
+    }
+
+    @Test
+    void truncatedArchiveContinuesAfterTheCheckpoint() throws IOException {
+        try (HistoryArchive historyArchive = archive()) {
+            historyArchive.truncate(98);
+            assertEquals(98, historyArchive.size());
+            assertThrows(IOException.class, () -> historyArchive.read(99));
+
+            // The revisions after the checkpoint are appended again, across the start of a new segment.
+            for (int revision = 99; revision <= graphs.size(); revision++) {
+                historyArchive.append(revision, graphs.get(graphs.size() - revision));
+            }
+            assertEquals(graphs.get(97), historyArchive.read(98));
+            for (int revision = 99; revision <= graphs.size(); revision++) {
+                assertEquals(graphs.get(graphs.size() - revision), historyArchive.read(revision), "revision " + revision);
+            }
+        }
+    }
+
+    @Test
+    void revisionsHaveToFollowEachOther() throws IOException {
+        try (HistoryArchive historyArchive = new HistoryArchive(temp.resolve("test.history").toFile())) {
+            historyArchive.append(1, graphs.get(0));
+            assertThrows(IOException.class, () -> historyArchive.append(3, graphs.get(2)));
+            assertThrows(IOException.class, () -> historyArchive.read(2));
+        }
+    }
+
+    @Test
+    void graphModelIsAppendedLikeItsGraphs() throws IOException {
+        GraphModel graphModel = new GraphModel();
+        List<GraphData> expected = new ArrayList<>();
+        File file = temp.resolve("test.history").toFile();
+        HistoryArchive historyArchive = new HistoryArchive(file);
+        try {
+            for (int revision = 1; revision <= graphs.size(); revision++) {
+                // Some revisions only change the metrics of the previous one, like a commit without an analysis.
+                if(revision % 3 == 0) {
+                    List<GraphModel.NodeChanges> changes = new ArrayList<>();
+                    for (int i = 0; i < graphModel.fileNodeCount(); i += 2) {
+                        GraphModel.NodeChanges nodeChanges = new GraphModel.NodeChanges(graphModel.fileNode(i));
+                        nodeChanges.getValues().put("Metric.Vcs2See.Test", revision);
+                        changes.add(nodeChanges);
+                    }
+                    graphModel.apply(changes, Map.of("CommitId", "commit-" + revision));
+                } else {
+                    graphModel.update(graphs.get(revision - 1));
+                }
+                expected.add(graphModel.graph());
+
+                // An archive which is opened again starts with the complete graph.
+                if(revision == 50) {
+                    historyArchive.close();
+                    historyArchive = new HistoryArchive(file);
+                }
+                historyArchive.append(revision, graphModel);
+            }
+
+            for (int revision = 1; revision <= graphs.size(); revision++) {
+                assertEquals(expected.get(revision - 1), historyArchive.read(revision), "revision " + revision);
+            }
+        } finally {
+            historyArchive.close();
+        }
+    }
+
+    @Test
+    void sequentialIdsOfUnchangedNodesAreAppendedFromTheModel() throws IOException {
+        // The id of b is only sequential while the node before it exists, but b itself never changes.
+        List<GraphData> revisions = List.of(
+                graph(node("N1", "a"), node("N2", "c"), node("N3", "b")),
+                graph(node("N1", "a"), node("N3", "b")),
+                graph(node("N1", "a"), node("N2", "c"), node("N3", "b")),
+                graph(node("N1", "b"), node("N2", "a")));
+
+        GraphModel graphModel = new GraphModel();
+        try (HistoryArchive historyArchive = new HistoryArchive(temp.resolve("test.history").toFile())) {
+            for (int revision = 1; revision <= revisions.size(); revision++) {
+                graphModel.update(revisions.get(revision - 1));
+                historyArchive.append(revision, graphModel);
+            }
+            for (int revision = 1; revision <= revisions.size(); revision++) {
+                assertEquals(revisions.get(revision - 1), historyArchive.read(revision), "revision " + revision);
+            }
+        }
+    }
+
+    private HistoryArchive archive() throws IOException {
+        HistoryArchive historyArchive = new HistoryArchive(temp.resolve("test.history").toFile());
+        for (int revision = 1; revision <= graphs.size(); revision++) {
+            historyArchive.append(revision, graphs.get(revision - 1));
+        }
+        return historyArchive;
+    }
+
+    private GraphData graph(ElementData... elements) {
+        GraphData graph = new GraphData();
+        graph.setSystemId(GxlPrinter.SYSTEM_ID);
+        graph.getGraphAttributes().put("id", "graph");
+        graph.getElements().addAll(List.of(elements));
+        return graph;
+    }
+
+    private ElementData node(String id, String linkage) {
+        return new ElementData(false, id, "File", null, null, List.of(new AttributeData("Linkage.Name", "string", linkage)));
+    }
+
+    private static int revision(File example) {
+        String name = example.getName();
+        return Integer.parseInt(name.substring(name.lastIndexOf('-') + 1, name.length() - ".gxl".length()));
+    }
+
+}
@@ -0,0 +1,110 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.LineChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LineChangeClassifierTest {
+
+    private static final VCSFile FILE = (VCSFile) Proxy.newProxyInstance(VCSFile.class.getClassLoader(),
+            new Class<?>[]{VCSFile.class}, (proxy, method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    private final LineChangeClassifier lineChangeClassifier = new LineChangeClassifier();
+
+    @Test
+    void emptyDiff() {
+        assertClassified(new int[0], new int[0], new LineChangeData(0, 0, 0, 0));
+    }
+
+    @Test
+    void onlyInsertions() {
+        assertClassified(new int[]{3, 1, 2}, new int[0], new LineChangeData(3, 3, 0, 0));
+    }
+
+    @Test
+    void onlyDeletions() {
+        assertClassified(new int[0], new int[]{7, 5}, new LineChangeData(2, 0, 0, 2));
+    }
+
+    @Test
+    void sameLineNumberIsAnEdit() {
+        assertClassified(new int[]{1, 2, 5}, new int[]{2, 3, 5, 8}, new LineChangeData(7, 1, 2, 2));
+    }
+
+    @Test
+    void interleavedLineNumbers() {
+        assertClassified(new int[]{9, 1, 4, 6, 2}, new int[]{5, 2, 8, 1, 7, 4}, new LineChangeData(11, 2, 3, 3));
+    }
+
+    @Test
+    void duplicateLineNumbers() {
+        // Every insertion of a deleted line number is an edit, all deletions of it are part of the edits.
+        assertClassified(new int[]{4, 4, 4, 6, 6}, new int[]{4, 6, 6, 6, 9, 9}, new LineChangeData(11, 0, 5, 2));
+        assertClassified(new int[]{1, 1, 2}, new int[]{3, 3}, new LineChangeData(5, 3, 0, 2));
+    }
+
+    @Test
+    void randomDiffsAreClassifiedLikeWithSets() {
+        Random random = new Random(42);
+        for (int round = 0; round < 5000; round++) {
+            int lines = 1 + random.nextInt(round % 2 == 0 ? 10 : 200);
+            int[] inserted = random.ints(random.nextInt(lines + 1), 1, lines + 1).toArray();
+            int[] deleted = random.ints(random.nextInt(lines + 1), 1, lines + 1).toArray();
+            assertClassified(inserted, deleted, classifyWithSets(inserted, deleted));
+        }
+    }
+
+    /**
+     * Classifies the line numbers with both methods of the classifier and with lists, and compares them with the
+     * expected counts.
+     * @param inserted inserted line numbers in diff order
+     * @param deleted deleted line numbers in diff order
+     * @param expected expected counts
+     */
+    private void assertClassified(int[] inserted, int[] deleted, LineChangeData expected) {
+        List<LineChange> lineChanges = new ArrayList<>();
+        for (int i = 0; i < Math.max(inserted.length, deleted.length); i++) {
+            if(i < deleted.length) {
+                lineChanges.add(new LineChange(LineChange.Type.DELETE, deleted[i], "deleted", FILE));
+            }
+            if(i < inserted.length) {
+                lineChanges.add(new LineChange(LineChange.Type.INSERT, inserted[i], "inserted", FILE));
+            }
+        }
+
+        String description = Arrays.toString(inserted) + " " + Arrays.toString(deleted);
+        assertEquals(expected, classifyWithSets(inserted, deleted), description);
+        assertEquals(expected, lineChangeClassifier.classify(lineChanges), description);
+        assertEquals(expected, lineChangeClassifier.classify(inserted.clone(), inserted.length, deleted.clone(), deleted.length), description);
+    }
+
+    /**
+     * Classification with lists like the GraphModifier did before the line numbers were sorted.
+     * @param inserted inserted line numbers
+     * @param deleted deleted line numbers
+     * @return counted line changes
+     */
+    private LineChangeData classifyWithSets(int[] inserted, int[] deleted) {
+        List<Integer> insertedLines = Arrays.stream(inserted).boxed().collect(Collectors.toList());
+        List<Integer> deletedLines = Arrays.stream(deleted).boxed().collect(Collectors.toList());
+        List<Integer> editedLines = insertedLines.stream()
+                .filter(deletedLines::contains)
+                .collect(Collectors.toList());
+        insertedLines.removeAll(editedLines);
+        deletedLines.removeAll(editedLines);
+        return new LineChangeData(inserted.length + deleted.length, insertedLines.size(), editedLines.size(), deletedLines.size());
+    }
+
+}
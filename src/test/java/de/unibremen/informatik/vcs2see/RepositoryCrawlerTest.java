@@ -0,0 +1,266 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.LineChangeData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import de.unibremen.informatik.vcs2see.data.TokenData;
+import lombok.Getter;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RepositoryCrawlerTest {
+
+    @TempDir
+    Path temp;
+
+    private List<String> commits;
+
+    @Test
+    void parallelCrawlWritesTheSameGraphs() throws IOException {
+        Path repository = createRepository();
+
+        List<String> sequential = crawl(repository, 1, 1, temp.resolve("sequential"));
+        List<String> parallel = crawl(repository, 3, 1, temp.resolve("parallel"));
+
+        assertEquals(8, sequential.size());
+        assertSameGraphs(temp.resolve("sequential"), sequential, temp.resolve("parallel"), parallel);
+    }
+
+    @Test
+    void parallelCrawlWithStrideWritesTheSameGraphs() throws IOException {
+        Path repository = createRepository();
+
+        List<String> sequential = crawl(repository, 1, 3, temp.resolve("sequential"));
+        List<String> parallel = crawl(repository, 2, 3, temp.resolve("parallel"));
+
+        assertEquals(3, sequential.size());
+        assertSameGraphs(temp.resolve("sequential"), sequential, temp.resolve("parallel"), parallel);
+    }
+
+    @Test
+    void workingTreeMatchesTheCheckoutOfEveryRevision() throws IOException {
+        Path repository = createRepository();
+        List<String> sequential = crawl(repository, 1, 1, temp.resolve("sequential"));
+
+        // Each update of the working tree and of the worker directories is compared, a difference fails the crawl.
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setWorkers(2);
+        environmentData.setVerifyWorkspaces(true);
+        List<String> verified = crawl(repositoryData(repository, 1), environmentData, temp.resolve("verified"));
+
+        assertSameGraphs(temp.resolve("sequential"), sequential, temp.resolve("verified"), verified);
+    }
+
+    @Test
+    void crawlResumesAfterAnUncleanStop() throws IOException {
+        RepositoryData repositoryData = repositoryData(createRepository(), 1);
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setBasePathFilter("^src/main/java/");
+        environmentData.setCheckpointInterval(1);
+        List<String> sequential = crawl(repositoryData, environmentData, temp.resolve("sequential"));
+
+        // The process is killed during the analysis of the fifth commit, the files on disk are all that is left.
+        Path killed = temp.resolve("killed");
+        Path output = Files.createDirectories(temp.resolve("killed-analyses"));
+        RepositoryCrawler crawler = new RepositoryCrawler(repositoryData, environmentData, null, temp.resolve("running").toFile(),
+                (path, toolRunner) -> new StubAnalyser(new File(path), output.toFile(), repositoryData) {
+                    @Override
+                    public File analyse(int revision) throws IOException {
+                        if(revision == 5) {
+                            FileUtils.copyDirectory(temp.resolve("running").toFile(), killed.toFile());
+                            throw new IOException("Killed");
+                        }
+                        return super.analyse(revision);
+                    }
+                });
+        assertThrows(IOException.class, crawler::crawl);
+
+        // The diffs up to the checkpoint were written with it.
+        try (DiffCache diffCache = new DiffCache(killed.resolve("test.diffs").toFile(), repositoryData, environmentData, 10)) {
+            assertEquals(new LineChangeData(12, 12, 0, 0), diffCache.get(commits.get(1), "src/main/java/a/A.java"));
+        }
+
+        environmentData.setResume(true);
+        List<String> resumed = crawl(repositoryData, environmentData, killed);
+        assertSameGraphs(temp.resolve("sequential"), sequential, killed, resumed);
+    }
+
+    @Test
+    void deltaCrawlExportsTheSameGraphs() throws IOException {
+        RepositoryData repositoryData = repositoryData(createRepository(), 1);
+        List<String> sequential = crawl(repositoryData, new EnvironmentData(), temp.resolve("sequential"));
+
+        // The graphs only end up in the archive, commits without an analysis modify the graph in memory.
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setOutput(RepositoryCrawler.Output.DELTA);
+        assertEquals(List.of(), crawl(repositoryData, environmentData, temp.resolve("delta")));
+
+        Path export = Files.createDirectories(temp.resolve("export"));
+        try (HistoryArchive historyArchive = new HistoryArchive(temp.resolve("delta").resolve("test.history").toFile())) {
+            historyArchive.export(1, historyArchive.size(), export.toFile(), "test", new GxlIO());
+        }
+        assertSameGraphs(temp.resolve("sequential"), sequential, export, sequential);
+    }
+
+    /**
+     * Builds a repository with edits, additions and deletions of source files and commits which only
+     * change other files.
+     * @return directory of the repository
+     * @throws IOException exception
+     */
+    private Path createRepository() throws IOException {
+        assumeTrue(GitFixture.isAvailable(), "git is not installed");
+        GitFixture git = new GitFixture(temp.resolve("repository"));
+        commits = new ArrayList<>();
+
+        git.write("README.md", "# test\n");
+        git.write("src/main/java/a/A.java", source("A", 3));
+        git.write("src/main/java/a/B.java", source("B", 5));
+        commits.add(git.commit("Add A and B"));
+
+        git.write("src/main/java/a/A.java", source("A", 6));
+        commits.add(git.commit("Extend A"));
+
+        git.write("README.md", "# test\n\nREADME only\n");
+        commits.add(git.commit("Update README"));
+
+        git.write("src/main/java/a/util/C.java", source("C", 4));
+        commits.add(git.commit("Add C"));
+
+        git.delete("src/main/java/a/B.java");
+        commits.add(git.commit("Remove B"));
+
+        git.write("src/main/java/a/A.java", source("A", 2));
+        git.write("src/main/java/a/util/C.java", source("C", 7));
+        commits.add(git.commit("Change A and C"));
+
+        git.write("README.md", "# test\n\nREADME again\n");
+        commits.add(git.commit("Update README again"));
+
+        git.write("src/main/java/a/A.java", source("A", 9));
+        commits.add(git.commit("Extend A again"));
+        return git.getDirectory();
+    }
+
+    private String source(String name, int methods) {
+        StringBuilder source = new StringBuilder("package a;\n\npublic class " + name + " {\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("\n    public int method").append(i).append("(int value) {\n")
+                    .append("        return value * ").append(i + 1).append(";\n")
+                    .append("    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * Crawls the repository with a stub analyser.
+     * @param repository directory of the repository
+     * @param workers number of workers
+     * @param stride stride of the crawl
+     * @param folder output folder
+     * @return names of the written graphs, sorted
+     * @throws IOException exception
+     */
+    private List<String> crawl(Path repository, int workers, int stride, Path folder) throws IOException {
+        EnvironmentData environmentData = new EnvironmentData();
+        environmentData.setWorkers(workers);
+        return crawl(repositoryData(repository, stride), environmentData, folder);
+    }
+
+    /**
+     * Crawls a repository with a stub analyser.
+     * @param repositoryData repository to crawl
+     * @param environmentData settings of the crawl
+     * @param folder output folder
+     * @return names of the written graphs, sorted
+     * @throws IOException exception
+     */
+    private List<String> crawl(RepositoryData repositoryData, EnvironmentData environmentData, Path folder) throws IOException {
+        Path output = Files.createDirectories(folder.resolveSibling(folder.getFileName() + "-analyses"));
+        new RepositoryCrawler(repositoryData, environmentData, null, folder.toFile(),
+                (path, toolRunner) -> new StubAnalyser(new File(path), output.toFile(), repositoryData)).crawl();
+
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".gxl"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private RepositoryData repositoryData(Path repository, int stride) {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("test");
+        repositoryData.setType(RepositoryCrawler.Type.GIT);
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setPath(repository.toAbsolutePath().toString());
+        repositoryData.setBasePath("src/main/java");
+        repositoryData.setStride(stride);
+        return repositoryData;
+    }
+
+    private void assertSameGraphs(Path expectedFolder, List<String> expected, Path actualFolder, List<String> actual) throws IOException {
+        assertEquals(expected, actual);
+        for (String name : expected) {
+            assertArrayEquals(Files.readAllBytes(expectedFolder.resolve(name)), Files.readAllBytes(actualFolder.resolve(name)), name);
+        }
+    }
+
+    /**
+     * Analyser which writes a graph of the source files without any clones. It keeps nothing between revisions,
+     * so the graph only depends on the working tree it was given.
+     */
+    private static class StubAnalyser implements Analyser {
+
+        @Getter
+        private final File directory;
+
+        private final File output;
+
+        private final RepositoryData repositoryData;
+
+        private final SourceFiles sourceFiles;
+
+        private final Tokenizer tokenizer;
+
+        StubAnalyser(File directory, File output, RepositoryData repositoryData) {
+            this.directory = directory;
+            this.output = output;
+            this.repositoryData = repositoryData;
+            this.sourceFiles = new SourceFiles(repositoryData);
+            this.tokenizer = new Tokenizer(repositoryData.getLanguage());
+        }
+
+        @Override
+        public File analyse(int revision) throws IOException {
+            List<TokenData> files = new ArrayList<>();
+            for (Map.Entry<String, Path> entry : sourceFiles.list(directory.toPath()).entrySet()) {
+                String source = new String(Files.readAllBytes(entry.getValue()), StandardCharsets.UTF_8);
+                files.add(tokenizer.tokenize(entry.getKey(), source));
+            }
+
+            File file = new File(output, repositoryData.getName() + "-" + revision + ".gxl");
+            new CloneGraphWriter().write(file, files, List.of());
+            return file;
+        }
+
+    }
+
+}
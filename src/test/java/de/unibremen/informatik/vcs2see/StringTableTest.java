@@ -0,0 +1,62 @@
+package de.unibremen.informatik.vcs2see;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StringTableTest {
+
+    @Test
+    void idsAreDenseInTheOrderOfAdding() {
+        StringTable stringTable = new StringTable();
+
+        assertEquals(0, stringTable.id("a/A.java"));
+        assertEquals(1, stringTable.id("Linkage.Name"));
+        assertEquals(0, stringTable.id("a/A.java"));
+        assertEquals(2, stringTable.id(""));
+        assertEquals(3, stringTable.size());
+        assertEquals("Linkage.Name", stringTable.string(1));
+    }
+
+    @Test
+    void findDoesNotAddStrings() {
+        StringTable stringTable = new StringTable();
+        stringTable.id("a/A.java");
+
+        assertEquals(0, stringTable.find("a/A.java"));
+        assertEquals(-1, stringTable.find("b/B.java"));
+        assertEquals(1, stringTable.size());
+    }
+
+    @Test
+    void stringsWithTheSameHashAreKeptApart() {
+        StringTable stringTable = new StringTable();
+
+        // "Aa" and "BB" have the same hash code, so do all of their concatenations.
+        String[] strings = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        for (int i = 0; i < strings.length; i++) {
+            assertEquals(i, stringTable.id(strings[i]));
+        }
+        for (int i = 0; i < strings.length; i++) {
+            assertEquals(i, stringTable.find(strings[i]));
+            assertEquals(strings[i], stringTable.string(i));
+        }
+    }
+
+    @Test
+    void idsSurviveGrowing() {
+        StringTable stringTable = new StringTable();
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, stringTable.id("src/" + i + "/File.java"));
+        }
+
+        assertEquals(count, stringTable.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, stringTable.find("src/" + i + "/File.java"));
+            assertEquals("src/" + i + "/File.java", stringTable.string(i));
+        }
+        assertEquals(-1, stringTable.find("src/" + count + "/File.java"));
+    }
+
+}
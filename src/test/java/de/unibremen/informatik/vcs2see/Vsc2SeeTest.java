@@ -0,0 +1,98 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.vcs2see.data.EnvironmentData;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Vsc2SeeTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void optionsAreApplied() {
+        EnvironmentData environmentData = new EnvironmentData();
+        RepositoryData repositoryData = new RepositoryData();
+
+        new Vsc2See(environmentData, repositoryData).configure(new String[]{
+                "--workers", "4", "--analyser", "java", "--diff", "Myers", "--output", "gzip", "--export", "3-7",
+                "--tool-timeout", "60", "--statistics", "--name", "alpha", "--path", "/repositories/alpha",
+                "--type", "git", "--language", "java", "--since", "2021-06-30", "--stride", "10"
+        });
+
+        assertEquals(4, environmentData.getWorkers());
+        assertEquals(Analyser.Backend.JAVA, environmentData.getAnalyser());
+        assertEquals(DiffProvider.Backend.MYERS, environmentData.getDiff());
+        assertEquals(RepositoryCrawler.Output.GZIP, environmentData.getOutput());
+        assertEquals(3, environmentData.getExportFrom());
+        assertEquals(7, environmentData.getExportTo());
+        assertEquals(60, environmentData.getToolTimeout());
+        assertTrue(environmentData.isStatistics());
+        assertEquals("alpha", repositoryData.getName());
+        assertEquals("/repositories/alpha", repositoryData.getPath());
+        assertEquals(RepositoryCrawler.Type.GIT, repositoryData.getType());
+        assertEquals(CodeAnalyser.Language.JAVA, repositoryData.getLanguage());
+        assertEquals(LocalDateTime.of(2021, 6, 30, 0, 0), repositoryData.getSince());
+        assertEquals(10, repositoryData.getStride());
+    }
+
+    @Test
+    void invalidAndMissingValuesKeepTheSettings() {
+        EnvironmentData environmentData = new EnvironmentData();
+        RepositoryData repositoryData = new RepositoryData();
+
+        new Vsc2See(environmentData, repositoryData).configure(new String[]{
+                "--workers", "many", "--analyser", "eclipse", "--export", "3-x", "--until", "yesterday", "--stride"
+        });
+
+        EnvironmentData defaults = new EnvironmentData();
+        assertEquals(defaults.getWorkers(), environmentData.getWorkers());
+        assertEquals(defaults.getAnalyser(), environmentData.getAnalyser());
+        assertEquals(defaults.getExportFrom(), environmentData.getExportFrom());
+        assertEquals(defaults.getExportTo(), environmentData.getExportTo());
+        assertNull(repositoryData.getUntil());
+        assertEquals(new RepositoryData().getStride(), repositoryData.getStride());
+    }
+
+    @Test
+    void repositoryOptionsAreRefusedWithRepositoriesOfTheConfig() throws IOException {
+        Path config = temp.resolve("batch.properties");
+        Files.writeString(config, "repositories=alpha, beta\n"
+                + repository("alpha") + repository("beta"));
+
+        for (String option : new String[]{"--name", "--path", "--base-path", "--type", "--language", "--from", "--to"}) {
+            String[] args = {"--config", config.toString(), option, "value"};
+            assertThrows(IOException.class, () -> new Vsc2See().batch(args));
+        }
+    }
+
+    @Test
+    void repositoryNamesMustBeUnique() throws IOException {
+        Path config = temp.resolve("batch.properties");
+        Files.writeString(config, "repositories=alpha, beta\n"
+                + repository("alpha") + repository("beta")
+                + "repository.beta.name=Alpha\n");
+
+        String[] args = {"--config", config.toString()};
+        assertThrows(IOException.class, () -> new Vsc2See().batch(args));
+    }
+
+    private String repository(String key) {
+        String prefix = "repository." + key + ".";
+        return prefix + "type=GIT\n"
+                + prefix + "language=JAVA\n"
+                + prefix + "path=" + temp.resolve(key).toString().replace("\\", "/") + "\n";
+    }
+
+}
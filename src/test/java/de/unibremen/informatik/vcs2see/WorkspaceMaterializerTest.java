@@ -0,0 +1,214 @@
+package de.unibremen.informatik.vcs2see;
+
+import de.unibremen.informatik.st.libvcs4j.FileChange;
+import de.unibremen.informatik.st.libvcs4j.VCSFile;
+import de.unibremen.informatik.vcs2see.data.RepositoryData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WorkspaceMaterializerTest {
+
+    @TempDir
+    Path temp;
+
+    private Path source;
+
+    private Path checkout;
+
+    private Path workspace;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = temp.resolve("source");
+        checkout = temp.resolve("checkout");
+        workspace = temp.resolve("workspace");
+        Files.createDirectories(workspace);
+
+        write(source, "src/main/java/a/A.java", "class A {}");
+        write(source, "src/main/java/a/C.java", "class C {}");
+        write(source, "README.md", "# readme");
+        write(source, ".git/config", "[core]");
+        write(source, "alpha/alpha-1.gxl", "<gxl/>");
+    }
+
+    @Test
+    void firstUpdateCopiesTheRevision() throws IOException {
+        workspaceMaterializer(false, false).materialize(workspace.toFile(), Set.of());
+
+        assertEquals(Map.of(
+                "README.md", "# readme",
+                "src/main/java/a/A.java", "class A {}",
+                "src/main/java/a/C.java", "class C {}"), files(workspace));
+    }
+
+    @Test
+    void laterUpdatesOnlyApplyTheChangedPaths() throws IOException {
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(false, false);
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of());
+
+        write(source, "src/main/java/a/A.java", "class A { int a; }");
+        write(source, "src/main/java/b/B.java", "class B {}");
+        Files.delete(source.resolve("README.md"));
+        write(source, "src/main/java/a/C.java", "class C { int c; }");
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of("src/main/java/a/A.java", "src\\main\\java\\b\\B.java", "README.md"));
+
+        // C is not among the changed paths, so its copy is left alone.
+        assertEquals(Map.of(
+                "src/main/java/a/A.java", "class A { int a; }",
+                "src/main/java/a/C.java", "class C {}",
+                "src/main/java/b/B.java", "class B {}"), files(workspace));
+    }
+
+    @Test
+    void unknownChangesSynchronizeTheWholeRevision() throws IOException {
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(false, false);
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of());
+
+        write(source, "src/main/java/a/C.java", "class C { int c; }");
+        Files.delete(source.resolve("README.md"));
+        workspaceMaterializer.materialize(workspace.toFile(), null);
+
+        assertEquals(Map.of(
+                "src/main/java/a/A.java", "class A {}",
+                "src/main/java/a/C.java", "class C { int c; }"), files(workspace));
+    }
+
+    @Test
+    void editsOfTheSameSizeAreSynchronized() throws IOException {
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(false, false);
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of());
+
+        // Same size and modification time, only the content tells the files apart.
+        FileTime time = Files.getLastModifiedTime(workspace.resolve("src/main/java/a/C.java"));
+        write(source, "src/main/java/a/C.java", "class D {}");
+        Files.setLastModifiedTime(source.resolve("src/main/java/a/C.java"), time);
+        workspaceMaterializer.materialize(workspace.toFile(), null);
+
+        assertEquals("class D {}", files(workspace).get("src/main/java/a/C.java"));
+    }
+
+    @Test
+    void treeAppliesTheFileChangesAfterTheFirstRevision() throws IOException {
+        write(checkout, "src/main/java/a/A.java", "class A {}");
+        write(checkout, "src/main/java/a/B.java", "class B {}");
+        write(checkout, "README.md", "# readme");
+        source = Files.createDirectories(temp.resolve("tree"));
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(false, true);
+        workspaceMaterializer.update(List.of());
+        assertEquals(files(checkout), files(source));
+
+        // The content comes from the repository, the checkout is only compared with the tree.
+        write(checkout, "src/main/java/a/A.java", "class A { int a; }");
+        write(checkout, "src/main/java/b/C.java", "class C {}");
+        Files.delete(checkout.resolve("src/main/java/a/B.java"));
+        write(checkout, "src/main/java/b/B.java", "class B {}");
+        Files.delete(checkout.resolve("README.md"));
+        workspaceMaterializer.update(List.of(
+                fileChange(FileChange.Type.MODIFY, "src/main/java/a/A.java", "src/main/java/a/A.java", "class A { int a; }"),
+                fileChange(FileChange.Type.ADD, null, "src/main/java/b/C.java", "class C {}"),
+                fileChange(FileChange.Type.RELOCATE, "src/main/java/a/B.java", "src/main/java/b/B.java", "class B {}"),
+                fileChange(FileChange.Type.REMOVE, "README.md", null, null)));
+
+        assertEquals(Map.of(
+                "src/main/java/a/A.java", "class A { int a; }",
+                "src/main/java/b/B.java", "class B {}",
+                "src/main/java/b/C.java", "class C {}"), files(source));
+    }
+
+    @Test
+    void verificationFindsChangesMissingInTheTree() throws IOException {
+        write(checkout, "src/main/java/a/A.java", "class A {}");
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(false, true);
+        workspaceMaterializer.update(List.of());
+
+        write(checkout, "src/main/java/a/A.java", "class A { int a; }");
+
+        assertThrows(IOException.class, () -> workspaceMaterializer.update(List.of()));
+    }
+
+    @Test
+    void filterOnlyCopiesTheSourcesBelowTheBasePath() throws IOException {
+        write(source, "src/test/java/a/ATest.java", "class ATest {}");
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(true, false);
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of());
+
+        write(source, "README.md", "# changed");
+        write(source, "src/main/java/b/B.java", "class B {}");
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of("README.md", "src/main/java/b/B.java"));
+
+        assertEquals(Map.of(
+                "src/main/java/a/A.java", "class A {}",
+                "src/main/java/a/C.java", "class C {}",
+                "src/main/java/b/B.java", "class B {}"), files(workspace));
+    }
+
+    @Test
+    void verificationFindsMissedChanges() throws IOException {
+        WorkspaceMaterializer workspaceMaterializer = workspaceMaterializer(false, true);
+        workspaceMaterializer.materialize(workspace.toFile(), Set.of());
+
+        write(source, "src/main/java/a/C.java", "class C { int c; }");
+
+        assertThrows(IOException.class, () -> workspaceMaterializer.materialize(workspace.toFile(), Set.of()));
+    }
+
+    private WorkspaceMaterializer workspaceMaterializer(boolean filter, boolean verify) {
+        RepositoryData repositoryData = new RepositoryData();
+        repositoryData.setName("alpha");
+        repositoryData.setLanguage(CodeAnalyser.Language.JAVA);
+        repositoryData.setBasePath("src/main/java");
+        return new WorkspaceMaterializer(source.toFile(), checkout.toFile(), repositoryData, filter, verify);
+    }
+
+    private FileChange fileChange(FileChange.Type type, String oldPath, String newPath, String content) {
+        Optional<VCSFile> oldFile = Optional.ofNullable(oldPath).map(path -> proxy(VCSFile.class, Map.of("getRelativePath", path)));
+        Optional<VCSFile> newFile = Optional.ofNullable(newPath).map(path -> proxy(VCSFile.class, Map.of(
+                "getRelativePath", path, "readAllBytes", content.getBytes(StandardCharsets.UTF_8))));
+        return proxy(FileChange.class, Map.of("getType", type, "getOldFile", oldFile, "getNewFile", newFile));
+    }
+
+    private void write(Path root, String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private Map<String, String> files(Path root) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path file : stream.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                files.put(root.relativize(file).toString().replace('\\', '/'), Files.readString(file));
+            }
+        }
+        return files;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if(!values.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return values.get(method.getName());
+        });
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example;
+
+public class Alpha {
+
+    public int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            if(value > 0) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    public String name() {
+        return "alpha";
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.example;
+
+public class Beta {
+
+    public int total(int[] numbers) {
+        int sum = 0;
+        for (int value : numbers) {
+            if(value > 0) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    public int max(int[] numbers) {
+        int max = Integer.MIN_VALUE;
+        for (int number : numbers) {
+            max = Math.max(max, number);
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.util;
+
+public class Gamma {
+
+    public int largest(int[] numbers) {
+        int max = Integer.MIN_VALUE;
+        for (int number : numbers) {
+            max = Math.max(max, number);
+        }
+        return max;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.example;
+
+public class AlphaTest {
+
+    public int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            if(value > 0) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+}